@@ -1,18 +1,47 @@
 package com.project.jsb.controller;
 
 import com.project.jsb.dto.AppointmentDto;
+import com.project.jsb.dto.AppointmentPageDto;
+import com.project.jsb.dto.ResourceVersion;
+import com.project.jsb.dto.StatsDrift;
+import com.project.jsb.enums.ExportFormat;
+import com.project.jsb.enums.TransitionOutcome;
+import com.project.jsb.exception.InvalidStatusTransitionException;
 import com.project.jsb.exception.ResourceNotFoundException;
+import com.project.jsb.exception.SlotUnavailableException;
 import com.project.jsb.model.Appointment;
+import com.project.jsb.request.AppointmentSearchRequest;
+import com.project.jsb.request.BookSeriesRequest;
 import com.project.jsb.response.ApiResponse;
+import com.project.jsb.security.user.CustomUserDetails;
+import com.project.jsb.service.appointment.IAppointmentSeriesService;
 import com.project.jsb.service.appointment.IAppointmentService;
+import com.project.jsb.service.availability.IAvailabilityService;
+import com.project.jsb.service.event.IAppointmentEventService;
+import com.project.jsb.service.export.IAppointmentExportService;
+import com.project.jsb.service.stats.IAppointmentStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.UNAUTHORIZED;
 
 @RestController
 @RequestMapping("${api.prefix}/appointments")
@@ -20,9 +49,28 @@ public class AppointmentController {
 
     @Autowired
     private final IAppointmentService appointmentService;
+    @Autowired
+    private final IAvailabilityService availabilityService;
+    @Autowired
+    private final IAppointmentSeriesService appointmentSeriesService;
+    @Autowired
+    private final IAppointmentStatsService appointmentStatsService;
+    @Autowired
+    private final IAppointmentExportService appointmentExportService;
+    @Autowired
+    private final IAppointmentEventService appointmentEventService;
 
-    public AppointmentController(IAppointmentService appointmentService) {
+    public AppointmentController(IAppointmentService appointmentService, IAvailabilityService availabilityService,
+                                 IAppointmentSeriesService appointmentSeriesService,
+                                 IAppointmentStatsService appointmentStatsService,
+                                 IAppointmentExportService appointmentExportService,
+                                 IAppointmentEventService appointmentEventService) {
         this.appointmentService = appointmentService;
+        this.availabilityService = availabilityService;
+        this.appointmentSeriesService = appointmentSeriesService;
+        this.appointmentStatsService = appointmentStatsService;
+        this.appointmentExportService = appointmentExportService;
+        this.appointmentEventService = appointmentEventService;
     }
 
     @PostMapping("/appointment/book")  // for patient
@@ -33,6 +81,24 @@ public class AppointmentController {
             return ResponseEntity.ok(new ApiResponse("appointment booked", appointmentDto));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
+        } catch (SlotUnavailableException e) {
+            return ResponseEntity.status(CONFLICT).body(new ApiResponse(e.getMessage(), null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    @PostMapping("/appointment/book/series")  // for patient
+    public ResponseEntity<ApiResponse> bookSeries(@RequestBody BookSeriesRequest request) {
+        try {
+            List<AppointmentDto> appointmentDtos = appointmentSeriesService.bookSeries(request);
+            return ResponseEntity.ok(new ApiResponse("appointments booked", appointmentDtos));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
+        } catch (SlotUnavailableException e) {
+            return ResponseEntity.status(CONFLICT).body(new ApiResponse(e.getMessage(), null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
         }
     }
 
@@ -43,6 +109,8 @@ public class AppointmentController {
             return ResponseEntity.ok(new ApiResponse("appointment confirmed", null));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
+        } catch (InvalidStatusTransitionException e) {
+            return ResponseEntity.status(CONFLICT).body(new ApiResponse(e.getMessage(), null));
         }
     }
 
@@ -53,6 +121,8 @@ public class AppointmentController {
             return ResponseEntity.ok(new ApiResponse("appointment canceled", null));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
+        } catch (InvalidStatusTransitionException e) {
+            return ResponseEntity.status(CONFLICT).body(new ApiResponse(e.getMessage(), null));
         }
     }
 
@@ -63,6 +133,8 @@ public class AppointmentController {
             return ResponseEntity.ok(new ApiResponse("appointment completed", null));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
+        } catch (InvalidStatusTransitionException e) {
+            return ResponseEntity.status(CONFLICT).body(new ApiResponse(e.getMessage(), null));
         }
     }
 
@@ -73,12 +145,59 @@ public class AppointmentController {
             return ResponseEntity.ok(new ApiResponse(" payment updated", null));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(e.getMessage(), null));
+        } catch (InvalidStatusTransitionException e) {
+            return ResponseEntity.status(CONFLICT).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    @PutMapping("/appointment/confirm/batch")    // for doctor
+    public ResponseEntity<ApiResponse> confirmAppointments(@RequestBody List<Long> appointmentIds) {
+        try {
+            Map<Long, TransitionOutcome> outcomes = appointmentService.confirmAppointments(appointmentIds);
+            return ResponseEntity.ok(new ApiResponse("appointments processed", outcomes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    @PutMapping("/appointment/cancel/batch")
+    public ResponseEntity<ApiResponse> cancelAppointments(@RequestBody List<Long> appointmentIds) {
+        try {
+            Map<Long, TransitionOutcome> outcomes = appointmentService.cancelAppointments(appointmentIds);
+            return ResponseEntity.ok(new ApiResponse("appointments processed", outcomes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    @PutMapping("/appointment/complete/batch")    // for doctor
+    public ResponseEntity<ApiResponse> completeAppointments(@RequestBody List<Long> appointmentIds) {
+        try {
+            Map<Long, TransitionOutcome> outcomes = appointmentService.completeAppointments(appointmentIds);
+            return ResponseEntity.ok(new ApiResponse("appointments processed", outcomes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    @PutMapping("/appointment/payment/batch")
+    public ResponseEntity<ApiResponse> updatePayments(@RequestBody List<Long> appointmentIds) {
+        try {
+            Map<Long, TransitionOutcome> outcomes = appointmentService.updatePaymentStatuses(appointmentIds);
+            return ResponseEntity.ok(new ApiResponse("payments processed", outcomes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
         }
     }
 
     @GetMapping("/appointment/patient")    // for patient
-    public ResponseEntity<ApiResponse> patientAppointments() {
+    public ResponseEntity<ApiResponse> patientAppointments(WebRequest webRequest) {
         try {
+            // answered with 304 before the list is read, checkNotModified also sets ETag and Last-Modified on a 200
+            ResourceVersion version = appointmentService.patientAppointmentsVersion();
+            if (webRequest.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+                return null;
+            }
              List<AppointmentDto> appointmentDtos= appointmentService.findByPatientId();
             return ResponseEntity.ok(new ApiResponse(" appointment found", appointmentDtos));
         } catch (ResourceNotFoundException e) {
@@ -87,8 +206,12 @@ public class AppointmentController {
     }
 
     @GetMapping("/appointment/doctor")    // for doctor
-    public ResponseEntity<ApiResponse> doctorAppointments() {
+    public ResponseEntity<ApiResponse> doctorAppointments(WebRequest webRequest) {
         try {
+            ResourceVersion version = appointmentService.doctorAppointmentsVersion();
+            if (webRequest.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+                return null;
+            }
             List<AppointmentDto> appointmentDtos= appointmentService.findByDoctorId();
             return ResponseEntity.ok(new ApiResponse("  appointment found", appointmentDtos));
         } catch (ResourceNotFoundException e) {
@@ -97,8 +220,12 @@ public class AppointmentController {
     }
 
     @GetMapping("/appointment/all")    // for admin
-    public ResponseEntity<ApiResponse> Appointments() {
+    public ResponseEntity<ApiResponse> Appointments(WebRequest webRequest) {
         try {
+            ResourceVersion version = appointmentService.allAppointmentsVersion();
+            if (webRequest.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+                return null;
+            }
             List<AppointmentDto> appointmentDtos= appointmentService.getAllAppointments();
             return ResponseEntity.ok(new ApiResponse("  appointment found", appointmentDtos));
         } catch (ResourceNotFoundException e) {
@@ -106,4 +233,112 @@ public class AppointmentController {
         }
     }
 
+    @GetMapping("/appointment/patient/page")    // for patient
+    public ResponseEntity<ApiResponse> patientAppointmentPage(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                              @RequestParam(required = false) Integer size) {
+        try {
+            AppointmentPageDto page = appointmentService.findByPatientId(cursor, from, size);
+            return ResponseEntity.ok(new ApiResponse(" appointment found", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/appointment/doctor/page")    // for doctor
+    public ResponseEntity<ApiResponse> doctorAppointmentPage(@RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                             @RequestParam(required = false) Integer size) {
+        try {
+            AppointmentPageDto page = appointmentService.findByDoctorId(cursor, from, size);
+            return ResponseEntity.ok(new ApiResponse("  appointment found", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/appointment/all/page")    // for admin
+    public ResponseEntity<ApiResponse> appointmentPage(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                       @RequestParam(required = false) Integer size) {
+        try {
+            AppointmentPageDto page = appointmentService.getAllAppointments(cursor, from, size);
+            return ResponseEntity.ok(new ApiResponse("  appointment found", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/appointment/search")    // for admin
+    public ResponseEntity<ApiResponse> searchAppointments(AppointmentSearchRequest criteria) {
+        try {
+            AppointmentPageDto page = appointmentService.searchAppointments(criteria);
+            return ResponseEntity.ok(new ApiResponse("  appointment found", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/appointment/events")    // for patient and doctor
+    public ResponseEntity<SseEmitter> appointmentEvents() {
+        // no repository call here, open-in-view would pin a connection for as long as the stream stays open
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof CustomUserDetails user)) {
+            return ResponseEntity.status(UNAUTHORIZED).build();
+        }
+        SseEmitter emitter = appointmentEventService.subscribe(user.getId());
+        return ResponseEntity.ok().header(HttpHeaders.CACHE_CONTROL, "no-cache").body(emitter);
+    }
+
+    @GetMapping("/appointment/export")    // for admin
+    public ResponseEntity<?> exportAppointments(@RequestParam(defaultValue = "NDJSON") ExportFormat format,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            StreamingResponseBody body = appointmentExportService.export(format, from, to);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(format.contentType()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"appointments-" + from + "-" + to + "." + format.extension() + "\"")
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/appointment/stats")    // for admin
+    public ResponseEntity<ApiResponse> stats() {
+        return ResponseEntity.ok(new ApiResponse("stats found", appointmentStatsService.getStats()));
+    }
+
+    @GetMapping("/appointment/stats/doctor/{doctorId}")    // for doctor
+    public ResponseEntity<ApiResponse> doctorStats(@PathVariable Long doctorId) {
+        return ResponseEntity.ok(new ApiResponse("stats found", appointmentStatsService.getDoctorStats(doctorId)));
+    }
+
+    @GetMapping("/appointment/stats/check")    // for admin
+    public ResponseEntity<ApiResponse> checkStats() {
+        List<StatsDrift> drift = appointmentStatsService.check(false);
+        return ResponseEntity.ok(new ApiResponse(drift.isEmpty() ? "stats match the database" : "stats drifted", drift));
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping("/appointment/stats/repair")    // replaces the live counters with the database counts
+    public ResponseEntity<ApiResponse> repairStats() {
+        List<StatsDrift> drift = appointmentStatsService.check(true);
+        return ResponseEntity.ok(new ApiResponse(drift.isEmpty() ? "stats match the database" : "stats repaired", drift));
+    }
+
+    @GetMapping("/appointment/availability")    // for patient
+    public ResponseEntity<ApiResponse> freeSlots(@RequestParam Long doctorId,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            List<LocalDateTime> slots = availabilityService.getFreeSlots(doctorId, from, to);
+            return ResponseEntity.ok(new ApiResponse("free slots found", slots));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
 }
@@ -1,16 +1,25 @@
 package com.project.jsb.controller;
 
+import com.project.jsb.dto.ResourceVersion;
+import com.project.jsb.enums.DoctorSort;
+import com.project.jsb.enums.UserSort;
 import com.project.jsb.exception.AlreadyExistsException;
 import com.project.jsb.exception.ResourceNotFoundException;
 import com.project.jsb.request.CreateDoctorRequest;
 import com.project.jsb.request.UpdateDoctorRequest;
 import com.project.jsb.response.ApiResponse;
 import com.project.jsb.service.User.IUserService;
+import com.project.jsb.service.doctor.DoctorDirectoryCache;
 import com.project.jsb.service.doctor.IDoctorService;
+import com.project.jsb.service.earnings.IEarningsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 
@@ -21,22 +30,45 @@ public class DoctorController {
     public final IUserService userService;
     @Autowired
     public final IDoctorService doctorService;
+    @Autowired
+    public final IEarningsService earningsService;
+    @Autowired
+    public final DoctorDirectoryCache doctorDirectoryCache;
 
-    public DoctorController(IUserService userService, IDoctorService doctorService) {
+    public DoctorController(IUserService userService, IDoctorService doctorService, IEarningsService earningsService,
+                            DoctorDirectoryCache doctorDirectoryCache) {
         this.userService = userService;
         this.doctorService = doctorService;
+        this.earningsService = earningsService;
+        this.doctorDirectoryCache = doctorDirectoryCache;
     }
 
     @GetMapping("/doctor/get")                // to get all data of doctor
-    public ResponseEntity<ApiResponse> getDoctorById() {
+    public ResponseEntity<ApiResponse> getDoctorById(WebRequest webRequest) {
         Long doctorId  = userService.getAuthenticateUser().getId();
         try {
+            ResourceVersion version = doctorService.getDoctorVersion(doctorId);
+            if (webRequest.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+                return null;
+            }
             return ResponseEntity.ok(new ApiResponse("doctor found", doctorService.getDoctor(doctorId)));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(" doctor not found ", null));
         }
     }
 
+    @GetMapping("/doctor/{doctorId}/profile")      // doctor page: profile, image and next free slots in one call
+    public ResponseEntity<ApiResponse> getDoctorProfile(@PathVariable Long doctorId,
+                                                        @RequestParam(required = false) Integer slots) {
+        try {
+            return ResponseEntity.ok(new ApiResponse("doctor found", doctorService.getProfile(doctorId, slots)));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(" doctor not found ", null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
     @PostMapping("/doctor/create")         // create a patient
     public ResponseEntity<ApiResponse> createDoctor(@RequestBody CreateDoctorRequest request) {
         try {
@@ -52,6 +84,8 @@ public class DoctorController {
             return ResponseEntity.ok(new ApiResponse("doctor updated", doctorService.updateDoctor(request)));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(CONFLICT).body(new ApiResponse("doctor not found", null));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(CONFLICT).body(new ApiResponse("doctor was changed concurrently, try again", null));
         }
     }
 
@@ -63,4 +97,59 @@ public class DoctorController {
             return ResponseEntity.status(CONFLICT).body(new ApiResponse("doctor not found", null));
         }
     }
+
+    @GetMapping("/doctor/page")       // for admin
+    public ResponseEntity<ApiResponse> getDoctorPage(@RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer size,
+                                                     @RequestParam(required = false) UserSort sort) {
+        try {
+            return ResponseEntity.ok(new ApiResponse("doctors found", userService.getDoctorPage(cursor, size, sort)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/doctor/specialization/{specialization}")
+    public ResponseEntity<ApiResponse> getDoctorsBySpecialization(@PathVariable String specialization,
+                                                                  @RequestParam(defaultValue = "EXPERIENCE") DoctorSort sort,
+                                                                  @RequestParam(defaultValue = "DESC") Sort.Direction direction,
+                                                                  @RequestParam(required = false) Integer page,
+                                                                  @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(new ApiResponse("doctors found",
+                    doctorService.findBySpecialization(specialization, sort, direction, page, size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/doctor/search")
+    public ResponseEntity<ApiResponse> autocompleteDoctors(@RequestParam String q,
+                                                           @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(new ApiResponse("doctors found", doctorService.autocomplete(q, limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/doctor/top")
+    public ResponseEntity<ApiResponse> getTopDoctors(@RequestParam(required = false) String specialization,
+                                                     @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(new ApiResponse("top doctors", doctorService.topDoctors(specialization, limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/doctor/all/cache")
+    public ResponseEntity<ApiResponse> getDirectoryCacheStats() {
+        return ResponseEntity.ok(new ApiResponse("cache stats", doctorDirectoryCache.stats()));
+    }
+
+    @GetMapping("/doctor/{doctorId}/earnings")
+    public ResponseEntity<ApiResponse> getEarnings(@PathVariable Long doctorId) {
+        return ResponseEntity.ok(new ApiResponse("earnings found", earningsService.getEarnings(doctorId)));
+    }
 }
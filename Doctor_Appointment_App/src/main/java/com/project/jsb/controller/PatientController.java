@@ -1,17 +1,23 @@
 package com.project.jsb.controller;
 
+import com.project.jsb.dto.ResourceVersion;
 import com.project.jsb.dto.UserDto;
+import com.project.jsb.enums.UserSort;
 import com.project.jsb.exception.AlreadyExistsException;
 import com.project.jsb.exception.ResourceNotFoundException;
+import com.project.jsb.model.User;
 import com.project.jsb.request.CreateUserRequest;
 import com.project.jsb.request.UpdateUserRequest;
 import com.project.jsb.response.ApiResponse;
 import com.project.jsb.service.User.IUserService;
+import com.project.jsb.service.role.RoleRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 
@@ -22,17 +28,25 @@ public class PatientController {
 
     @Autowired
     public final IUserService userService;
+    @Autowired
+    public final RoleRegistry roleRegistry;
 
-    public PatientController(IUserService userService) {
+    public PatientController(IUserService userService, RoleRegistry roleRegistry) {
         this.userService = userService;
+        this.roleRegistry = roleRegistry;
     }
 
     @PreAuthorize("hasAuthority('PATIENT')")
     @GetMapping("/patient/get")                // recommended for patient --- can be used for both
-    public ResponseEntity<ApiResponse> getUserById() {
+    public ResponseEntity<ApiResponse> getUserById(WebRequest webRequest) {
         try {
-            Long userId = userService.getAuthenticateUser().getId();
-            UserDto userDto = userService.convertToDto(userService.getUser(userId));
+            // the signed-in user is already loaded, its version answers a poll without another query
+            User user = userService.getAuthenticateUser();
+            ResourceVersion version = userService.getVersion(user);
+            if (webRequest.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+                return null;
+            }
+            UserDto userDto = userService.convertToDto(userService.getUser(user.getId()));
             return ResponseEntity.ok(new ApiResponse("user found", userDto));
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(NOT_FOUND).body(new ApiResponse(" user not found ", null));
@@ -69,6 +83,17 @@ public class PatientController {
         }
     }
 
+    @GetMapping("/patient/page")       // for admin, keyset pages over 500k patients
+    public ResponseEntity<ApiResponse> getPatientPage(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer size,
+                                                      @RequestParam(required = false) UserSort sort) {
+        try {
+            return ResponseEntity.ok(new ApiResponse("patients found", userService.getPatientPage(cursor, size, sort)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(BAD_REQUEST).body(new ApiResponse(e.getMessage(), null));
+        }
+    }
+
     @GetMapping("/patient/all")
     public ResponseEntity<ApiResponse> getAllPatient( ) {
         try {
@@ -83,4 +108,10 @@ public class PatientController {
     public ResponseEntity<ApiResponse> getAllUser() {
         return ResponseEntity.ok(new ApiResponse("users found", userService.getAllUser()));
     }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping("/roles/refresh")      // reload roles after they were changed in the database
+    public ResponseEntity<ApiResponse> refreshRoles() {
+        return ResponseEntity.ok(new ApiResponse("roles reloaded", roleRegistry.refresh().keySet()));
+    }
 }
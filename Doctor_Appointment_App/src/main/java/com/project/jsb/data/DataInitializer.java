@@ -6,17 +6,22 @@ import com.project.jsb.model.User;
 import com.project.jsb.repository.DoctorRepository;
 import com.project.jsb.repository.RoleRepository;
 import com.project.jsb.repository.UserRepository;
+import com.project.jsb.service.role.RoleRegistry;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
-import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
+// seeds before the in-memory doctor indexes load on the same event
+@Order(Ordered.HIGHEST_PRECEDENCE)
 @Transactional
 @Component
 public class DataInitializer implements ApplicationListener<ApplicationReadyEvent> {
@@ -27,40 +32,48 @@ public class DataInitializer implements ApplicationListener<ApplicationReadyEven
     public final DoctorRepository doctorRepository;
     @Autowired
     public final RoleRepository roleRepository;
+    @Autowired
+    public final RoleRegistry roleRegistry;
 
 
     @Autowired
     public final PasswordEncoder passwordEncoder;
 
-    public DataInitializer(UserRepository userRepository, DoctorRepository doctorRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+    public DataInitializer(UserRepository userRepository, DoctorRepository doctorRepository, RoleRepository roleRepository, RoleRegistry roleRegistry, PasswordEncoder passwordEncoder) {
         this.userRepository = userRepository;
         this.doctorRepository = doctorRepository;
         this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
         this.passwordEncoder = passwordEncoder;
     }
 
     @Override
     public void onApplicationEvent(ApplicationReadyEvent event) {
-        Set<String> defaultRoles = Set.of("DOCTOR", "PATIENT","ADMIN");
+        Set<String> defaultRoles = Set.of(RoleRegistry.DOCTOR, RoleRegistry.PATIENT, RoleRegistry.ADMIN);
+        createDefaultRoleIfNotExists(defaultRoles);
+
         createDefaultAdmin();
         createDefaultDoctor();
         createDefaultPatient();
 
-        createDefaultRoleIfNotExists(defaultRoles);
-
     }
 
+    // one read for all roles, and one more only when a missing role had to be created
     private void createDefaultRoleIfNotExists(Set<String> roles) {
-        roles.stream()
-                .filter(role -> roleRepository.findByName(role).isEmpty())
+        Set<String> existing = roleRegistry.refresh().keySet();
+        List<Role> missing = roles.stream()
+                .filter(role -> !existing.contains(role))
                 .map(Role::new)
-                .forEach(roleRepository::save);
+                .toList();
+        if (!missing.isEmpty()) {
+            roleRepository.saveAll(missing);
+            roleRegistry.refresh();
+        }
     }
 
 
     public void createDefaultPatient() {
-        Collection<Role> userRoles = roleRepository.findByName("PATIENT");
-        Role userRole = userRoles.stream().findFirst().orElse(null);
+        Role userRole = roleRegistry.get(RoleRegistry.PATIENT);
         for (int i = 0; i < 1; i++) {
             String defaultEmail = "patient" + i + "@email.com";
             if (userRepository.existsByEmail(defaultEmail)) {
@@ -79,8 +92,7 @@ public class DataInitializer implements ApplicationListener<ApplicationReadyEven
     }
 
     public void createDefaultDoctor() {
-        Collection<Role> userRoles = roleRepository.findByName("DOCTOR");
-        Role userRole = userRoles.stream().findFirst().orElse(null);
+        Role userRole = roleRegistry.get(RoleRegistry.DOCTOR);
         for (int i = 0; i < 1; i++) {
             String defaultEmail = "doctor" + i + "@email.com";
             if (userRepository.existsByEmail(defaultEmail)) {
@@ -105,8 +117,7 @@ public class DataInitializer implements ApplicationListener<ApplicationReadyEven
     }
 
     public void createDefaultAdmin() {
-        Collection<Role> userRoles = roleRepository.findByName("ADMIN");
-        Role userRole = userRoles.stream().findFirst().orElse(null);
+        Role userRole = roleRegistry.get(RoleRegistry.ADMIN);
         for (int i = 0; i < 1; i++) {
             String defaultEmail = "admin" + i + "@email.com";
             if (userRepository.existsByEmail(defaultEmail)) {
@@ -1,8 +1,12 @@
 package com.project.jsb.dto;
 
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.enums.Gender;
+import com.project.jsb.enums.PaymentStatus;
 import com.project.jsb.model.User;
 
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 public class AppointmentDto {
@@ -19,6 +23,23 @@ public class AppointmentDto {
 
     private String paymentStatus;
 
+    public AppointmentDto() {
+    }
+
+    // flat constructor used by JPQL projections, patient and doctor columns follow the appointment columns
+    public AppointmentDto(Long id, LocalDateTime appointmentDate, AppointmentStatus appointmentStatus, PaymentStatus paymentStatus,
+                          Long patientId, String patientFirstName, String patientLastName, String patientEmail,
+                          String patientPhoneNumber, Gender patientGender, LocalDate patientDob,
+                          Long doctorId, String doctorFirstName, String doctorLastName, String doctorEmail,
+                          String doctorPhoneNumber, Gender doctorGender, LocalDate doctorDob) {
+        this.id = id;
+        this.appointmentDate = appointmentDate;
+        this.appointmentStatus = appointmentStatus.toString();
+        this.paymentStatus = paymentStatus.toString();
+        this.patient = new UserDto(patientId, patientFirstName, patientLastName, patientEmail, patientPhoneNumber, patientGender, patientDob);
+        this.doctor = new UserDto(doctorId, doctorFirstName, doctorLastName, doctorEmail, doctorPhoneNumber, doctorGender, doctorDob);
+    }
+
     public Long getId() {
         return id;
     }
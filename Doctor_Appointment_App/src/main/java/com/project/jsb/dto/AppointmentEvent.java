@@ -0,0 +1,12 @@
+package com.project.jsb.dto;
+
+import com.project.jsb.enums.AppointmentEventType;
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.enums.PaymentStatus;
+
+import java.time.LocalDateTime;
+
+public record AppointmentEvent(AppointmentEventType type, Long appointmentId, Long doctorId, Long patientId,
+                               LocalDateTime appointmentDate, AppointmentStatus appointmentStatus,
+                               PaymentStatus paymentStatus) {
+}
@@ -0,0 +1,13 @@
+package com.project.jsb.dto;
+
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.enums.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record AppointmentExportRow(Long id, LocalDateTime appointmentDate, AppointmentStatus appointmentStatus,
+                                   PaymentStatus paymentStatus, Long patientId, String patientFirstName,
+                                   String patientLastName, String patientEmail, Long doctorId, String doctorFirstName,
+                                   String doctorLastName, BigDecimal doctorFees) {
+}
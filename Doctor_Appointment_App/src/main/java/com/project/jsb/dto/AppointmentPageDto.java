@@ -0,0 +1,31 @@
+package com.project.jsb.dto;
+
+import java.util.List;
+
+public class AppointmentPageDto {
+
+    private List<AppointmentDto> appointments;
+
+    private String nextCursor;
+
+    public AppointmentPageDto(List<AppointmentDto> appointments, String nextCursor) {
+        this.appointments = appointments;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<AppointmentDto> getAppointments() {
+        return appointments;
+    }
+
+    public void setAppointments(List<AppointmentDto> appointments) {
+        this.appointments = appointments;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
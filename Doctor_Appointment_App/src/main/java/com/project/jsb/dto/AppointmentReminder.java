@@ -0,0 +1,8 @@
+package com.project.jsb.dto;
+
+import java.time.LocalDateTime;
+
+public record AppointmentReminder(Long appointmentId, Long patientId, String patientEmail, String patientFirstName,
+                                  Long doctorId, String doctorFirstName, String doctorLastName,
+                                  LocalDateTime appointmentDate) {
+}
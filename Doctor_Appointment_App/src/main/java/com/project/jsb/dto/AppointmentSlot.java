@@ -0,0 +1,6 @@
+package com.project.jsb.dto;
+
+import java.time.LocalDateTime;
+
+public record AppointmentSlot(Long id, LocalDateTime appointmentDate) {
+}
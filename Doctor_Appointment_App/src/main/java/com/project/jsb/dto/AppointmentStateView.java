@@ -0,0 +1,10 @@
+package com.project.jsb.dto;
+
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.enums.PaymentStatus;
+
+import java.time.LocalDateTime;
+
+public record AppointmentStateView(Long id, Long doctorId, Long patientId, LocalDateTime appointmentDate,
+                                   AppointmentStatus appointmentStatus, PaymentStatus paymentStatus, long version) {
+}
@@ -0,0 +1,11 @@
+package com.project.jsb.dto;
+
+import com.project.jsb.enums.AppointmentStatus;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+// doctorId is null for the clinic wide figures
+public record AppointmentStatsDto(Long doctorId, Map<AppointmentStatus, Long> byStatus, long total, long today,
+                                  BigDecimal revenue) {
+}
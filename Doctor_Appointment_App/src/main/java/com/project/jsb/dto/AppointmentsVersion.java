@@ -0,0 +1,17 @@
+package com.project.jsb.dto;
+
+import java.time.LocalDateTime;
+
+// aggregate over the rows of an appointment list. Versions only grow and ids are never reused, so any insert,
+// delete or update of an appointment, its patient or its doctor changes the tag.
+public record AppointmentsVersion(Long rows, Long lastId, Long version, LocalDateTime appointmentUpdated,
+                                  LocalDateTime patientUpdated, LocalDateTime doctorUpdated) {
+
+    public String tag() {
+        return rows + "." + (lastId == null ? 0 : lastId) + "." + version;
+    }
+
+    public LocalDateTime lastModified() {
+        return ResourceVersion.latest(appointmentUpdated, patientUpdated, doctorUpdated);
+    }
+}
@@ -0,0 +1,4 @@
+package com.project.jsb.dto;
+
+public record CacheStats(long hits, long misses, long evictions, int size) {
+}
@@ -0,0 +1,6 @@
+package com.project.jsb.dto;
+
+import java.time.LocalDate;
+
+public record DayCount(Long doctorId, LocalDate day, long count) {
+}
@@ -1,6 +1,9 @@
 package com.project.jsb.dto;
 
+import com.project.jsb.enums.Gender;
+
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 public class DoctorDto extends UserDto {
 
@@ -12,6 +15,18 @@ public class DoctorDto extends UserDto {
 
     private BigDecimal total_points;
 
+    public DoctorDto() {
+    }
+
+    public DoctorDto(Long id, String firstName, String lastName, String email, String phoneNumber, Gender gender, LocalDate dob,
+                     String specialization, Integer experience, BigDecimal doctor_fees, BigDecimal total_points) {
+        super(id, firstName, lastName, email, phoneNumber, gender, dob);
+        this.specialization = specialization;
+        this.Experience = experience;
+        this.doctor_fees = doctor_fees;
+        this.total_points = total_points;
+    }
+
     public String getSpecialization() {
         return specialization;
     }
@@ -0,0 +1,6 @@
+package com.project.jsb.dto;
+
+import java.math.BigDecimal;
+
+public record DoctorFee(Long doctorId, BigDecimal doctorFees) {
+}
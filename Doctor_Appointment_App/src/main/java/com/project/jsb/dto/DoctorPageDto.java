@@ -0,0 +1,6 @@
+package com.project.jsb.dto;
+
+import java.util.List;
+
+public record DoctorPageDto(List<DoctorDto> doctors, int page, int size, long total) {
+}
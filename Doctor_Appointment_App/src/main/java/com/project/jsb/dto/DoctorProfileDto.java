@@ -0,0 +1,7 @@
+package com.project.jsb.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record DoctorProfileDto(DoctorDto doctor, ImageDto image, List<LocalDateTime> nextFreeSlots) {
+}
@@ -0,0 +1,28 @@
+package com.project.jsb.dto;
+
+import com.project.jsb.enums.Gender;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// doctor, user and image metadata read in one join, the image bytes stay behind the download url
+public record DoctorProfileRow(Long id, String firstName, String lastName, String email, String phoneNumber, Gender gender,
+                               LocalDate dob, String specialization, Integer experience, BigDecimal doctor_fees,
+                               BigDecimal total_points, Long imageId, String imageFileName, String imageDownloadUrl) {
+
+    public DoctorDto doctor() {
+        return new DoctorDto(id, firstName, lastName, email, phoneNumber, gender, dob, specialization, experience,
+                doctor_fees, total_points);
+    }
+
+    public ImageDto image() {
+        if (imageId == null) {
+            return null;
+        }
+        ImageDto image = new ImageDto();
+        image.setId(imageId);
+        image.setFileName(imageFileName);
+        image.setDownloadUrl(imageDownloadUrl);
+        return image;
+    }
+}
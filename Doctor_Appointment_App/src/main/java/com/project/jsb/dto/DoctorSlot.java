@@ -0,0 +1,6 @@
+package com.project.jsb.dto;
+
+import java.time.LocalDateTime;
+
+public record DoctorSlot(Long doctorId, LocalDateTime appointmentDate) {
+}
@@ -0,0 +1,42 @@
+package com.project.jsb.dto;
+
+import java.math.BigDecimal;
+
+public class EarningsDto {
+
+    private Long doctorId;
+
+    private BigDecimal totalEarnings;
+
+    private Long completedAppointments;
+
+    public EarningsDto(Long doctorId, BigDecimal totalEarnings, Long completedAppointments) {
+        this.doctorId = doctorId;
+        this.totalEarnings = totalEarnings;
+        this.completedAppointments = completedAppointments;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public BigDecimal getTotalEarnings() {
+        return totalEarnings;
+    }
+
+    public void setTotalEarnings(BigDecimal totalEarnings) {
+        this.totalEarnings = totalEarnings;
+    }
+
+    public Long getCompletedAppointments() {
+        return completedAppointments;
+    }
+
+    public void setCompletedAppointments(Long completedAppointments) {
+        this.completedAppointments = completedAppointments;
+    }
+}
@@ -0,0 +1,12 @@
+package com.project.jsb.dto;
+
+// either the key now belongs to the caller, or the stored answer to replay, or neither while another request runs
+public record IdempotencyClaim(boolean claimed, StoredResponse stored) {
+
+    public static final IdempotencyClaim CLAIMED = new IdempotencyClaim(true, null);
+    public static final IdempotencyClaim IN_PROGRESS = new IdempotencyClaim(false, null);
+
+    public static IdempotencyClaim answered(StoredResponse stored) {
+        return new IdempotencyClaim(false, stored);
+    }
+}
@@ -0,0 +1,7 @@
+package com.project.jsb.dto;
+
+import java.math.BigDecimal;
+
+public record LeaderboardEntry(int rank, Long doctorId, String firstName, String lastName, String specialization,
+                               long completedAppointments, BigDecimal totalPoints) {
+}
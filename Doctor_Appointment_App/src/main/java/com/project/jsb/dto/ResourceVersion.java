@@ -0,0 +1,23 @@
+package com.project.jsb.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// validators for a conditional GET, built from version columns before the response body is read
+public record ResourceVersion(String etag, LocalDateTime lastModified) {
+
+    // -1 leaves Last-Modified out, rows written before the column existed have no timestamp
+    public long lastModifiedMillis() {
+        return lastModified == null ? -1 : lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public static LocalDateTime latest(LocalDateTime... times) {
+        LocalDateTime latest = null;
+        for (LocalDateTime time : times) {
+            if (time != null && (latest == null || time.isAfter(latest))) {
+                latest = time;
+            }
+        }
+        return latest;
+    }
+}
@@ -0,0 +1,5 @@
+package com.project.jsb.dto;
+
+// a counter that disagrees with the database, doctorId is null for clinic wide counters
+public record StatsDrift(String counter, Long doctorId, long database, long counted) {
+}
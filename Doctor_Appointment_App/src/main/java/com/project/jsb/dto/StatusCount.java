@@ -0,0 +1,6 @@
+package com.project.jsb.dto;
+
+import com.project.jsb.enums.AppointmentStatus;
+
+public record StatusCount(Long doctorId, AppointmentStatus status, long count) {
+}
@@ -0,0 +1,4 @@
+package com.project.jsb.dto;
+
+public record StoredResponse(String requestHash, int statusCode, String contentType, String body) {
+}
@@ -2,6 +2,7 @@ package com.project.jsb.dto;
 
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.project.jsb.enums.Gender;
 
 import java.time.LocalDate;
 
@@ -15,6 +16,19 @@ public class UserDto {
     @JsonFormat(pattern = "yyyy-MM-dd")
     private LocalDate dob;
 
+    public UserDto() {
+    }
+
+    public UserDto(Long id, String firstName, String lastName, String email, String phoneNumber, Gender gender, LocalDate dob) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.phoneNumber = phoneNumber;
+        this.gender = gender == null ? null : gender.toString();
+        this.dob = dob;
+    }
+
     public String getFirstName() {
         return firstName;
     }
@@ -0,0 +1,6 @@
+package com.project.jsb.dto;
+
+import java.util.List;
+
+public record UserPageDto(List<? extends UserDto> users, String nextCursor, long total) {
+}
@@ -0,0 +1,19 @@
+package com.project.jsb.enums;
+
+public enum AppointmentEventType {
+
+    CREATED,
+    CONFIRMED,
+    CANCELLED,
+    COMPLETED,
+    PAYMENT_UPDATED;
+
+    public static AppointmentEventType of(AppointmentStatus status) {
+        return switch (status) {
+            case BOOKED -> CREATED;
+            case CONFIRMED -> CONFIRMED;
+            case CANCELLED -> CANCELLED;
+            case COMPLETED -> COMPLETED;
+        };
+    }
+}
@@ -1,10 +1,26 @@
 package com.project.jsb.enums;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum AppointmentStatus {
 
     BOOKED,
     CONFIRMED,
     CANCELLED,
-    COMPLETED
+    COMPLETED;
+
+    // BOOKED -> CONFIRMED -> COMPLETED, BOOKED/CONFIRMED -> CANCELLED
+    public Set<AppointmentStatus> allowedSources() {
+        return switch (this) {
+            case BOOKED -> EnumSet.noneOf(AppointmentStatus.class);
+            case CONFIRMED -> EnumSet.of(BOOKED);
+            case CANCELLED -> EnumSet.of(BOOKED, CONFIRMED);
+            case COMPLETED -> EnumSet.of(CONFIRMED);
+        };
+    }
 
+    public boolean canTransitionTo(AppointmentStatus target) {
+        return target.allowedSources().contains(this);
+    }
 }
@@ -0,0 +1,31 @@
+package com.project.jsb.enums;
+
+import com.project.jsb.dto.DoctorDto;
+import org.springframework.data.domain.Sort;
+
+import java.util.Comparator;
+import java.util.function.Function;
+
+public enum DoctorSort {
+
+    EXPERIENCE {
+        @Override
+        public Comparator<DoctorDto> comparator(Sort.Direction direction) {
+            return by(DoctorDto::getExperience, direction);
+        }
+    },
+    FEES {
+        @Override
+        public Comparator<DoctorDto> comparator(Sort.Direction direction) {
+            return by(DoctorDto::getDoctor_fees, direction);
+        }
+    };
+
+    public abstract Comparator<DoctorDto> comparator(Sort.Direction direction);
+
+    // doctors without the value go last either way, the id keeps pages stable
+    private static <T extends Comparable<? super T>> Comparator<DoctorDto> by(Function<DoctorDto, T> key, Sort.Direction direction) {
+        Comparator<T> order = direction.isDescending() ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        return Comparator.comparing(key, Comparator.nullsLast(order)).thenComparing(DoctorDto::getId);
+    }
+}
@@ -0,0 +1,11 @@
+package com.project.jsb.enums;
+
+public enum RecurrenceFrequency {
+
+    WEEKLY,
+    BIWEEKLY;
+
+    public int weeks() {
+        return this == WEEKLY ? 1 : 2;
+    }
+}
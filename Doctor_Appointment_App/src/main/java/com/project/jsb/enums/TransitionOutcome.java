@@ -0,0 +1,7 @@
+package com.project.jsb.enums;
+
+public enum TransitionOutcome {
+    UPDATED,
+    REJECTED,
+    NOT_FOUND
+}
@@ -0,0 +1,7 @@
+package com.project.jsb.enums;
+
+// orders the admin user listings can page through by keyset, each backed by an index
+public enum UserSort {
+    ID,
+    NAME
+}
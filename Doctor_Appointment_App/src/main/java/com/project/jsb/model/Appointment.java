@@ -3,12 +3,25 @@ package com.project.jsb.model;
 import com.project.jsb.enums.AppointmentStatus;
 import com.project.jsb.enums.PaymentStatus;
 import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
+@NamedEntityGraph(name = Appointment.WITH_USERS, attributeNodes = {
+        @NamedAttributeNode(value = "patient", subgraph = "user"),
+        @NamedAttributeNode(value = "doctor", subgraph = "user")},
+        subgraphs = @NamedSubgraph(name = "user", attributeNodes = @NamedAttributeNode("image")))
+// trailing id lets the indexes serve the (appointment_date, id) keyset order, InnoDB stores it there anyway
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_appointment_doctor_slot", columnNames = {"doctor_id", "active_slot"}),
+        indexes = {
+                @Index(name = "idx_appointment_doctor_date", columnList = "doctor_id, appointment_date, id"),
+                @Index(name = "idx_appointment_patient_date", columnList = "patient_id, appointment_date, id"),
+                @Index(name = "idx_appointment_status_date", columnList = "appointment_status, appointment_date, id")})
 public class Appointment {
 
+    public static final String WITH_USERS = "Appointment.withUsers";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -30,6 +43,17 @@ public class Appointment {
     @Enumerated(EnumType.STRING)
     private PaymentStatus paymentStatus;
 
+    // same as appointmentDate while the appointment holds its slot, null once cancelled
+    @Column(name = "active_slot")
+    private LocalDateTime activeSlot;
+
+    @Version
+    private long version;
+
+    // the bulk updates in AppointmentRepository stamp this from the database clock
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
 
     public Long getId() {
         return id;
@@ -79,4 +103,24 @@ public class Appointment {
         this.paymentStatus = paymentStatus;
     }
 
+    public LocalDateTime getActiveSlot() {
+        return activeSlot;
+    }
+
+    public void setActiveSlot(LocalDateTime activeSlot) {
+        this.activeSlot = activeSlot;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
 }
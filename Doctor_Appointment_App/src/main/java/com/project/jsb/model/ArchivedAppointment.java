@@ -0,0 +1,96 @@
+package com.project.jsb.model;
+
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.enums.PaymentStatus;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// finished appointments moved out of the hot appointment table, keeps the original id
+@Entity
+@Table(name = "appointment_archive", indexes = {
+        @Index(name = "idx_appointment_archive_patient", columnList = "patient_id, appointment_date, id"),
+        @Index(name = "idx_appointment_archive_doctor", columnList = "doctor_id, appointment_date, id"),
+        @Index(name = "idx_appointment_archive_date", columnList = "appointment_date, id")})
+public class ArchivedAppointment {
+
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_id", nullable = false)
+    private User patient;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "doctor_id", nullable = false)
+    private User doctor;
+
+    @Column(nullable = false)
+    private LocalDateTime appointmentDate;
+
+    @Enumerated(EnumType.STRING)
+    private AppointmentStatus appointmentStatus;
+
+    @Enumerated(EnumType.STRING)
+    private PaymentStatus paymentStatus;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public User getPatient() {
+        return patient;
+    }
+
+    public void setPatient(User patient) {
+        this.patient = patient;
+    }
+
+    public User getDoctor() {
+        return doctor;
+    }
+
+    public void setDoctor(User doctor) {
+        this.doctor = doctor;
+    }
+
+    public LocalDateTime getAppointmentDate() {
+        return appointmentDate;
+    }
+
+    public void setAppointmentDate(LocalDateTime appointmentDate) {
+        this.appointmentDate = appointmentDate;
+    }
+
+    public AppointmentStatus getAppointmentStatus() {
+        return appointmentStatus;
+    }
+
+    public void setAppointmentStatus(AppointmentStatus appointmentStatus) {
+        this.appointmentStatus = appointmentStatus;
+    }
+
+    public PaymentStatus getPaymentStatus() {
+        return paymentStatus;
+    }
+
+    public void setPaymentStatus(PaymentStatus paymentStatus) {
+        this.paymentStatus = paymentStatus;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+}
@@ -1,8 +1,11 @@
 package com.project.jsb.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -24,8 +27,18 @@ public class Doctor {
 
     private BigDecimal doctor_fees;
 
+    // only the earnings batch moves it, with an increment in SQL, entity saves must not write back a stale total
+    @Column(updatable = false)
     private BigDecimal total_points= BigDecimal.ZERO;
 
+    // profile saves only, the earnings increment leaves it alone so a completion never fails a concurrent edit
+    @Version
+    @ColumnDefault("0")
+    private long version;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
     public Long getId() {
         return id;
     }
@@ -73,4 +86,12 @@ public class Doctor {
     public void setTotal_points(BigDecimal total_points) {
         this.total_points = total_points;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
 }
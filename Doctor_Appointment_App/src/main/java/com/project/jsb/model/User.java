@@ -2,13 +2,20 @@ package com.project.jsb.model;
 
 import com.project.jsb.enums.Gender;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 
 @Entity
+// keyset order of the admin listings sorted by name
+@Table(indexes = @Index(name = "idx_user_name", columnList = "last_name, first_name, id"))
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -29,10 +36,12 @@ public class User {
 
     private LocalDate dob;
 
-    @ManyToMany(fetch = FetchType.EAGER , cascade =
-            {CascadeType.DETACH , CascadeType.MERGE , CascadeType.ALL , CascadeType.REFRESH})
+    @Fetch(FetchMode.SUBSELECT)
+    // roles are shared rows, saving or deleting a user must never write them
+    @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(name = "user_roles", joinColumns=@JoinColumn(name ="user_id" , referencedColumnName = "id" ),
-            inverseJoinColumns = @JoinColumn(name = "role_id" , referencedColumnName = "id"))
+            inverseJoinColumns = @JoinColumn(name = "role_id" , referencedColumnName = "id"),
+            indexes = @Index(name = "idx_user_roles_role_user", columnList = "role_id, user_id"))
     private Collection<Role> roles =new HashSet<>();
 
     @OneToOne(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -44,6 +53,14 @@ public class User {
     @OneToMany(mappedBy = "doctor", cascade = CascadeType.ALL)
     private List<Appointment> doctorAppointments;
 
+    // version and updatedAt back the ETag and Last-Modified of the profile reads, the default fills existing rows
+    @Version
+    @ColumnDefault("0")
+    private long version;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
 
     public Long getId() {
         return id;
@@ -140,4 +157,12 @@ public class User {
     public void setDob(LocalDate dob) {
         this.dob = dob;
     }
-}
\ No newline at end of file
+
+    public long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -1,13 +1,192 @@
 package com.project.jsb.repository;
 
+import com.project.jsb.dto.AppointmentDto;
+import com.project.jsb.dto.AppointmentReminder;
+import com.project.jsb.dto.AppointmentSlot;
+import com.project.jsb.dto.AppointmentStateView;
+import com.project.jsb.dto.AppointmentsVersion;
+import com.project.jsb.dto.DayCount;
+import com.project.jsb.dto.DoctorSlot;
+import com.project.jsb.dto.StatusCount;
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.enums.PaymentStatus;
 import com.project.jsb.model.Appointment;
 import com.project.jsb.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository extends JpaRepository<Appointment, Long>, AppointmentSearchRepository {
+    String SELECT_DTO = "select new com.project.jsb.dto.AppointmentDto(a.id, a.appointmentDate, a.appointmentStatus, a.paymentStatus, " +
+            "p.id, p.firstName, p.lastName, p.email, p.phoneNumber, p.gender, p.dob, " +
+            "d.id, d.firstName, d.lastName, d.email, d.phoneNumber, d.gender, d.dob) " +
+            "from Appointment a join a.patient p join a.doctor d ";
+
+    @EntityGraph(Appointment.WITH_USERS)
     List<Appointment> findByPatientId(Long patientId);
 
+    @EntityGraph(Appointment.WITH_USERS)
     List<Appointment> findByDoctorId(Long doctorId);
+
+    @Override
+    @EntityGraph(Appointment.WITH_USERS)
+    List<Appointment> findAll();
+
+    // one query per owner so the (patient_id, ...) and (doctor_id, ...) indexes pick the rows, the joined users
+    // carry renames into the tag
+    String SELECT_VERSION = "select new com.project.jsb.dto.AppointmentsVersion(count(a), max(a.id), " +
+            "coalesce(sum(a.version + p.version + d.version), 0L), max(a.updatedAt), max(p.updatedAt), max(d.updatedAt)) " +
+            "from Appointment a join a.patient p join a.doctor d ";
+
+    @Query(SELECT_VERSION + "where a.patient.id = :patientId")
+    AppointmentsVersion findPatientListVersion(@Param("patientId") Long patientId);
+
+    @Query(SELECT_VERSION + "where a.doctor.id = :doctorId")
+    AppointmentsVersion findDoctorListVersion(@Param("doctorId") Long doctorId);
+
+    @Query(SELECT_VERSION)
+    AppointmentsVersion findListVersion();
+
+    @Query("select new com.project.jsb.dto.DoctorSlot(a.doctor.id, a.appointmentDate) from Appointment a " +
+            "where a.appointmentStatus in :statuses and a.appointmentDate >= :from")
+    List<DoctorSlot> findActiveSlotsFrom(@Param("statuses") Collection<AppointmentStatus> statuses,
+                                         @Param("from") LocalDateTime from);
+
+    @Query("select new com.project.jsb.dto.AppointmentSlot(a.id, a.appointmentDate) from Appointment a " +
+            "where a.appointmentStatus in :statuses and a.appointmentDate > :from")
+    List<AppointmentSlot> findUpcomingSlots(@Param("statuses") Collection<AppointmentStatus> statuses,
+                                            @Param("from") LocalDateTime from);
+
+    @Query("select new com.project.jsb.dto.AppointmentReminder(a.id, p.id, p.email, p.firstName, " +
+            "d.id, d.firstName, d.lastName, a.appointmentDate) " +
+            "from Appointment a join a.patient p join a.doctor d " +
+            "where a.id in :ids and a.appointmentStatus in :statuses")
+    List<AppointmentReminder> findReminders(@Param("ids") Collection<Long> ids,
+                                            @Param("statuses") Collection<AppointmentStatus> statuses);
+
+    @Query("select new com.project.jsb.dto.StatusCount(a.doctor.id, a.appointmentStatus, count(a)) from Appointment a " +
+            "group by a.doctor.id, a.appointmentStatus")
+    List<StatusCount> countByDoctorAndStatus();
+
+    @Query("select new com.project.jsb.dto.DayCount(a.doctor.id, cast(a.appointmentDate as LocalDate), count(a)) " +
+            "from Appointment a where a.appointmentStatus <> com.project.jsb.enums.AppointmentStatus.CANCELLED " +
+            "and a.appointmentDate >= :from group by a.doctor.id, cast(a.appointmentDate as LocalDate)")
+    List<DayCount> countByDoctorAndDayFrom(@Param("from") LocalDateTime from);
+
+    // served by the (doctor_id, active_slot) unique key
+    @Query("select a.activeSlot from Appointment a where a.doctor.id = :doctorId and a.activeSlot in :slots")
+    List<LocalDateTime> findTakenSlots(@Param("doctorId") Long doctorId, @Param("slots") Collection<LocalDateTime> slots);
+
+    @Query("select a.id from Appointment a where a.appointmentStatus in :statuses and a.appointmentDate < :before order by a.id")
+    List<Long> findArchivableIds(@Param("statuses") Collection<AppointmentStatus> statuses,
+                                 @Param("before") LocalDateTime before, Pageable pageable);
+
+    @Modifying
+    @Query("delete from Appointment a where a.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(Appointment.WITH_USERS)
+    List<Appointment> findByOrderByAppointmentDateAscIdAsc(Pageable pageable);
+
+    @EntityGraph(Appointment.WITH_USERS)
+    List<Appointment> findByDoctorIdOrderByAppointmentDateAscIdAsc(Long doctorId, Pageable pageable);
+
+    @EntityGraph(Appointment.WITH_USERS)
+    List<Appointment> findByPatientIdOrderByAppointmentDateAscIdAsc(Long patientId, Pageable pageable);
+
+    @EntityGraph(Appointment.WITH_USERS)
+    @Query("select a from Appointment a " +
+            "where a.appointmentDate > :date or (a.appointmentDate = :date and a.id > :id) " +
+            "order by a.appointmentDate, a.id")
+    List<Appointment> findPageAfter(@Param("date") LocalDateTime date, @Param("id") Long id, Pageable pageable);
+
+    @EntityGraph(Appointment.WITH_USERS)
+    @Query("select a from Appointment a where a.doctor.id = :doctorId " +
+            "and (a.appointmentDate > :date or (a.appointmentDate = :date and a.id > :id)) " +
+            "order by a.appointmentDate, a.id")
+    List<Appointment> findDoctorPageAfter(@Param("doctorId") Long doctorId, @Param("date") LocalDateTime date,
+                                          @Param("id") Long id, Pageable pageable);
+
+    @EntityGraph(Appointment.WITH_USERS)
+    @Query("select a from Appointment a where a.patient.id = :patientId " +
+            "and (a.appointmentDate > :date or (a.appointmentDate = :date and a.id > :id)) " +
+            "order by a.appointmentDate, a.id")
+    List<Appointment> findPatientPageAfter(@Param("patientId") Long patientId, @Param("date") LocalDateTime date,
+                                           @Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_DTO)
+    List<AppointmentDto> findAllDtos();
+
+    @Query(SELECT_DTO + "where p.id = :patientId")
+    List<AppointmentDto> findDtosByPatientId(@Param("patientId") Long patientId);
+
+    @Query(SELECT_DTO + "where d.id = :doctorId")
+    List<AppointmentDto> findDtosByDoctorId(@Param("doctorId") Long doctorId);
+
+    String SELECT_STATE = "select new com.project.jsb.dto.AppointmentStateView(a.id, a.doctor.id, a.patient.id, " +
+            "a.appointmentDate, a.appointmentStatus, a.paymentStatus, a.version) from Appointment a ";
+
+    @Query(SELECT_STATE + "where a.id = :id")
+    Optional<AppointmentStateView> findState(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(SELECT_STATE + "where a.id in :ids")
+    List<AppointmentStateView> lockStates(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("update Appointment a set a.appointmentStatus = :target, a.version = a.version + 1, a.updatedAt = local datetime " +
+            "where a.id = :id and a.appointmentStatus in :sources")
+    int transition(@Param("id") Long id, @Param("sources") Collection<AppointmentStatus> sources,
+                   @Param("target") AppointmentStatus target);
+
+    @Transactional
+    @Modifying
+    @Query("update Appointment a set a.appointmentStatus = :target, a.version = a.version + 1, a.updatedAt = local datetime " +
+            "where a.id = :id and a.version = :version and a.appointmentStatus in :sources")
+    int transition(@Param("id") Long id, @Param("version") long version,
+                   @Param("sources") Collection<AppointmentStatus> sources, @Param("target") AppointmentStatus target);
+
+    @Transactional
+    @Modifying
+    @Query("update Appointment a set a.appointmentStatus = com.project.jsb.enums.AppointmentStatus.CANCELLED, " +
+            "a.activeSlot = null, a.version = a.version + 1, a.updatedAt = local datetime " +
+            "where a.id = :id and a.appointmentStatus in :sources")
+    int cancel(@Param("id") Long id, @Param("sources") Collection<AppointmentStatus> sources);
+
+    @Transactional
+    @Modifying
+    @Query("update Appointment a set a.paymentStatus = :target, a.version = a.version + 1, a.updatedAt = local datetime " +
+            "where a.id = :id and a.paymentStatus in :sources")
+    int updatePaymentStatus(@Param("id") Long id, @Param("sources") Collection<PaymentStatus> sources,
+                            @Param("target") PaymentStatus target);
+
+    @Modifying
+    @Query("update Appointment a set a.appointmentStatus = :target, a.version = a.version + 1, a.updatedAt = local datetime " +
+            "where a.id in :ids and a.appointmentStatus in :sources")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("sources") Collection<AppointmentStatus> sources,
+                     @Param("target") AppointmentStatus target);
+
+    @Modifying
+    @Query("update Appointment a set a.appointmentStatus = com.project.jsb.enums.AppointmentStatus.CANCELLED, " +
+            "a.activeSlot = null, a.version = a.version + 1, a.updatedAt = local datetime " +
+            "where a.id in :ids and a.appointmentStatus in :sources")
+    int cancel(@Param("ids") Collection<Long> ids, @Param("sources") Collection<AppointmentStatus> sources);
+
+    @Modifying
+    @Query("update Appointment a set a.paymentStatus = :target, a.version = a.version + 1, a.updatedAt = local datetime " +
+            "where a.id in :ids and a.paymentStatus in :sources")
+    int updatePaymentStatus(@Param("ids") Collection<Long> ids, @Param("sources") Collection<PaymentStatus> sources,
+                            @Param("target") PaymentStatus target);
 }
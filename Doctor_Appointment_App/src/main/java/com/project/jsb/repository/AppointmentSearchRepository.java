@@ -0,0 +1,18 @@
+package com.project.jsb.repository;
+
+import com.project.jsb.dto.AppointmentDto;
+import com.project.jsb.dto.AppointmentExportRow;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface AppointmentSearchRepository {
+
+    // appointments matching the specification as dtos in (appointmentDate, id) order, without a count query
+    <T> List<AppointmentDto> searchDtos(Class<T> entity, Specification<T> specification, int limit);
+
+    // forward-only cursor over [from, to), must be consumed and closed inside a transaction
+    <T> Stream<AppointmentExportRow> streamExportRows(Class<T> entity, LocalDateTime from, LocalDateTime to, int fetchSize);
+}
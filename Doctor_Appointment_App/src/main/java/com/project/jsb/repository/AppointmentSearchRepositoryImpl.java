@@ -0,0 +1,62 @@
+package com.project.jsb.repository;
+
+import com.project.jsb.dto.AppointmentDto;
+import com.project.jsb.dto.AppointmentExportRow;
+import com.project.jsb.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class AppointmentSearchRepositoryImpl implements AppointmentSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public <T> List<AppointmentDto> searchDtos(Class<T> entity, Specification<T> specification, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AppointmentDto> query = cb.createQuery(AppointmentDto.class);
+        Root<T> root = query.from(entity);
+        Join<T, User> patient = root.join("patient");
+        Join<T, User> doctor = root.join("doctor");
+        query.select(cb.construct(AppointmentDto.class,
+                root.get("id"), root.get("appointmentDate"), root.get("appointmentStatus"), root.get("paymentStatus"),
+                patient.get("id"), patient.get("firstName"), patient.get("lastName"), patient.get("email"),
+                patient.get("phoneNumber"), patient.get("gender"), patient.get("dob"),
+                doctor.get("id"), doctor.get("firstName"), doctor.get("lastName"), doctor.get("email"),
+                doctor.get("phoneNumber"), doctor.get("gender"), doctor.get("dob")));
+        if (specification != null) {
+            Predicate where = specification.toPredicate(root, query, cb);
+            if (where != null) {
+                query.where(where);
+            }
+        }
+        query.orderBy(cb.asc(root.get("appointmentDate")), cb.asc(root.get("id")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    // rows are projected, nothing enters the persistence context while the export runs
+    @Override
+    public <T> Stream<AppointmentExportRow> streamExportRows(Class<T> entity, LocalDateTime from, LocalDateTime to, int fetchSize) {
+        String query = "select new com.project.jsb.dto.AppointmentExportRow(a.id, a.appointmentDate, a.appointmentStatus, " +
+                "a.paymentStatus, p.id, p.firstName, p.lastName, p.email, d.id, d.firstName, d.lastName, doc.doctor_fees) " +
+                "from " + entity.getSimpleName() + " a join a.patient p join a.doctor d left join Doctor doc on doc.user = d " +
+                "where a.appointmentDate >= :from and a.appointmentDate < :to order by a.appointmentDate, a.id";
+        return entityManager.createQuery(query, AppointmentExportRow.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
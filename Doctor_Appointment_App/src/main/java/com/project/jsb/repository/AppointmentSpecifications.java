@@ -0,0 +1,76 @@
+package com.project.jsb.repository;
+
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.enums.PaymentStatus;
+import com.project.jsb.model.Doctor;
+import com.project.jsb.request.AppointmentSearchRequest;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// filters shared by Appointment and ArchivedAppointment, both map the same attribute names
+public final class AppointmentSpecifications {
+
+    private AppointmentSpecifications() {
+    }
+
+    public static <T> Specification<T> matching(AppointmentSearchRequest criteria) {
+        return Specification.<T>where(hasStatus(criteria.getStatus()))
+                .and(hasPaymentStatus(criteria.getPaymentStatus()))
+                .and(onOrAfter(criteria.getFrom()))
+                .and(onOrBefore(criteria.getTo()))
+                .and(withDoctor(criteria.getDoctorId()))
+                .and(withPatient(criteria.getPatientId()))
+                .and(withSpecialization(criteria.getSpecialization()));
+    }
+
+    // a null specification is skipped by where/and, so absent filters add nothing to the query
+    public static <T> Specification<T> hasStatus(AppointmentStatus status) {
+        return status == null ? null : (root, query, cb) -> cb.equal(root.get("appointmentStatus"), status);
+    }
+
+    public static <T> Specification<T> hasPaymentStatus(PaymentStatus paymentStatus) {
+        return paymentStatus == null ? null : (root, query, cb) -> cb.equal(root.get("paymentStatus"), paymentStatus);
+    }
+
+    public static <T> Specification<T> onOrAfter(LocalDate from) {
+        return from == null ? null
+                : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("appointmentDate"), from.atStartOfDay());
+    }
+
+    public static <T> Specification<T> onOrBefore(LocalDate to) {
+        return to == null ? null
+                : (root, query, cb) -> cb.lessThan(root.get("appointmentDate"), to.plusDays(1).atStartOfDay());
+    }
+
+    public static <T> Specification<T> withDoctor(Long doctorId) {
+        return doctorId == null ? null : (root, query, cb) -> cb.equal(root.get("doctor").get("id"), doctorId);
+    }
+
+    public static <T> Specification<T> withPatient(Long patientId) {
+        return patientId == null ? null : (root, query, cb) -> cb.equal(root.get("patient").get("id"), patientId);
+    }
+
+    // doctor_id in (doctors of the specialization) keeps the (doctor_id, appointment_date) index usable
+    public static <T> Specification<T> withSpecialization(String specialization) {
+        if (specialization == null || specialization.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Subquery<Long> doctors = query.subquery(Long.class);
+            Root<Doctor> doctor = doctors.from(Doctor.class);
+            doctors.select(doctor.get("user").get("id")).where(cb.equal(doctor.get("specialization"), specialization.trim()));
+            return root.get("doctor").get("id").in(doctors);
+        };
+    }
+
+    // keyset position, rows strictly after (date, id)
+    public static <T> Specification<T> after(LocalDateTime date, Long id) {
+        return date == null ? null : (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("appointmentDate"), date),
+                cb.and(cb.equal(root.get("appointmentDate"), date), cb.greaterThan(root.get("id"), id)));
+    }
+}
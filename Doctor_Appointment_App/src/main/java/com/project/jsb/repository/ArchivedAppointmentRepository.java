@@ -0,0 +1,80 @@
+package com.project.jsb.repository;
+
+import com.project.jsb.dto.AppointmentDto;
+import com.project.jsb.dto.AppointmentsVersion;
+import com.project.jsb.dto.StatusCount;
+import com.project.jsb.model.ArchivedAppointment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ArchivedAppointmentRepository extends JpaRepository<ArchivedAppointment, Long>, AppointmentSearchRepository {
+    String SELECT_DTO = "select new com.project.jsb.dto.AppointmentDto(a.id, a.appointmentDate, a.appointmentStatus, a.paymentStatus, " +
+            "p.id, p.firstName, p.lastName, p.email, p.phoneNumber, p.gender, p.dob, " +
+            "d.id, d.firstName, d.lastName, d.email, d.phoneNumber, d.gender, d.dob) " +
+            "from ArchivedAppointment a join a.patient p join a.doctor d ";
+    String AFTER = "(a.appointmentDate > :date or (a.appointmentDate = :date and a.id > :id)) ";
+
+    // copies rows as they are, the caller deletes them from the hot table in the same transaction
+    @Modifying
+    @Query(value = "insert into appointment_archive " +
+            "(id, patient_id, doctor_id, appointment_date, appointment_status, payment_status, archived_at) " +
+            "select id, patient_id, doctor_id, appointment_date, appointment_status, payment_status, :archivedAt " +
+            "from appointment where id in :ids", nativeQuery = true)
+    int copyFromAppointments(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    // the hot table cascades a deleted user's appointments, the archive is cleared by hand
+    @Transactional
+    @Modifying
+    @Query("delete from ArchivedAppointment a where a.patient.id = :userId or a.doctor.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    @Query("select new com.project.jsb.dto.StatusCount(a.doctor.id, a.appointmentStatus, count(a)) from ArchivedAppointment a " +
+            "group by a.doctor.id, a.appointmentStatus")
+    List<StatusCount> countByDoctorAndStatus();
+
+    // archived rows never change, their archivedAt stands in for an update time
+    String SELECT_VERSION = "select new com.project.jsb.dto.AppointmentsVersion(count(a), max(a.id), " +
+            "coalesce(sum(p.version + d.version), 0L), max(a.archivedAt), max(p.updatedAt), max(d.updatedAt)) " +
+            "from ArchivedAppointment a join a.patient p join a.doctor d ";
+
+    @Query(SELECT_VERSION + "where a.patient.id = :patientId")
+    AppointmentsVersion findPatientListVersion(@Param("patientId") Long patientId);
+
+    @Query(SELECT_VERSION + "where a.doctor.id = :doctorId")
+    AppointmentsVersion findDoctorListVersion(@Param("doctorId") Long doctorId);
+
+    @Query(SELECT_VERSION)
+    AppointmentsVersion findListVersion();
+
+    @Query("select max(a.appointmentDate) from ArchivedAppointment a")
+    Optional<LocalDateTime> findNewestAppointmentDate();
+
+    @Query(SELECT_DTO)
+    List<AppointmentDto> findAllDtos();
+
+    @Query(SELECT_DTO + "where p.id = :patientId")
+    List<AppointmentDto> findDtosByPatientId(@Param("patientId") Long patientId);
+
+    @Query(SELECT_DTO + "where d.id = :doctorId")
+    List<AppointmentDto> findDtosByDoctorId(@Param("doctorId") Long doctorId);
+
+    @Query(SELECT_DTO + "where " + AFTER + "order by a.appointmentDate, a.id")
+    List<AppointmentDto> findDtoPageAfter(@Param("date") LocalDateTime date, @Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_DTO + "where d.id = :doctorId and " + AFTER + "order by a.appointmentDate, a.id")
+    List<AppointmentDto> findDoctorDtoPageAfter(@Param("doctorId") Long doctorId, @Param("date") LocalDateTime date,
+                                                @Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_DTO + "where p.id = :patientId and " + AFTER + "order by a.appointmentDate, a.id")
+    List<AppointmentDto> findPatientDtoPageAfter(@Param("patientId") Long patientId, @Param("date") LocalDateTime date,
+                                                 @Param("id") Long id, Pageable pageable);
+}
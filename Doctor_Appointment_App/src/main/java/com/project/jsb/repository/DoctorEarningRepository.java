@@ -0,0 +1,23 @@
+package com.project.jsb.repository;
+
+import com.project.jsb.dto.EarningsDto;
+import com.project.jsb.model.DoctorEarning;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DoctorEarningRepository extends JpaRepository<DoctorEarning, Long> {
+
+    @Query("select new com.project.jsb.dto.EarningsDto(e.doctorId, sum(e.amount), count(e)) " +
+            "from DoctorEarning e where e.doctorId = :doctorId group by e.doctorId")
+    Optional<EarningsDto> findEarnings(@Param("doctorId") Long doctorId);
+
+    @Query("select new com.project.jsb.dto.EarningsDto(e.doctorId, sum(e.amount), count(e)) " +
+            "from DoctorEarning e group by e.doctorId")
+    List<EarningsDto> findAllEarnings();
+}
@@ -1,12 +1,51 @@
 package com.project.jsb.repository;
 
+import com.project.jsb.dto.DoctorDto;
+import com.project.jsb.dto.DoctorFee;
+import com.project.jsb.dto.DoctorProfileRow;
 import com.project.jsb.model.Doctor;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DoctorRepository extends JpaRepository<Doctor ,Long> {
+    String SELECT_DTO = "select new com.project.jsb.dto.DoctorDto(u.id, u.firstName, u.lastName, u.email, u.phoneNumber, u.gender, " +
+            "u.dob, d.specialization, d.experience, d.doctor_fees, d.total_points) from Doctor d join d.user u ";
+
     Optional<Doctor> findByUserId(Long id);
+
+    @Query(SELECT_DTO)
+    List<DoctorDto> findAllDoctorDtos();
+
+    @Query(SELECT_DTO + "where u.id = :userId")
+    Optional<DoctorDto> findDoctorDto(@Param("userId") Long userId);
+
+    // a doctor row is the doctor role, the unique user_id index serves the keyset directly
+    @Query(SELECT_DTO + "order by u.id")
+    List<DoctorDto> findPage(Pageable pageable);
+
+    @Query(SELECT_DTO + "where u.id > :id order by u.id")
+    List<DoctorDto> findPageAfter(@Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_DTO + UserRepository.BY_NAME)
+    List<DoctorDto> findNamePage(Pageable pageable);
+
+    @Query(SELECT_DTO + "where " + UserRepository.AFTER_NAME + UserRepository.BY_NAME)
+    List<DoctorDto> findNamePageAfter(@Param("lastName") String lastName, @Param("firstName") String firstName,
+                                      @Param("id") Long id, Pageable pageable);
+
+    @Query("select new com.project.jsb.dto.DoctorProfileRow(u.id, u.firstName, u.lastName, u.email, u.phoneNumber, u.gender, " +
+            "u.dob, d.specialization, d.experience, d.doctor_fees, d.total_points, i.id, i.filename, i.downloadUrl) " +
+            "from Doctor d join d.user u left join u.image i where u.id = :userId")
+    Optional<DoctorProfileRow> findProfile(@Param("userId") Long userId);
+
+    @Query("select new com.project.jsb.dto.DoctorFee(d.user.id, d.doctor_fees) from Doctor d where d.user.id in :userIds")
+    List<DoctorFee> findFees(@Param("userIds") Collection<Long> userIds);
 }
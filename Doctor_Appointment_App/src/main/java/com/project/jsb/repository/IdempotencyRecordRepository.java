@@ -0,0 +1,26 @@
+package com.project.jsb.repository;
+
+import com.project.jsb.dto.StoredResponse;
+import com.project.jsb.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    @Query("select new com.project.jsb.dto.StoredResponse(r.requestHash, r.statusCode, r.contentType, r.responseBody) " +
+            "from IdempotencyRecord r where r.userId = :userId and r.idempotencyKey = :key")
+    Optional<StoredResponse> findResponse(@Param("userId") Long userId, @Param("key") String key);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
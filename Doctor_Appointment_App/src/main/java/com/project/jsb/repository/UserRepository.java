@@ -1,15 +1,49 @@
 package com.project.jsb.repository;
 
+import com.project.jsb.dto.UserDto;
 import com.project.jsb.model.Role;
 import com.project.jsb.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface UserRepository extends JpaRepository<User , Long> {
+    // r.id resolves to user_roles.role_id, the role table itself is never joined
+    String SELECT_BY_ROLE = "select new com.project.jsb.dto.UserDto(u.id, u.firstName, u.lastName, u.email, u.phoneNumber, " +
+            "u.gender, u.dob) from User u join u.roles r where r.id = :roleId ";
+    String AFTER_NAME = "(u.lastName > :lastName or (u.lastName = :lastName and " +
+            "(u.firstName > :firstName or (u.firstName = :firstName and u.id > :id)))) ";
+    String BY_NAME = "order by u.lastName, u.firstName, u.id";
+
     boolean existsByEmail(String email);
 
     User findByEmail(String username);
 
     List<User> findByRoles(Role userRole);
+
+    @Query("select new com.project.jsb.dto.UserDto(u.id, u.firstName, u.lastName, u.email, u.phoneNumber, u.gender, u.dob) from User u")
+    List<UserDto> findAllDtos();
+
+    @Query("select new com.project.jsb.dto.UserDto(u.id, u.firstName, u.lastName, u.email, u.phoneNumber, u.gender, u.dob) " +
+            "from User u join u.roles r where r = :role")
+    List<UserDto> findDtosByRole(@Param("role") Role role);
+
+    @Query(SELECT_BY_ROLE + "order by u.id")
+    List<UserDto> findPageByRole(@Param("roleId") Long roleId, Pageable pageable);
+
+    @Query(SELECT_BY_ROLE + "and u.id > :id order by u.id")
+    List<UserDto> findPageByRoleAfter(@Param("roleId") Long roleId, @Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_BY_ROLE + BY_NAME)
+    List<UserDto> findNamePageByRole(@Param("roleId") Long roleId, Pageable pageable);
+
+    @Query(SELECT_BY_ROLE + "and " + AFTER_NAME + BY_NAME)
+    List<UserDto> findNamePageByRoleAfter(@Param("roleId") Long roleId, @Param("lastName") String lastName,
+                                          @Param("firstName") String firstName, @Param("id") Long id, Pageable pageable);
+
+    @Query("select count(u) from User u join u.roles r where r.id = :roleId")
+    long countByRole(@Param("roleId") Long roleId);
 }
@@ -0,0 +1,60 @@
+package com.project.jsb.request;
+
+import com.project.jsb.enums.RecurrenceFrequency;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// a series ends after count occurrences or on the until date, exactly one of them is set
+public class BookSeriesRequest {
+
+    private Long doctorId;
+
+    private LocalDateTime firstAppointment;
+
+    private RecurrenceFrequency frequency;
+
+    private Integer count;
+
+    private LocalDate until;
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public LocalDateTime getFirstAppointment() {
+        return firstAppointment;
+    }
+
+    public void setFirstAppointment(LocalDateTime firstAppointment) {
+        this.firstAppointment = firstAppointment;
+    }
+
+    public RecurrenceFrequency getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(RecurrenceFrequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public Integer getCount() {
+        return count;
+    }
+
+    public void setCount(Integer count) {
+        this.count = count;
+    }
+
+    public LocalDate getUntil() {
+        return until;
+    }
+
+    public void setUntil(LocalDate until) {
+        this.until = until;
+    }
+}
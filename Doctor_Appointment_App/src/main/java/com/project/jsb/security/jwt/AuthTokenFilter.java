@@ -70,6 +70,10 @@ public class AuthTokenFilter  extends OncePerRequestFilter {
         if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
             return headerAuth.substring(7);
         }
+        // EventSource can not send headers, the event stream takes the token as a query parameter
+        if (request.getRequestURI().endsWith("/appointment/events")) {
+            return request.getParameter("token");
+        }
         return null;
     }
 }
@@ -1,7 +1,11 @@
 package com.project.jsb.service.User;
 
 import com.project.jsb.dto.AppointmentDto;
+import com.project.jsb.dto.DoctorDto;
+import com.project.jsb.dto.ResourceVersion;
 import com.project.jsb.dto.UserDto;
+import com.project.jsb.dto.UserPageDto;
+import com.project.jsb.enums.UserSort;
 import com.project.jsb.model.Appointment;
 import com.project.jsb.model.User;
 import com.project.jsb.request.CreateDoctorRequest;
@@ -22,11 +26,17 @@ public interface IUserService {
 
     List<UserDto> getAllPatient();
 
-    List<UserDto> getAllDoctor();
+    List<DoctorDto> getAllDoctor();
 
 
+    UserPageDto getPatientPage(String cursor, Integer size, UserSort sort);
+
+    UserPageDto getDoctorPage(String cursor, Integer size, UserSort sort);
+
     UserDto convertToDto(User user);
 
+    ResourceVersion getVersion(User user);
+
     UserDto updatePatient(UpdateUserRequest request);
 
     User getAuthenticateUser();
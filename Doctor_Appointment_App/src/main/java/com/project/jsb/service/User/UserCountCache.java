@@ -0,0 +1,54 @@
+package com.project.jsb.service.User;
+
+import com.project.jsb.cache.TtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// totals for the admin listings, a count over every patient costs more than the page itself.
+// Sign-ups move the cached total, deletes drop it, and the TTL bounds drift from writes on other instances.
+@Component
+public class UserCountCache {
+
+    private final TtlCache<String, AtomicLong> counts;
+    private long generation;
+
+    public UserCountCache(@Value("${user.count.cache.ttl-minutes}") long ttlMinutes) {
+        this.counts = new TtlCache<>(16, TimeUnit.MINUTES.toMillis(ttlMinutes));
+    }
+
+    // a count that overlapped a write may have missed it, it is returned but not kept
+    public long get(String key, LongSupplier loader) {
+        AtomicLong cached = counts.get(key);
+        if (cached != null) {
+            return cached.get();
+        }
+        long seen;
+        synchronized (this) {
+            seen = generation;
+        }
+        long loaded = loader.getAsLong();
+        synchronized (this) {
+            if (generation == seen) {
+                counts.put(key, new AtomicLong(loaded));
+            }
+        }
+        return loaded;
+    }
+
+    public synchronized void increment(String key) {
+        generation++;
+        AtomicLong cached = counts.get(key);
+        if (cached != null) {
+            cached.incrementAndGet();
+        }
+    }
+
+    public synchronized void invalidate() {
+        generation++;
+        counts.invalidateAll();
+    }
+}
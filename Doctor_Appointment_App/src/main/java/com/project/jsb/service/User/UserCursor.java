@@ -0,0 +1,42 @@
+package com.project.jsb.service.User;
+
+import com.project.jsb.dto.UserDto;
+import com.project.jsb.enums.UserSort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// opaque position in the (id) or (lastName, firstName, id) ordering handed to clients as next-cursor token.
+// The last name is length prefixed, names may contain the separator.
+public record UserCursor(Long id, String lastName, String firstName) {
+
+    public static UserCursor of(UserDto user, UserSort sort) {
+        return sort == UserSort.NAME
+                ? new UserCursor(user.getId(), user.getLastName(), user.getFirstName())
+                : new UserCursor(user.getId(), null, null);
+    }
+
+    public static UserCursor decode(String token, UserSort sort) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int idEnd = value.indexOf('|');
+            if (sort == UserSort.ID) {
+                if (idEnd >= 0) {
+                    throw new IllegalArgumentException("invalid cursor");
+                }
+                return new UserCursor(Long.parseLong(value), null, null);
+            }
+            int lengthEnd = value.indexOf('|', idEnd + 1);
+            int lastNameEnd = lengthEnd + 1 + Integer.parseInt(value.substring(idEnd + 1, lengthEnd));
+            return new UserCursor(Long.parseLong(value.substring(0, idEnd)), value.substring(lengthEnd + 1, lastNameEnd),
+                    value.substring(lastNameEnd));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String value = lastName == null ? String.valueOf(id) : id + "|" + lastName.length() + "|" + lastName + firstName;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,25 +1,37 @@
 package com.project.jsb.service.User;
 
+import com.project.jsb.dto.DoctorDto;
+import com.project.jsb.dto.ResourceVersion;
 import com.project.jsb.dto.UserDto;
+import com.project.jsb.dto.UserPageDto;
 import com.project.jsb.enums.Gender;
-import com.project.jsb.model.Role;
+import com.project.jsb.enums.UserSort;
 import com.project.jsb.exception.AlreadyExistsException;
 import com.project.jsb.exception.ResourceNotFoundException;
 import com.project.jsb.model.User;
+import com.project.jsb.repository.ArchivedAppointmentRepository;
 import com.project.jsb.repository.DoctorRepository;
-import com.project.jsb.repository.RoleRepository;
 import com.project.jsb.repository.UserRepository;
 import com.project.jsb.request.CreateUserRequest;
 import com.project.jsb.request.UpdateUserRequest;
+import com.project.jsb.service.doctor.DoctorDirectoryCache;
+import com.project.jsb.service.doctor.DoctorLeaderboard;
+import com.project.jsb.service.doctor.DoctorSearchIndex;
+import com.project.jsb.service.doctor.SpecializationIndex;
+import com.project.jsb.service.role.RoleRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class UserService implements IUserService {
@@ -29,15 +41,42 @@ public class UserService implements IUserService {
     @Autowired
     public final DoctorRepository doctorRepository;
     @Autowired
+    public final ArchivedAppointmentRepository archivedAppointmentRepository;
+    @Autowired
     public final PasswordEncoder passwordEncoder;
     @Autowired
-    public final RoleRepository roleRepository;
-
-    public UserService(UserRepository userRepository, DoctorRepository doctorRepository, PasswordEncoder passwordEncoder, RoleRepository roleRepository) {
+    public final RoleRegistry roleRegistry;
+    @Autowired
+    public final DoctorDirectoryCache doctorDirectoryCache;
+    @Autowired
+    public final SpecializationIndex specializationIndex;
+    @Autowired
+    public final DoctorSearchIndex doctorSearchIndex;
+    @Autowired
+    public final DoctorLeaderboard doctorLeaderboard;
+    @Autowired
+    public final UserCountCache userCountCache;
+
+    @Value("${user.page.default-size}")
+    private int defaultPageSize;
+    @Value("${user.page.max-size}")
+    private int maxPageSize;
+
+    public UserService(UserRepository userRepository, DoctorRepository doctorRepository,
+                       ArchivedAppointmentRepository archivedAppointmentRepository, PasswordEncoder passwordEncoder,
+                       RoleRegistry roleRegistry, DoctorDirectoryCache doctorDirectoryCache,
+                       SpecializationIndex specializationIndex, DoctorSearchIndex doctorSearchIndex,
+                       DoctorLeaderboard doctorLeaderboard, UserCountCache userCountCache) {
         this.userRepository = userRepository;
         this.doctorRepository = doctorRepository;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
         this.passwordEncoder = passwordEncoder;
-        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
+        this.doctorDirectoryCache = doctorDirectoryCache;
+        this.specializationIndex = specializationIndex;
+        this.doctorSearchIndex = doctorSearchIndex;
+        this.doctorLeaderboard = doctorLeaderboard;
+        this.userCountCache = userCountCache;
     }
 
     @Override
@@ -56,10 +95,10 @@ public class UserService implements IUserService {
             user.setEmail(request.getEmail());
             user.setPassword(passwordEncoder.encode(request.getPassword()));
             user.setPhoneNumber(request.getPhoneNumber());
-            Collection<Role> roles = roleRepository.findByName("PATIENT");
-            user.setRoles(roles);
+            user.setRoles(Set.of(roleRegistry.get(RoleRegistry.PATIENT)));
 
             userRepository.save(user);
+            userCountCache.increment(RoleRegistry.PATIENT);
 
             return convertToDto(user);
         }).orElseThrow(() -> new AlreadyExistsException("user already exists with this email " + request.getEmail()));
@@ -81,28 +120,79 @@ public class UserService implements IUserService {
     @Override
     public void deleteUser(Long userId) {
         doctorRepository.findByUserId(userId).ifPresent(doctorRepository::delete);
+        // archived rows still point at the user
+        archivedAppointmentRepository.deleteByUserId(userId);
         userRepository.findById(userId).ifPresentOrElse(userRepository::delete, () -> {
             throw new ResourceNotFoundException("user not found");
         });
+        doctorDirectoryCache.invalidate();
+        userCountCache.invalidate();
+        specializationIndex.remove(userId);
+        doctorSearchIndex.remove(userId);
+        doctorLeaderboard.remove(userId);
     }
 
     @Override
     public List<UserDto> getAllUser() {
-        return userRepository.findAll().stream().map(this::convertToDto).toList();
+        return userRepository.findAllDtos();
     }
 
     @Override
     public List<UserDto> getAllPatient() {
-        Collection<Role> userRoles = roleRepository.findByName("ROLE_PATIENT");
-        Role userRole = userRoles.stream().findFirst().orElse(null);
-        return userRepository.findByRoles(userRole).stream().map(this::convertToDto).toList();
+        return userRepository.findDtosByRole(roleRegistry.get(RoleRegistry.PATIENT));
+    }
+
+    @Override
+    public List<DoctorDto> getAllDoctor() {
+        return doctorDirectoryCache.get(DoctorDirectoryCache.ALL, doctorRepository::findAllDoctorDtos);
     }
 
     @Override
-    public List<UserDto> getAllDoctor() {
-        Collection<Role> userRoles = roleRepository.findByName("ROLE_DOCTOR");
-        Role userRole = userRoles.stream().findFirst().orElse(null);
-        return userRepository.findByRoles(userRole).stream().map(this::convertToDto).toList();
+    public UserPageDto getPatientPage(String cursor, Integer size, UserSort sort) {
+        UserSort order = sort == null ? UserSort.ID : sort;
+        Pageable limit = pageLimit(size);
+        UserCursor after = cursor == null ? null : UserCursor.decode(cursor, order);
+        Long roleId = roleRegistry.get(RoleRegistry.PATIENT).getId();
+        List<UserDto> users = switch (order) {
+            case ID -> after == null
+                    ? userRepository.findPageByRole(roleId, limit)
+                    : userRepository.findPageByRoleAfter(roleId, after.id(), limit);
+            case NAME -> after == null
+                    ? userRepository.findNamePageByRole(roleId, limit)
+                    : userRepository.findNamePageByRoleAfter(roleId, after.lastName(), after.firstName(), after.id(), limit);
+        };
+        return toPage(users, limit, order, userCountCache.get(RoleRegistry.PATIENT, () -> userRepository.countByRole(roleId)));
+    }
+
+    @Override
+    public UserPageDto getDoctorPage(String cursor, Integer size, UserSort sort) {
+        UserSort order = sort == null ? UserSort.ID : sort;
+        Pageable limit = pageLimit(size);
+        UserCursor after = cursor == null ? null : UserCursor.decode(cursor, order);
+        List<DoctorDto> doctors = switch (order) {
+            case ID -> after == null
+                    ? doctorRepository.findPage(limit)
+                    : doctorRepository.findPageAfter(after.id(), limit);
+            case NAME -> after == null
+                    ? doctorRepository.findNamePage(limit)
+                    : doctorRepository.findNamePageAfter(after.lastName(), after.firstName(), after.id(), limit);
+        };
+        return toPage(doctors, limit, order, userCountCache.get(RoleRegistry.DOCTOR, doctorRepository::count));
+    }
+
+    // one row past the page tells whether there is a next one
+    private Pageable pageLimit(Integer size) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        return PageRequest.of(0, pageSize + 1);
+    }
+
+    private UserPageDto toPage(List<? extends UserDto> users, Pageable limit, UserSort sort, long total) {
+        int pageSize = limit.getPageSize() - 1;
+        if (users.size() <= pageSize) {
+            return new UserPageDto(users, null, total);
+        }
+        List<? extends UserDto> page = new ArrayList<>(users.subList(0, pageSize));
+        return new UserPageDto(page, UserCursor.of(page.get(pageSize - 1), sort).encode(), total);
     }
 
     @Override
@@ -113,11 +203,16 @@ public class UserService implements IUserService {
         dto.setLastName(user.getLastName());
         dto.setPhoneNumber(user.getPhoneNumber());
         dto.setEmail(user.getEmail());
-        dto.setGender(user.getGender().toString());
+        dto.setGender(user.getGender() == null ? null : user.getGender().toString());
         dto.setDob(user.getDob());
         return dto;
     }
 
+    @Override
+    public ResourceVersion getVersion(User user) {
+        return new ResourceVersion("u" + user.getId() + "-" + user.getVersion(), user.getUpdatedAt());
+    }
+
     @Override
     public User getAuthenticateUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
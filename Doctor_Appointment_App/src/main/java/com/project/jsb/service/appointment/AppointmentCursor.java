@@ -0,0 +1,26 @@
+package com.project.jsb.service.appointment;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// opaque position in the (appointmentDate, id) ordering handed to clients as next-cursor token
+public record AppointmentCursor(LocalDateTime appointmentDate, Long id) {
+
+    public static AppointmentCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('|');
+            return new AppointmentCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String value = appointmentDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,187 @@
+package com.project.jsb.service.appointment;
+
+import com.project.jsb.dto.AppointmentDto;
+import com.project.jsb.dto.AppointmentEvent;
+import com.project.jsb.enums.AppointmentEventType;
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.enums.PaymentStatus;
+import com.project.jsb.exception.SlotUnavailableException;
+import com.project.jsb.model.Appointment;
+import com.project.jsb.model.User;
+import com.project.jsb.repository.AppointmentRepository;
+import com.project.jsb.request.BookSeriesRequest;
+import com.project.jsb.service.User.IUserService;
+import com.project.jsb.service.availability.IAvailabilityService;
+import com.project.jsb.service.event.IAppointmentEventService;
+import com.project.jsb.service.reminder.IReminderService;
+import com.project.jsb.service.stats.IAppointmentStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+@Service
+public class AppointmentSeriesService implements IAppointmentSeriesService {
+
+    private static final String INSERT = "insert into appointment (patient_id, doctor_id, appointment_date, appointment_status, " +
+            "payment_status, active_slot, version, updated_at) values (?, ?, ?, ?, ?, ?, 0, ?)";
+
+    @Autowired
+    public final AppointmentRepository appointmentRepository;
+    @Autowired
+    public final IUserService userService;
+    @Autowired
+    public final IAppointmentService appointmentService;
+    @Autowired
+    public final IAvailabilityService availabilityService;
+    @Autowired
+    public final SlotLockStripes slotLockStripes;
+    @Autowired
+    public final TransactionTemplate transactionTemplate;
+    @Autowired
+    public final JdbcTemplate jdbcTemplate;
+    @Autowired
+    public final IReminderService reminderService;
+    @Autowired
+    public final IAppointmentStatsService statsService;
+    @Autowired
+    public final IAppointmentEventService eventService;
+
+    @Value("${appointment.series.max-occurrences}")
+    private int maxOccurrences;
+
+    public AppointmentSeriesService(AppointmentRepository appointmentRepository, IUserService userService,
+                                    IAppointmentService appointmentService, IAvailabilityService availabilityService,
+                                    SlotLockStripes slotLockStripes, TransactionTemplate transactionTemplate,
+                                    JdbcTemplate jdbcTemplate, IReminderService reminderService,
+                                    IAppointmentStatsService statsService, IAppointmentEventService eventService) {
+        this.appointmentRepository = appointmentRepository;
+        this.userService = userService;
+        this.appointmentService = appointmentService;
+        this.availabilityService = availabilityService;
+        this.slotLockStripes = slotLockStripes;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.reminderService = reminderService;
+        this.statsService = statsService;
+        this.eventService = eventService;
+    }
+
+    // all or nothing: one conflict query and one batch insert in a single transaction
+    @Override
+    public List<AppointmentDto> bookSeries(BookSeriesRequest request) {
+        List<LocalDateTime> slots = expand(request);
+        Long doctorId = request.getDoctorId();
+        List<LocalDateTime> busy = slots.stream().filter(slot -> !availabilityService.isFree(doctorId, slot)).toList();
+        if (!busy.isEmpty()) {
+            throw new SlotUnavailableException("slots already booked: " + busy);
+        }
+        User patient = userService.getAuthenticateUser();
+        User doctor = userService.getUser(doctorId);
+
+        Lock lock = slotLockStripes.tryLock(doctorId);
+        if (lock == null) {
+            throw new SlotUnavailableException("slot is being booked, try again");
+        }
+        List<Long> ids;
+        try {
+            ids = transactionTemplate.execute(status -> {
+                List<LocalDateTime> taken = appointmentRepository.findTakenSlots(doctorId, slots);
+                if (!taken.isEmpty()) {
+                    taken.forEach(slot -> availabilityService.markBooked(doctorId, slot));
+                    throw new SlotUnavailableException("slots already booked: " + taken);
+                }
+                return insert(patient.getId(), doctorId, slots);
+            });
+            slots.forEach(slot -> availabilityService.markBooked(doctorId, slot));
+        } catch (DataIntegrityViolationException e) {
+            // booked through another instance between the check and the insert, the whole batch rolled back
+            throw new SlotUnavailableException("slots already booked");
+        } finally {
+            lock.unlock();
+        }
+
+        List<AppointmentDto> booked = new ArrayList<>(slots.size());
+        for (int i = 0; i < slots.size(); i++) {
+            Appointment appointment = new Appointment();
+            appointment.setId(ids.get(i));
+            appointment.setPatient(patient);
+            appointment.setDoctor(doctor);
+            appointment.setAppointmentDate(slots.get(i));
+            appointment.setActiveSlot(slots.get(i));
+            appointment.setAppointmentStatus(AppointmentStatus.BOOKED);
+            appointment.setPaymentStatus(PaymentStatus.CASH);
+            reminderService.schedule(appointment.getId(), appointment.getAppointmentDate());
+            statsService.booked(doctorId, appointment.getAppointmentDate());
+            eventService.publish(new AppointmentEvent(AppointmentEventType.CREATED, appointment.getId(), doctorId,
+                    patient.getId(), appointment.getAppointmentDate(), AppointmentStatus.BOOKED, PaymentStatus.CASH));
+            booked.add(appointmentService.convertToDto(appointment));
+        }
+        return booked;
+    }
+
+    @Override
+    public List<LocalDateTime> expand(BookSeriesRequest request) {
+        if (request.getDoctorId() == null || request.getFirstAppointment() == null || request.getFrequency() == null) {
+            throw new IllegalArgumentException("doctorId, firstAppointment and frequency are required");
+        }
+        if ((request.getCount() == null) == (request.getUntil() == null)) {
+            throw new IllegalArgumentException("set either count or until");
+        }
+        if (!request.getFirstAppointment().isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("series must start in the future");
+        }
+        int weeks = request.getFrequency().weeks();
+        List<LocalDateTime> slots = new ArrayList<>();
+        for (LocalDateTime slot = request.getFirstAppointment(); request.getCount() != null
+                ? slots.size() < request.getCount()
+                : !slot.toLocalDate().isAfter(request.getUntil()); slot = slot.plusWeeks(weeks)) {
+            if (slots.size() == maxOccurrences) {
+                throw new IllegalArgumentException("a series can not have more than " + maxOccurrences + " occurrences");
+            }
+            slots.add(slot);
+        }
+        if (slots.isEmpty()) {
+            throw new IllegalArgumentException("series has no occurrences");
+        }
+        return slots;
+    }
+
+    private List<Long> insert(Long patientId, Long doctorId, List<LocalDateTime> slots) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        Timestamp slot = Timestamp.valueOf(slots.get(i));
+                        statement.setLong(1, patientId);
+                        statement.setLong(2, doctorId);
+                        statement.setTimestamp(3, slot);
+                        statement.setString(4, AppointmentStatus.BOOKED.name());
+                        statement.setString(5, PaymentStatus.CASH.name());
+                        statement.setTimestamp(6, slot);
+                        statement.setTimestamp(7, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return slots.size();
+                    }
+                }, keys);
+        return keys.getKeyList().stream().map(key -> ((Number) key.values().iterator().next()).longValue()).toList();
+    }
+}
@@ -1,26 +1,53 @@
 package com.project.jsb.service.appointment;
 
 import com.project.jsb.dto.AppointmentDto;
+import com.project.jsb.dto.AppointmentEvent;
+import com.project.jsb.dto.AppointmentPageDto;
+import com.project.jsb.dto.AppointmentsVersion;
+import com.project.jsb.dto.ResourceVersion;
+import com.project.jsb.dto.AppointmentStateView;
 import com.project.jsb.dto.UserDto;
+import com.project.jsb.enums.AppointmentEventType;
 import com.project.jsb.enums.AppointmentStatus;
 import com.project.jsb.enums.PaymentStatus;
+import com.project.jsb.enums.TransitionOutcome;
+import com.project.jsb.exception.InvalidStatusTransitionException;
 import com.project.jsb.exception.ResourceNotFoundException;
+import com.project.jsb.exception.SlotUnavailableException;
 import com.project.jsb.model.Appointment;
 import com.project.jsb.model.Doctor;
 import com.project.jsb.model.User;
 import com.project.jsb.repository.AppointmentRepository;
+import com.project.jsb.repository.AppointmentSpecifications;
 import com.project.jsb.repository.DoctorRepository;
 import com.project.jsb.repository.UserRepository;
+import com.project.jsb.request.AppointmentSearchRequest;
 import com.project.jsb.service.User.IUserService;
+import com.project.jsb.service.archive.IAppointmentArchiveService;
+import com.project.jsb.service.availability.IAvailabilityService;
+import com.project.jsb.service.earnings.IEarningsService;
+import com.project.jsb.service.event.IAppointmentEventService;
+import com.project.jsb.service.reminder.IReminderService;
+import com.project.jsb.service.stats.IAppointmentStatsService;
 import com.project.jsb.service.doctor.DoctorService;
 import com.project.jsb.service.doctor.IDoctorService;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.concurrent.locks.Lock;
 
 @Service
 public class AppointmentService implements IAppointmentService {
@@ -32,16 +59,52 @@ public class AppointmentService implements IAppointmentService {
     public final IUserService userService;
     @Autowired
     public final DoctorRepository doctorRepository;
+    @Autowired
+    public final IAvailabilityService availabilityService;
+    @Autowired
+    public final SlotLockStripes slotLockStripes;
+    @Autowired
+    public final TransactionTemplate transactionTemplate;
+    @Autowired
+    public final IEarningsService earningsService;
+    @Autowired
+    public final IReminderService reminderService;
+    @Autowired
+    public final IAppointmentArchiveService archiveService;
+    @Autowired
+    public final IAppointmentStatsService statsService;
+    @Autowired
+    public final IAppointmentEventService eventService;
+
+    private static final Comparator<AppointmentDto> PAGE_ORDER =
+            Comparator.comparing(AppointmentDto::getAppointmentDate).thenComparing(AppointmentDto::getId);
 
+    @Value("${appointment.batch.max-size}")
+    private int maxBatchSize;
+    @Value("${appointment.page.default-size}")
+    private int defaultPageSize;
+    @Value("${appointment.page.max-size}")
+    private int maxPageSize;
 
-    public AppointmentService(AppointmentRepository appointmentRepository, IUserService userService, DoctorRepository doctorRepository) {
+    public AppointmentService(AppointmentRepository appointmentRepository, IUserService userService, DoctorRepository doctorRepository, IAvailabilityService availabilityService, SlotLockStripes slotLockStripes, TransactionTemplate transactionTemplate, IEarningsService earningsService, IReminderService reminderService, IAppointmentArchiveService archiveService, IAppointmentStatsService statsService, IAppointmentEventService eventService) {
         this.appointmentRepository = appointmentRepository;
         this.userService = userService;
         this.doctorRepository = doctorRepository;
+        this.availabilityService = availabilityService;
+        this.slotLockStripes = slotLockStripes;
+        this.transactionTemplate = transactionTemplate;
+        this.earningsService = earningsService;
+        this.reminderService = reminderService;
+        this.archiveService = archiveService;
+        this.statsService = statsService;
+        this.eventService = eventService;
     }
 
     @Override
     public AppointmentDto bookAppointment( Long doctorId, LocalDateTime localDateTime) {
+        if (!availabilityService.isFree(doctorId, localDateTime)) {
+            throw new SlotUnavailableException("slot already booked");
+        }
         User patient = userService.getAuthenticateUser();
         User doctor = userService.getUser(doctorId);
 
@@ -51,60 +114,222 @@ public class AppointmentService implements IAppointmentService {
         newAppointment.setPaymentStatus(PaymentStatus.CASH);
         newAppointment.setAppointmentStatus(AppointmentStatus.BOOKED);
         newAppointment.setAppointmentDate(localDateTime);
+        newAppointment.setActiveSlot(localDateTime);
 
-        return convertToDto(appointmentRepository.save(newAppointment));
-
+        Lock lock = slotLockStripes.tryLock(doctorId);
+        if (lock == null) {
+            throw new SlotUnavailableException("slot is being booked, try again");
+        }
+        Appointment savedAppointment;
+        try {
+            if (!availabilityService.isFree(doctorId, localDateTime)) {
+                throw new SlotUnavailableException("slot already booked");
+            }
+            savedAppointment = appointmentRepository.saveAndFlush(newAppointment);
+            availabilityService.markBooked(doctorId, localDateTime);
+        } catch (DataIntegrityViolationException e) {
+            // booked through another instance, the unique key on (doctor_id, active_slot) rejected it
+            availabilityService.markBooked(doctorId, localDateTime);
+            throw new SlotUnavailableException("slot already booked");
+        } finally {
+            lock.unlock();
+        }
+        reminderService.schedule(savedAppointment.getId(), localDateTime);
+        statsService.booked(doctorId, localDateTime);
+        eventService.publish(new AppointmentEvent(AppointmentEventType.CREATED, savedAppointment.getId(), doctorId,
+                patient.getId(), localDateTime, AppointmentStatus.BOOKED, PaymentStatus.CASH));
+        return convertToDto(savedAppointment);
     }
 
     @Override
     public void confirmAppointment(Long appointmentId) {
-        Appointment appointment = findAppointment(appointmentId);
-        appointment.setAppointmentStatus(AppointmentStatus.CONFIRMED);
-        appointmentRepository.save(appointment);
+        Set<AppointmentStatus> sources = AppointmentStatus.CONFIRMED.allowedSources();
+        if (appointmentRepository.transition(appointmentId, sources, AppointmentStatus.CONFIRMED) == 0) {
+            throw transitionFailure(appointmentId, AppointmentStatus.CONFIRMED);
+        }
+        // doctor, patient and date never change, reading them after the update keeps the transition a single statement
+        appointmentRepository.findState(appointmentId)
+                .ifPresent(view -> transitioned(view, AppointmentStatus.BOOKED, AppointmentStatus.CONFIRMED));
     }
 
     @Override
     public void cancelAppointment(Long appointmentId) {
-        Appointment appointment = findAppointment(appointmentId);
-        appointment.setAppointmentStatus(AppointmentStatus.CANCELLED);
-        appointmentRepository.save(appointment);
+        // one conditional update per source, the one that matches tells the counters where the appointment came from
+        for (AppointmentStatus from : AppointmentStatus.CANCELLED.allowedSources()) {
+            if (appointmentRepository.cancel(appointmentId, EnumSet.of(from)) == 1) {
+                reminderService.cancel(appointmentId);
+                appointmentRepository.findState(appointmentId).ifPresent(view -> {
+                    availabilityService.markFree(view.doctorId(), view.appointmentDate());
+                    transitioned(view, from, AppointmentStatus.CANCELLED);
+                });
+                return;
+            }
+        }
+        throw transitionFailure(appointmentId, AppointmentStatus.CANCELLED);
     }
 
     @Override
     public void completeAppointment(Long appointmentId) {
-        Appointment appointment = findAppointment(appointmentId);
-        appointment.setAppointmentStatus(AppointmentStatus.COMPLETED);
-        appointmentRepository.save(appointment);
-          Doctor doctor= doctorRepository.findByUserId(userService.getUser(appointment.getDoctor().getId()).getId()).orElseThrow();
-        doctor.setTotal_points(doctor.getTotal_points().add(doctor.getDoctor_fees()));
-        doctorRepository.save(doctor);
+        AppointmentStateView completed = transactionTemplate.execute(status -> {
+            AppointmentStateView view = findTransitionable(appointmentId, AppointmentStatus.COMPLETED);
+            if (appointmentRepository.transition(appointmentId, view.version(),
+                    AppointmentStatus.COMPLETED.allowedSources(), AppointmentStatus.COMPLETED) == 0) {
+                throw new InvalidStatusTransitionException("appointment was changed concurrently");
+            }
+            earningsService.recordCompletions(List.of(view));
+            return view;
+        });
+        reminderService.cancel(appointmentId);
+        transitioned(completed, completed.appointmentStatus(), AppointmentStatus.COMPLETED);
     }
 
     @Override
     public void updatePaymentStatus(Long appointmentId) {
-        Appointment appointment = findAppointment(appointmentId);
-        appointment.setPaymentStatus(PaymentStatus.ONLINE);
-        appointmentRepository.save(appointment);
+        if (appointmentRepository.updatePaymentStatus(appointmentId, EnumSet.of(PaymentStatus.CASH), PaymentStatus.ONLINE) == 0) {
+            if (!appointmentRepository.existsById(appointmentId)) {
+                throw new ResourceNotFoundException("appointment not found");
+            }
+            throw new InvalidStatusTransitionException("payment already updated");
+        }
+        appointmentRepository.findState(appointmentId).ifPresent(this::paymentUpdated);
+    }
+
+    @Override
+    public Map<Long, TransitionOutcome> confirmAppointments(List<Long> appointmentIds) {
+        Set<AppointmentStatus> sources = AppointmentStatus.CONFIRMED.allowedSources();
+        List<AppointmentStateView> confirmed = new ArrayList<>();
+        Map<Long, TransitionOutcome> outcomes = transitionAll(appointmentIds, view -> sources.contains(view.appointmentStatus()),
+                ids -> appointmentRepository.updateStatus(ids, sources, AppointmentStatus.CONFIRMED), confirmed);
+        confirmed.forEach(view -> transitioned(view, view.appointmentStatus(), AppointmentStatus.CONFIRMED));
+        return outcomes;
+    }
+
+    @Override
+    public Map<Long, TransitionOutcome> cancelAppointments(List<Long> appointmentIds) {
+        Set<AppointmentStatus> sources = AppointmentStatus.CANCELLED.allowedSources();
+        List<AppointmentStateView> cancelled = new ArrayList<>();
+        Map<Long, TransitionOutcome> outcomes = transitionAll(appointmentIds, view -> sources.contains(view.appointmentStatus()),
+                ids -> appointmentRepository.cancel(ids, sources), cancelled);
+        cancelled.forEach(view -> {
+            availabilityService.markFree(view.doctorId(), view.appointmentDate());
+            reminderService.cancel(view.id());
+            transitioned(view, view.appointmentStatus(), AppointmentStatus.CANCELLED);
+        });
+        return outcomes;
+    }
+
+    @Override
+    public Map<Long, TransitionOutcome> completeAppointments(List<Long> appointmentIds) {
+        Set<AppointmentStatus> sources = AppointmentStatus.COMPLETED.allowedSources();
+        List<AppointmentStateView> completed = new ArrayList<>();
+        Map<Long, TransitionOutcome> outcomes = transitionAll(appointmentIds, view -> sources.contains(view.appointmentStatus()), ids -> {
+            int updated = appointmentRepository.updateStatus(ids, sources, AppointmentStatus.COMPLETED);
+            earningsService.recordCompletions(completed);
+            return updated;
+        }, completed);
+        completed.forEach(view -> {
+            reminderService.cancel(view.id());
+            transitioned(view, view.appointmentStatus(), AppointmentStatus.COMPLETED);
+        });
+        return outcomes;
+    }
+
+    @Override
+    public Map<Long, TransitionOutcome> updatePaymentStatuses(List<Long> appointmentIds) {
+        List<AppointmentStateView> paid = new ArrayList<>();
+        Map<Long, TransitionOutcome> outcomes = transitionAll(appointmentIds, view -> view.paymentStatus() == PaymentStatus.CASH,
+                ids -> appointmentRepository.updatePaymentStatus(ids, EnumSet.of(PaymentStatus.CASH), PaymentStatus.ONLINE),
+                paid);
+        paid.forEach(this::paymentUpdated);
+        return outcomes;
     }
 
     @Override
     public List<AppointmentDto> findByPatientId() {
         Long patientId = userService.getAuthenticateUser().getId();
-        List<Appointment> appointments = appointmentRepository.findByPatientId(patientId);
-        return appointments.stream().map(this::convertToDto).toList();
+        return withArchived(archiveService.findByPatientId(patientId), appointmentRepository.findDtosByPatientId(patientId));
     }
 
     @Override
     public List<AppointmentDto> findByDoctorId() {
         Long doctorId = userService.getAuthenticateUser().getId();
-        List<Appointment> appointments = appointmentRepository.findByDoctorId(doctorId);
-        return appointments.stream().map(this::convertToDto).toList();
+        return withArchived(archiveService.findByDoctorId(doctorId), appointmentRepository.findDtosByDoctorId(doctorId));
     }
 
     @Override
     public List<AppointmentDto> getAllAppointments() {
-        List<Appointment> appointments = appointmentRepository.findAll();
-        return appointments.stream().map(this::convertToDto).toList();
+        return withArchived(archiveService.findAll(), appointmentRepository.findAllDtos());
+    }
+
+    @Override
+    public ResourceVersion patientAppointmentsVersion() {
+        Long patientId = userService.getAuthenticateUser().getId();
+        return listVersion("p" + patientId, appointmentRepository.findPatientListVersion(patientId),
+                archiveService.patientListVersion(patientId));
+    }
+
+    @Override
+    public ResourceVersion doctorAppointmentsVersion() {
+        Long doctorId = userService.getAuthenticateUser().getId();
+        return listVersion("d" + doctorId, appointmentRepository.findDoctorListVersion(doctorId),
+                archiveService.doctorListVersion(doctorId));
+    }
+
+    @Override
+    public ResourceVersion allAppointmentsVersion() {
+        return listVersion("all", appointmentRepository.findListVersion(), archiveService.listVersion());
+    }
+
+    // read from the rows themselves, so every instance and every write path agrees on the tag. The owner goes
+    // into the tag, two users' lists can aggregate to the same numbers.
+    private static ResourceVersion listVersion(String owner, AppointmentsVersion live, AppointmentsVersion archived) {
+        return new ResourceVersion(owner + "-" + live.tag() + "-" + archived.tag(),
+                ResourceVersion.latest(live.lastModified(), archived.lastModified()));
+    }
+
+    @Override
+    public AppointmentPageDto findByPatientId(String cursor, LocalDate from, Integer size) {
+        Long patientId = userService.getAuthenticateUser().getId();
+        Pageable limit = pageLimit(size);
+        AppointmentCursor after = startOf(cursor, from);
+        List<Appointment> hot = after == null
+                ? appointmentRepository.findByPatientIdOrderByAppointmentDateAscIdAsc(patientId, limit)
+                : appointmentRepository.findPatientPageAfter(patientId, after.appointmentDate(), after.id(), limit);
+        List<AppointmentDto> archived = archiveService.findPatientPage(patientId, after, limit);
+        return toPage(hot, archived, limit);
+    }
+
+    @Override
+    public AppointmentPageDto findByDoctorId(String cursor, LocalDate from, Integer size) {
+        Long doctorId = userService.getAuthenticateUser().getId();
+        Pageable limit = pageLimit(size);
+        AppointmentCursor after = startOf(cursor, from);
+        List<Appointment> hot = after == null
+                ? appointmentRepository.findByDoctorIdOrderByAppointmentDateAscIdAsc(doctorId, limit)
+                : appointmentRepository.findDoctorPageAfter(doctorId, after.appointmentDate(), after.id(), limit);
+        List<AppointmentDto> archived = archiveService.findDoctorPage(doctorId, after, limit);
+        return toPage(hot, archived, limit);
+    }
+
+    @Override
+    public AppointmentPageDto getAllAppointments(String cursor, LocalDate from, Integer size) {
+        Pageable limit = pageLimit(size);
+        AppointmentCursor after = startOf(cursor, from);
+        List<Appointment> hot = after == null
+                ? appointmentRepository.findByOrderByAppointmentDateAscIdAsc(limit)
+                : appointmentRepository.findPageAfter(after.appointmentDate(), after.id(), limit);
+        List<AppointmentDto> archived = archiveService.findPage(after, limit);
+        return toPage(hot, archived, limit);
+    }
+
+    @Override
+    public AppointmentPageDto searchAppointments(AppointmentSearchRequest criteria) {
+        Pageable limit = pageLimit(criteria.getSize());
+        AppointmentCursor after = criteria.getCursor() == null ? null : AppointmentCursor.decode(criteria.getCursor());
+        Specification<Appointment> specification = AppointmentSpecifications.<Appointment>matching(criteria)
+                .and(after == null ? null : AppointmentSpecifications.after(after.appointmentDate(), after.id()));
+        List<AppointmentDto> hot = appointmentRepository.searchDtos(Appointment.class, specification, limit.getPageSize());
+        return toDtoPage(hot, archiveService.search(criteria, after, limit), limit);
     }
 
     @Override
@@ -119,8 +344,117 @@ public class AppointmentService implements IAppointmentService {
         return dto;
     }
 
-    private Appointment findAppointment(Long id) {
-        return appointmentRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("appointment not found"));
+    // counters and subscribers only hear about a change once it is committed
+    private void transitioned(AppointmentStateView view, AppointmentStatus from, AppointmentStatus to) {
+        statsService.moved(view.doctorId(), view.appointmentDate(), from, to);
+        eventService.publish(new AppointmentEvent(AppointmentEventType.of(to), view.id(), view.doctorId(), view.patientId(),
+                view.appointmentDate(), to, view.paymentStatus()));
+    }
+
+    private void paymentUpdated(AppointmentStateView view) {
+        eventService.publish(new AppointmentEvent(AppointmentEventType.PAYMENT_UPDATED, view.id(), view.doctorId(),
+                view.patientId(), view.appointmentDate(), view.appointmentStatus(), PaymentStatus.ONLINE));
+    }
+
+    // locks the rows once, decides every id against the allowed source state and applies a single UPDATE
+    private Map<Long, TransitionOutcome> transitionAll(List<Long> appointmentIds, Predicate<AppointmentStateView> allowed,
+                                                       Function<List<Long>, Integer> update,
+                                                       List<AppointmentStateView> transitioned) {
+        return transactionTemplate.execute(status -> {
+            Map<Long, AppointmentStateView> current = lockStates(appointmentIds);
+            Map<Long, TransitionOutcome> outcomes = new LinkedHashMap<>();
+            List<Long> eligible = new ArrayList<>();
+            for (Long id : appointmentIds) {
+                AppointmentStateView view = current.get(id);
+                if (view == null) {
+                    outcomes.put(id, TransitionOutcome.NOT_FOUND);
+                } else if (allowed.test(view)) {
+                    if (outcomes.put(id, TransitionOutcome.UPDATED) == null) {
+                        eligible.add(id);
+                        transitioned.add(view);
+                    }
+                } else {
+                    outcomes.put(id, TransitionOutcome.REJECTED);
+                }
+            }
+            if (!eligible.isEmpty()) {
+                update.apply(eligible);
+            }
+            return outcomes;
+        });
+    }
+
+    private Map<Long, AppointmentStateView> lockStates(List<Long> appointmentIds) {
+        if (appointmentIds.isEmpty()) {
+            return Map.of();
+        }
+        if (appointmentIds.size() > maxBatchSize) {
+            throw new IllegalArgumentException("at most " + maxBatchSize + " appointments per request");
+        }
+        return appointmentRepository.lockStates(appointmentIds).stream()
+                .collect(Collectors.toMap(AppointmentStateView::id, Function.identity()));
+    }
+
+    // one extra row is fetched to know whether another page follows
+    private Pageable pageLimit(Integer size) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        return PageRequest.of(0, pageSize + 1);
+    }
+
+    private AppointmentCursor startOf(String cursor, LocalDate from) {
+        if (cursor != null) {
+            return AppointmentCursor.decode(cursor);
+        }
+        return from == null ? null : new AppointmentCursor(from.atStartOfDay(), 0L);
+    }
+
+    // both sources are sorted by (appointmentDate, id) and hold at most one page + 1 rows each
+    private AppointmentPageDto toPage(List<Appointment> hot, List<AppointmentDto> archived, Pageable limit) {
+        return toDtoPage(hot.stream().map(this::convertToDto).toList(), archived, limit);
+    }
+
+    private AppointmentPageDto toDtoPage(List<AppointmentDto> hot, List<AppointmentDto> archived, Pageable limit) {
+        int pageSize = limit.getPageSize() - 1;
+        List<AppointmentDto> appointments = new ArrayList<>(hot);
+        if (!archived.isEmpty()) {
+            appointments.addAll(archived);
+            appointments.sort(PAGE_ORDER);
+        }
+        if (appointments.size() <= pageSize) {
+            return new AppointmentPageDto(appointments, null);
+        }
+        List<AppointmentDto> page = appointments.subList(0, pageSize);
+        AppointmentDto last = page.get(pageSize - 1);
+        String nextCursor = new AppointmentCursor(last.getAppointmentDate(), last.getId()).encode();
+        return new AppointmentPageDto(new ArrayList<>(page), nextCursor);
+    }
+
+    private List<AppointmentDto> withArchived(List<AppointmentDto> archived, List<AppointmentDto> hot) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<AppointmentDto> appointments = new ArrayList<>(archived.size() + hot.size());
+        appointments.addAll(archived);
+        appointments.addAll(hot);
+        return appointments;
+    }
+
+    private AppointmentStateView findTransitionable(Long id, AppointmentStatus target) {
+        AppointmentStateView view = appointmentRepository.findState(id)
+                .orElseThrow(() -> new ResourceNotFoundException("appointment not found"));
+        if (!view.appointmentStatus().canTransitionTo(target)) {
+            throw new InvalidStatusTransitionException("appointment is " + view.appointmentStatus() + ", can not move to " + target);
+        }
+        return view;
+    }
+
+    // the conditional update matched nothing, tell a missing appointment apart from an illegal transition
+    private RuntimeException transitionFailure(Long id, AppointmentStatus target) {
+        AppointmentStateView view = appointmentRepository.findState(id).orElse(null);
+        if (view == null) {
+            return new ResourceNotFoundException("appointment not found");
+        }
+        return new InvalidStatusTransitionException("appointment is " + view.appointmentStatus() + ", can not move to " + target);
     }
 
 }
@@ -0,0 +1,14 @@
+package com.project.jsb.service.appointment;
+
+import com.project.jsb.dto.AppointmentDto;
+import com.project.jsb.request.BookSeriesRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface IAppointmentSeriesService {
+
+    List<AppointmentDto> bookSeries(BookSeriesRequest request);
+
+    List<LocalDateTime> expand(BookSeriesRequest request);
+}
@@ -1,13 +1,18 @@
 package com.project.jsb.service.appointment;
 
 import com.project.jsb.dto.AppointmentDto;
+import com.project.jsb.dto.AppointmentPageDto;
+import com.project.jsb.dto.ResourceVersion;
+import com.project.jsb.enums.TransitionOutcome;
 import com.project.jsb.model.Appointment;
 import com.project.jsb.model.User;
+import com.project.jsb.request.AppointmentSearchRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 public interface IAppointmentService  {
 
@@ -21,11 +26,33 @@ public interface IAppointmentService  {
 
     void updatePaymentStatus(Long appointmentId);
 
+    Map<Long, TransitionOutcome> confirmAppointments(List<Long> appointmentIds);
+
+    Map<Long, TransitionOutcome> cancelAppointments(List<Long> appointmentIds);
+
+    Map<Long, TransitionOutcome> completeAppointments(List<Long> appointmentIds);
+
+    Map<Long, TransitionOutcome> updatePaymentStatuses(List<Long> appointmentIds);
+
     List<AppointmentDto> findByPatientId();
 
     List<AppointmentDto> findByDoctorId();
 
     List<AppointmentDto> getAllAppointments();
 
+    ResourceVersion patientAppointmentsVersion();
+
+    ResourceVersion doctorAppointmentsVersion();
+
+    ResourceVersion allAppointmentsVersion();
+
+    AppointmentPageDto findByPatientId(String cursor, LocalDate from, Integer size);
+
+    AppointmentPageDto findByDoctorId(String cursor, LocalDate from, Integer size);
+
+    AppointmentPageDto getAllAppointments(String cursor, LocalDate from, Integer size);
+
+    AppointmentPageDto searchAppointments(AppointmentSearchRequest criteria);
+
     AppointmentDto convertToDto(Appointment appointment);
 }
@@ -0,0 +1,35 @@
+package com.project.jsb.service.appointment;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// fixed pool of locks shared by doctors, so bookings for one doctor are serialised in this JVM
+@Component
+public class SlotLockStripes {
+
+    private final Lock[] locks;
+    private final long timeoutMillis;
+
+    public SlotLockStripes(@Value("${appointment.booking.lock-stripes}") int stripes,
+                           @Value("${appointment.booking.lock-timeout-ms}") long timeoutMillis) {
+        this.locks = new Lock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public Lock tryLock(Long doctorId) {
+        Lock lock = locks[Math.floorMod(Long.hashCode(doctorId), locks.length)];
+        try {
+            return lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS) ? lock : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
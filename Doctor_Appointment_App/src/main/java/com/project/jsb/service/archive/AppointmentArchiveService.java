@@ -0,0 +1,189 @@
+package com.project.jsb.service.archive;
+
+import com.project.jsb.dto.AppointmentDto;
+import com.project.jsb.dto.AppointmentsVersion;
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.model.ArchivedAppointment;
+import com.project.jsb.repository.AppointmentRepository;
+import com.project.jsb.repository.AppointmentSpecifications;
+import com.project.jsb.repository.ArchivedAppointmentRepository;
+import com.project.jsb.request.AppointmentSearchRequest;
+import com.project.jsb.service.appointment.AppointmentCursor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Service
+public class AppointmentArchiveService implements IAppointmentArchiveService {
+
+    // terminal states only, archived rows can never change again
+    private static final List<AppointmentStatus> ARCHIVABLE = List.of(AppointmentStatus.COMPLETED, AppointmentStatus.CANCELLED);
+    // start of the (appointmentDate, id) order for pages without a cursor, DATETIME's lower bound in MySQL
+    private static final AppointmentCursor ORDER_START = new AppointmentCursor(LocalDateTime.of(1000, 1, 1, 0, 0), 0L);
+
+    @Autowired
+    public final AppointmentRepository appointmentRepository;
+    @Autowired
+    public final ArchivedAppointmentRepository archivedAppointmentRepository;
+    @Autowired
+    public final TransactionTemplate transactionTemplate;
+
+    private final int maxAgeDays;
+    private final int chunkSize;
+
+    // newest appointment date in the archive, covers rows archived under a shorter max age
+    private volatile LocalDateTime newestArchived;
+
+    public AppointmentArchiveService(AppointmentRepository appointmentRepository,
+                                     ArchivedAppointmentRepository archivedAppointmentRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${appointment.archive.max-age-days}") int maxAgeDays,
+                                     @Value("${appointment.archive.chunk-size}") int chunkSize) {
+        this.appointmentRepository = appointmentRepository;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.maxAgeDays = maxAgeDays;
+        this.chunkSize = chunkSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadHorizon() {
+        newestArchived = archivedAppointmentRepository.findNewestAppointmentDate().orElse(null);
+    }
+
+    @Scheduled(cron = "${appointment.archive.cron}")
+    public void archiveJob() {
+        int archived = archiveFinishedAppointments();
+        if (archived > 0) {
+            log.info("archived {} appointments older than {} days", archived, maxAgeDays);
+        }
+    }
+
+    @Override
+    public int archiveFinishedAppointments() {
+        LocalDateTime before = cutoff();
+        Pageable chunk = PageRequest.of(0, chunkSize);
+        int archived = 0;
+        List<Long> ids;
+        do {
+            // one short transaction per chunk so the hot table is never locked for the whole run
+            ids = appointmentRepository.findArchivableIds(ARCHIVABLE, before, chunk);
+            if (ids.isEmpty()) {
+                break;
+            }
+            List<Long> chunkIds = ids;
+            archived += transactionTemplate.execute(status -> {
+                archivedAppointmentRepository.copyFromAppointments(chunkIds, LocalDateTime.now());
+                return appointmentRepository.deleteByIds(chunkIds);
+            });
+        } while (ids.size() == chunkSize);
+        if (archived > 0) {
+            loadHorizon();
+        }
+        return archived;
+    }
+
+    @Override
+    public AppointmentsVersion patientListVersion(Long patientId) {
+        return archivedAppointmentRepository.findPatientListVersion(patientId);
+    }
+
+    @Override
+    public AppointmentsVersion doctorListVersion(Long doctorId) {
+        return archivedAppointmentRepository.findDoctorListVersion(doctorId);
+    }
+
+    @Override
+    public AppointmentsVersion listVersion() {
+        return archivedAppointmentRepository.findListVersion();
+    }
+
+    @Override
+    public List<AppointmentDto> findByPatientId(Long patientId) {
+        return archivedAppointmentRepository.findDtosByPatientId(patientId);
+    }
+
+    @Override
+    public List<AppointmentDto> findByDoctorId(Long doctorId) {
+        return archivedAppointmentRepository.findDtosByDoctorId(doctorId);
+    }
+
+    @Override
+    public List<AppointmentDto> findAll() {
+        return archivedAppointmentRepository.findAllDtos();
+    }
+
+    @Override
+    public List<AppointmentDto> findPatientPage(Long patientId, AppointmentCursor after, Pageable pageable) {
+        if (!isNeededFrom(after)) {
+            return List.of();
+        }
+        AppointmentCursor start = after == null ? ORDER_START : after;
+        return archivedAppointmentRepository.findPatientDtoPageAfter(patientId, start.appointmentDate(), start.id(), pageable);
+    }
+
+    @Override
+    public List<AppointmentDto> findDoctorPage(Long doctorId, AppointmentCursor after, Pageable pageable) {
+        if (!isNeededFrom(after)) {
+            return List.of();
+        }
+        AppointmentCursor start = after == null ? ORDER_START : after;
+        return archivedAppointmentRepository.findDoctorDtoPageAfter(doctorId, start.appointmentDate(), start.id(), pageable);
+    }
+
+    @Override
+    public List<AppointmentDto> findPage(AppointmentCursor after, Pageable pageable) {
+        if (!isNeededFrom(after)) {
+            return List.of();
+        }
+        AppointmentCursor start = after == null ? ORDER_START : after;
+        return archivedAppointmentRepository.findDtoPageAfter(start.appointmentDate(), start.id(), pageable);
+    }
+
+    @Override
+    public List<AppointmentDto> search(AppointmentSearchRequest criteria, AppointmentCursor after, Pageable pageable) {
+        if (criteria.getStatus() != null && !ARCHIVABLE.contains(criteria.getStatus())) {
+            return List.of();
+        }
+        LocalDateTime from = criteria.getFrom() == null ? null : criteria.getFrom().atStartOfDay();
+        if (after != null && (from == null || after.appointmentDate().isAfter(from))) {
+            from = after.appointmentDate();
+        }
+        if (from != null && !isNeededFrom(from)) {
+            return List.of();
+        }
+        Specification<ArchivedAppointment> specification = AppointmentSpecifications.<ArchivedAppointment>matching(criteria)
+                .and(after == null ? null : AppointmentSpecifications.after(after.appointmentDate(), after.id()));
+        return archivedAppointmentRepository.searchDtos(ArchivedAppointment.class, specification, pageable.getPageSize());
+    }
+
+    private boolean isNeededFrom(AppointmentCursor after) {
+        return after == null || isNeededFrom(after.appointmentDate());
+    }
+
+    // everything in the archive is older than the horizon, reads starting after it never touch the archive
+    private boolean isNeededFrom(LocalDateTime from) {
+        LocalDateTime horizon = cutoff();
+        LocalDateTime newest = newestArchived;
+        if (newest != null && newest.isAfter(horizon)) {
+            horizon = newest;
+        }
+        return !from.isAfter(horizon);
+    }
+
+    private LocalDateTime cutoff() {
+        return LocalDateTime.now().minusDays(maxAgeDays);
+    }
+}
@@ -0,0 +1,34 @@
+package com.project.jsb.service.archive;
+
+import com.project.jsb.dto.AppointmentDto;
+import com.project.jsb.dto.AppointmentsVersion;
+import com.project.jsb.request.AppointmentSearchRequest;
+import com.project.jsb.service.appointment.AppointmentCursor;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+public interface IAppointmentArchiveService {
+
+    int archiveFinishedAppointments();
+
+    AppointmentsVersion patientListVersion(Long patientId);
+
+    AppointmentsVersion doctorListVersion(Long doctorId);
+
+    AppointmentsVersion listVersion();
+
+    List<AppointmentDto> findByPatientId(Long patientId);
+
+    List<AppointmentDto> findByDoctorId(Long doctorId);
+
+    List<AppointmentDto> findAll();
+
+    List<AppointmentDto> findPatientPage(Long patientId, AppointmentCursor after, Pageable pageable);
+
+    List<AppointmentDto> findDoctorPage(Long doctorId, AppointmentCursor after, Pageable pageable);
+
+    List<AppointmentDto> findPage(AppointmentCursor after, Pageable pageable);
+
+    List<AppointmentDto> search(AppointmentSearchRequest criteria, AppointmentCursor after, Pageable pageable);
+}
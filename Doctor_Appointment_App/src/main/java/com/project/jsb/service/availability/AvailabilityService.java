@@ -0,0 +1,164 @@
+package com.project.jsb.service.availability;
+
+import com.project.jsb.dto.DoctorSlot;
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+@Service
+public class AvailabilityService implements IAvailabilityService {
+
+    @Autowired
+    public final AppointmentRepository appointmentRepository;
+
+    private final int slotMinutes;
+    private final LocalTime dayStart;
+    private final int slotsPerDay;
+    private final int maxDays;
+
+    // doctor id -> day -> taken slots
+    private final Map<Long, ConcurrentNavigableMap<LocalDate, DayBitmap>> calendars = new ConcurrentHashMap<>();
+
+    public AvailabilityService(AppointmentRepository appointmentRepository,
+                               @Value("${appointment.slot.minutes}") int slotMinutes,
+                               @Value("${appointment.day.start}") LocalTime dayStart,
+                               @Value("${appointment.day.end}") LocalTime dayEnd,
+                               @Value("${appointment.availability.max-days}") int maxDays) {
+        this.appointmentRepository = appointmentRepository;
+        this.slotMinutes = slotMinutes;
+        this.dayStart = dayStart;
+        this.slotsPerDay = (int) (Duration.between(dayStart, dayEnd).toMinutes() / slotMinutes);
+        this.maxDays = maxDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCalendars() {
+        calendars.clear();
+        List<DoctorSlot> slots = appointmentRepository.findActiveSlotsFrom(
+                List.of(AppointmentStatus.BOOKED, AppointmentStatus.CONFIRMED), LocalDate.now().atStartOfDay());
+        slots.forEach(slot -> markBooked(slot.doctorId(), slot.appointmentDate()));
+    }
+
+    @Override
+    public List<LocalDateTime> getFreeSlots(Long doctorId, LocalDate from, LocalDate to) {
+        LocalDate today = LocalDate.now();
+        if (from.isBefore(today)) {
+            from = today;
+        }
+        if (to.isBefore(from)) {
+            return List.of();
+        }
+        if (from.plusDays(maxDays).isBefore(to)) {
+            throw new IllegalArgumentException("date range can not exceed " + maxDays + " days");
+        }
+        return collectFree(doctorId, from, to, Integer.MAX_VALUE);
+    }
+
+    // scans forward from today and stops at the count-th free slot, bounded by the same window as getFreeSlots
+    @Override
+    public List<LocalDateTime> nextFreeSlots(Long doctorId, int count) {
+        LocalDate today = LocalDate.now();
+        return collectFree(doctorId, today, today.plusDays(maxDays), count);
+    }
+
+    private List<LocalDateTime> collectFree(Long doctorId, LocalDate from, LocalDate to, int limit) {
+        ConcurrentNavigableMap<LocalDate, DayBitmap> calendar = calendars.get(doctorId);
+        LocalDateTime now = LocalDateTime.now();
+        List<LocalDateTime> freeSlots = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            DayBitmap bitmap = calendar == null ? null : calendar.get(day);
+            for (int slot = 0; slot < slotsPerDay; slot++) {
+                if (bitmap != null && bitmap.isSet(slot)) {
+                    continue;
+                }
+                LocalDateTime start = day.atTime(dayStart).plusMinutes((long) slot * slotMinutes);
+                if (start.isAfter(now)) {
+                    freeSlots.add(start);
+                    if (freeSlots.size() == limit) {
+                        return freeSlots;
+                    }
+                }
+            }
+        }
+        return freeSlots;
+    }
+
+    @Override
+    public boolean isFree(Long doctorId, LocalDateTime slot) {
+        int index = slotIndex(slot);
+        if (index < 0) {
+            // the calendar does not track it, so it can not vouch that the time is free
+            throw new IllegalArgumentException("slot must start on a " + slotMinutes + " minute boundary within working hours");
+        }
+        ConcurrentNavigableMap<LocalDate, DayBitmap> calendar = calendars.get(doctorId);
+        DayBitmap bitmap = calendar == null ? null : calendar.get(slot.toLocalDate());
+        return bitmap == null || !bitmap.isSet(index);
+    }
+
+    @Override
+    public void markBooked(Long doctorId, LocalDateTime slot) {
+        int index = slotIndex(slot);
+        if (index < 0 || slot.toLocalDate().isBefore(LocalDate.now())) {
+            return;
+        }
+        calendars.computeIfAbsent(doctorId, id -> new ConcurrentSkipListMap<>())
+                .computeIfAbsent(slot.toLocalDate(), day -> new DayBitmap(slotsPerDay))
+                .trySet(index);
+    }
+
+    @Override
+    public void markFree(Long doctorId, LocalDateTime slot) {
+        int index = slotIndex(slot);
+        if (index < 0) {
+            return;
+        }
+        ConcurrentNavigableMap<LocalDate, DayBitmap> calendar = calendars.get(doctorId);
+        DayBitmap bitmap = calendar == null ? null : calendar.get(slot.toLocalDate());
+        if (bitmap != null) {
+            bitmap.clear(index);
+        }
+    }
+
+    // reads never look behind today, the days that went by are dropped once a night
+    @Override
+    @Scheduled(cron = "${appointment.availability.evict-cron}")
+    public int evictPastDays() {
+        return evictBefore(LocalDate.now());
+    }
+
+    int evictBefore(LocalDate day) {
+        int evicted = 0;
+        for (ConcurrentNavigableMap<LocalDate, DayBitmap> calendar : calendars.values()) {
+            ConcurrentNavigableMap<LocalDate, DayBitmap> past = calendar.headMap(day);
+            evicted += past.size();
+            past.clear();
+        }
+        return evicted;
+    }
+
+    // -1 when the time is outside the working day or not on a slot boundary
+    private int slotIndex(LocalDateTime dateTime) {
+        long minutes = Duration.between(dayStart, dateTime.toLocalTime()).toMinutes();
+        if (minutes < 0 || minutes % slotMinutes != 0 || dateTime.getSecond() != 0 || dateTime.getNano() != 0) {
+            return -1;
+        }
+        long index = minutes / slotMinutes;
+        return index < slotsPerDay ? (int) index : -1;
+    }
+}
@@ -0,0 +1,42 @@
+package com.project.jsb.service.availability;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// one bit per slot of a single day, set = taken
+public class DayBitmap {
+
+    private final AtomicLongArray words;
+
+    public DayBitmap(int slots) {
+        this.words = new AtomicLongArray((slots + 63) >>> 6);
+    }
+
+    public boolean trySet(int slot) {
+        int index = slot >>> 6;
+        long mask = 1L << slot;
+        while (true) {
+            long current = words.get(index);
+            if ((current & mask) != 0) {
+                return false;
+            }
+            if (words.compareAndSet(index, current, current | mask)) {
+                return true;
+            }
+        }
+    }
+
+    public void clear(int slot) {
+        int index = slot >>> 6;
+        long mask = 1L << slot;
+        while (true) {
+            long current = words.get(index);
+            if ((current & mask) == 0 || words.compareAndSet(index, current, current & ~mask)) {
+                return;
+            }
+        }
+    }
+
+    public boolean isSet(int slot) {
+        return (words.get(slot >>> 6) & (1L << slot)) != 0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.project.jsb.service.availability;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface IAvailabilityService {
+
+    List<LocalDateTime> getFreeSlots(Long doctorId, LocalDate from, LocalDate to);
+
+    List<LocalDateTime> nextFreeSlots(Long doctorId, int count);
+
+    boolean isFree(Long doctorId, LocalDateTime slot);
+
+    void markBooked(Long doctorId, LocalDateTime slot);
+
+    void markFree(Long doctorId, LocalDateTime slot);
+
+    int evictPastDays();
+}
@@ -0,0 +1,100 @@
+package com.project.jsb.service.doctor;
+
+import com.project.jsb.cache.TtlCache;
+import com.project.jsb.dto.CacheStats;
+import com.project.jsb.dto.DoctorDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// doctor listings change a few times a day and are read on every landing page, writers call invalidate() after saving.
+// Completions only move total_points, those are patched in from the leaderboard instead of dropping the listings.
+@Component
+public class DoctorDirectoryCache {
+
+    public static final String ALL = "all";
+
+    @Autowired
+    public final DoctorLeaderboard doctorLeaderboard;
+
+    private final TtlCache<String, List<DoctorDto>> listings;
+    private long generation;
+    private long pointsGeneration;
+
+    public DoctorDirectoryCache(DoctorLeaderboard doctorLeaderboard,
+                                @Value("${doctor.directory.cache.max-entries}") int maxEntries,
+                                @Value("${doctor.directory.cache.ttl-minutes}") long ttlMinutes) {
+        this.doctorLeaderboard = doctorLeaderboard;
+        this.listings = new TtlCache<>(maxEntries, TimeUnit.MINUTES.toMillis(ttlMinutes));
+    }
+
+    // a load that overlapped an invalidate() may have read the old rows, it is returned but not kept
+    public List<DoctorDto> get(String key, Supplier<List<DoctorDto>> loader) {
+        List<DoctorDto> cached = listings.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long seen;
+        long seenPoints;
+        synchronized (this) {
+            seen = generation;
+            seenPoints = pointsGeneration;
+        }
+        List<DoctorDto> loaded = List.copyOf(loader.get());
+        synchronized (this) {
+            if (generation == seen) {
+                if (pointsGeneration != seenPoints) {
+                    // a completion committed while loading may be missing from the rows read, the board has it
+                    loaded = withPoints(loaded, doctor -> true);
+                }
+                listings.put(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    // the totals are read under the lock, of two completions patching out of order the later one still sees both
+    public synchronized void pointsChanged(Collection<Long> doctorIds) {
+        pointsGeneration++;
+        listings.replaceAll(doctors -> withPoints(doctors, doctor -> doctorIds.contains(doctor.getId())));
+    }
+
+    public synchronized void invalidate() {
+        generation++;
+        listings.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(listings.hits(), listings.misses(), listings.evictions(), listings.size());
+    }
+
+    // cached entries are shared with readers, a changed doctor is copied rather than written to
+    private List<DoctorDto> withPoints(List<DoctorDto> doctors, Predicate<DoctorDto> affected) {
+        return doctors.stream().map(doctor -> {
+            BigDecimal points = affected.test(doctor) ? doctorLeaderboard.points(doctor.getId()) : null;
+            if (points == null || (doctor.getTotal_points() != null && points.compareTo(doctor.getTotal_points()) == 0)) {
+                return doctor;
+            }
+            DoctorDto copy = new DoctorDto();
+            copy.setId(doctor.getId());
+            copy.setFirstName(doctor.getFirstName());
+            copy.setLastName(doctor.getLastName());
+            copy.setEmail(doctor.getEmail());
+            copy.setPhoneNumber(doctor.getPhoneNumber());
+            copy.setGender(doctor.getGender());
+            copy.setDob(doctor.getDob());
+            copy.setSpecialization(doctor.getSpecialization());
+            copy.setExperience(doctor.getExperience());
+            copy.setDoctor_fees(doctor.getDoctor_fees());
+            copy.setTotal_points(points);
+            return copy;
+        }).toList();
+    }
+}
@@ -0,0 +1,167 @@
+package com.project.jsb.service.doctor;
+
+import com.project.jsb.dto.DoctorDto;
+import com.project.jsb.dto.LeaderboardEntry;
+import com.project.jsb.dto.StatusCount;
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.repository.AppointmentRepository;
+import com.project.jsb.repository.ArchivedAppointmentRepository;
+import com.project.jsb.repository.DoctorRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+// doctors ordered by completed appointments then points, overall and per specialization, in skip lists so the
+// first K are read by walking K nodes. Seeded from the aggregate queries at startup and moved on every completion.
+@Component
+public class DoctorLeaderboard {
+
+    private static final Comparator<Standing> ORDER = Comparator.comparingLong(Standing::completed).reversed()
+            .thenComparing(Standing::points, Comparator.reverseOrder())
+            .thenComparing(Standing::doctorId);
+
+    @Autowired
+    public final DoctorRepository doctorRepository;
+    @Autowired
+    public final AppointmentRepository appointmentRepository;
+    @Autowired
+    public final ArchivedAppointmentRepository archivedAppointmentRepository;
+
+    private volatile Board board = new Board();
+
+    public DoctorLeaderboard(DoctorRepository doctorRepository, AppointmentRepository appointmentRepository,
+                             ArchivedAppointmentRepository archivedAppointmentRepository) {
+        this.doctorRepository = doctorRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<Long, Long> completed = new HashMap<>();
+        Stream.concat(appointmentRepository.countByDoctorAndStatus().stream(),
+                        archivedAppointmentRepository.countByDoctorAndStatus().stream())
+                .filter(count -> count.status() == AppointmentStatus.COMPLETED)
+                .forEach((StatusCount count) -> completed.merge(count.doctorId(), count.count(), Long::sum));
+        Board rebuilt = new Board();
+        for (DoctorDto doctor : doctorRepository.findAllDoctorDtos()) {
+            rebuilt.move(doctor.getId(), old -> new Standing(doctor.getId(), doctor.getFirstName(), doctor.getLastName(),
+                    doctor.getSpecialization(), completed.getOrDefault(doctor.getId(), 0L), points(doctor.getTotal_points())));
+        }
+        board = rebuilt;
+    }
+
+    // called once the completion and its earning are committed, a doctor that is gone is skipped
+    public void completed(Long doctorId, long appointments, BigDecimal earned) {
+        board.move(doctorId, old -> old == null ? null : new Standing(doctorId, old.firstName(), old.lastName(),
+                old.specialization(), old.completed() + appointments, old.points().add(points(earned))));
+    }
+
+    // profile changes keep the counts already tallied here, a new doctor starts from the saved row
+    public void put(DoctorDto doctor) {
+        board.move(doctor.getId(), old -> new Standing(doctor.getId(), doctor.getFirstName(), doctor.getLastName(),
+                doctor.getSpecialization(), old == null ? 0 : old.completed(),
+                old == null ? points(doctor.getTotal_points()) : old.points()));
+    }
+
+    public void remove(Long doctorId) {
+        board.move(doctorId, old -> null);
+    }
+
+    // a doctor's running total, null for one not on the board
+    public BigDecimal points(Long doctorId) {
+        Board current = board;
+        long stamp = current.lock.readLock();
+        try {
+            Standing standing = current.standings.get(doctorId);
+            return standing == null ? null : standing.points();
+        } finally {
+            current.lock.unlockRead(stamp);
+        }
+    }
+
+    public List<LeaderboardEntry> top(String specialization, int limit) {
+        Board current = board;
+        String key = specialization == null || specialization.isBlank() ? null : SpecializationIndex.key(specialization);
+        // an optimistic walk of the first K nodes, walked again under the read lock if a doctor moved meanwhile
+        long stamp = current.lock.tryOptimisticRead();
+        List<LeaderboardEntry> entries = current.top(key, limit);
+        if (current.lock.validate(stamp)) {
+            return entries;
+        }
+        stamp = current.lock.readLock();
+        try {
+            return current.top(key, limit);
+        } finally {
+            current.lock.unlockRead(stamp);
+        }
+    }
+
+    private static BigDecimal points(BigDecimal points) {
+        return points == null ? BigDecimal.ZERO : points;
+    }
+
+    private record Standing(Long doctorId, String firstName, String lastName, String specialization, long completed,
+                            BigDecimal points) {
+    }
+
+    // a reader walking a skip list while doctors move past its cursor could skip one, so moves are written under
+    // a stamped lock and reads check the stamp. The sets stay concurrent for the optimistic walk.
+    private static final class Board {
+        private final StampedLock lock = new StampedLock();
+        private final Map<Long, Standing> standings = new HashMap<>();
+        private final NavigableSet<Standing> overall = new ConcurrentSkipListSet<>(ORDER);
+        private final Map<String, NavigableSet<Standing>> bySpecialization = new ConcurrentHashMap<>();
+
+        private void move(Long doctorId, UnaryOperator<Standing> change) {
+            long stamp = lock.writeLock();
+            try {
+                Standing from = standings.get(doctorId);
+                Standing to = change.apply(from);
+                if (from != null) {
+                    overall.remove(from);
+                    bySpecialization.get(SpecializationIndex.key(from.specialization())).remove(from);
+                    standings.remove(doctorId);
+                }
+                if (to != null) {
+                    overall.add(to);
+                    bySpecialization.computeIfAbsent(SpecializationIndex.key(to.specialization()),
+                            key -> new ConcurrentSkipListSet<>(ORDER)).add(to);
+                    standings.put(doctorId, to);
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private List<LeaderboardEntry> top(String key, int limit) {
+            NavigableSet<Standing> ranked = key == null ? overall : bySpecialization.get(key);
+            if (ranked == null) {
+                return List.of();
+            }
+            List<LeaderboardEntry> entries = new ArrayList<>(limit);
+            for (Standing standing : ranked) {
+                if (entries.size() == limit) {
+                    break;
+                }
+                entries.add(new LeaderboardEntry(entries.size() + 1, standing.doctorId(), standing.firstName(),
+                        standing.lastName(), standing.specialization(), standing.completed(), standing.points()));
+            }
+            return entries;
+        }
+    }
+}
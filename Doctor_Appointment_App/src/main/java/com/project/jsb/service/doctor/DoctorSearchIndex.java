@@ -0,0 +1,359 @@
+package com.project.jsb.service.doctor;
+
+import com.project.jsb.dto.DoctorDto;
+import com.project.jsb.repository.DoctorRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// trigram index over doctor names and specializations for the autocomplete box.
+// Words are padded at the front only ("$$jo", "$joh", "ohn"...), so a typed prefix shares all of its trigrams
+// with the words it starts, and a typo still shares most of them.
+@Component
+public class DoctorSearchIndex {
+
+    private static final double MIN_SIMILARITY = 0.6;
+    private static final int[] EMPTY = new int[0];
+    private static final long PREFIX = 1L << 62;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Comparator<int[]> SHORTEST_FIRST = Comparator.comparingInt(list -> list.length);
+    private static final Comparator<Entry> LOAD_ORDER = Comparator.comparing((Entry entry) -> entry.text)
+            .thenComparing(entry -> entry.doctor.getId());
+
+    @Autowired
+    public final DoctorRepository doctorRepository;
+
+    // postings and entries are replaced together, a search always sees one consistent snapshot
+    private volatile Index index = new Index(new HashMap<>(), new Entry[0]);
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    // ordinals of removed doctors, handed out again so the entry table and the counters stay the size of the directory
+    private final IntList freeOrdinals = new IntList();
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    public DoctorSearchIndex(DoctorRepository doctorRepository) {
+        this.doctorRepository = doctorRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        load(doctorRepository.findAllDoctorDtos());
+    }
+
+    // ordinals follow the normalized name, so equally ranked matches come out alphabetically by comparing ints.
+    // Doctors added later take a free or the next ordinal, their ties are not alphabetical until the next load.
+    public synchronized void load(List<DoctorDto> doctors) {
+        Entry[] entries = doctors.stream().map(Entry::new).sorted(LOAD_ORDER).toArray(Entry[]::new);
+        Map<String, IntList> building = new HashMap<>();
+        ordinals.clear();
+        freeOrdinals.size = 0;
+        for (int ordinal = 0; ordinal < entries.length; ordinal++) {
+            ordinals.put(entries[ordinal].doctor.getId(), ordinal);
+            for (String trigram : entries[ordinal].trigrams()) {
+                building.computeIfAbsent(trigram, k -> new IntList()).add(ordinal);
+            }
+        }
+        Map<String, int[]> postings = new HashMap<>(building.size() * 4 / 3 + 1);
+        building.forEach((trigram, ordinalsOf) -> postings.put(trigram, ordinalsOf.toArray()));
+        index = new Index(postings, entries);
+    }
+
+    // doctors change a few times a day, each write copies the entry table, the posting map and the touched lists
+    public synchronized void put(DoctorDto doctor) {
+        Index current = index;
+        Integer existing = ordinals.get(doctor.getId());
+        int ordinal = existing != null ? existing
+                : freeOrdinals.size > 0 ? freeOrdinals.values[--freeOrdinals.size] : current.entries.length;
+        Entry entry = new Entry(doctor);
+        Entry[] entries = Arrays.copyOf(current.entries, Math.max(current.entries.length, ordinal + 1));
+        Map<String, int[]> postings = new HashMap<>(current.postings);
+        Set<String> previous = existing == null ? Set.of() : entries[ordinal].trigrams();
+        Set<String> next = entry.trigrams();
+        entries[ordinal] = entry;
+        for (String trigram : next) {
+            if (!previous.contains(trigram)) {
+                postings.merge(trigram, new int[]{ordinal}, DoctorSearchIndex::insert);
+            }
+        }
+        for (String trigram : previous) {
+            if (!next.contains(trigram)) {
+                unlink(postings, trigram, ordinal);
+            }
+        }
+        ordinals.put(doctor.getId(), ordinal);
+        index = new Index(postings, entries);
+    }
+
+    public synchronized void remove(Long doctorId) {
+        Integer ordinal = ordinals.remove(doctorId);
+        if (ordinal == null) {
+            return;
+        }
+        Index current = index;
+        Entry[] entries = current.entries.clone();
+        Map<String, int[]> postings = new HashMap<>(current.postings);
+        for (String trigram : entries[ordinal].trigrams()) {
+            unlink(postings, trigram, ordinal);
+        }
+        entries[ordinal] = null;
+        freeOrdinals.add(ordinal);
+        index = new Index(postings, entries);
+    }
+
+    // counts shared trigrams per doctor and keeps those sharing 60% of the query's. A match is ranked by one long:
+    // prefix hit, then shared trigrams, then ordinal, and the best few are held in a small sorted array.
+    public List<DoctorDto> search(String query, int limit) {
+        String normalized = normalize(query);
+        Set<String> trigrams = trigrams(normalized);
+        if (trigrams.isEmpty()) {
+            return List.of();
+        }
+        Index current = index;
+        int[][] lists = new int[trigrams.size()][];
+        int listed = 0;
+        for (String trigram : trigrams) {
+            lists[listed++] = current.postings.getOrDefault(trigram, EMPTY);
+        }
+        Arrays.sort(lists, SHORTEST_FIRST);
+        String wordStart = " " + normalized;
+        List<DoctorDto> prefixHits = firstPrefixHits(current, lists, normalized, wordStart, limit);
+        if (prefixHits != null) {
+            return prefixHits;
+        }
+        Scratch buffers = scratch.get();
+        if (buffers.counts.length < current.entries.length) {
+            buffers.counts = new int[current.entries.length];
+        }
+        int[] counts = buffers.counts;
+        IntList touched = buffers.touched;
+        touched.size = 0;
+
+        // a match misses at most (trigrams - required) lists, so it is on one of the shortest (trigrams - required + 1).
+        // Only those bring in candidates, the long lists of common trigrams such as "$$s" just add to their counts.
+        int required = (int) Math.ceil(trigrams.size() * MIN_SIMILARITY);
+        int generating = lists.length - required + 1;
+        for (int i = 0; i < generating; i++) {
+            for (int ordinal : lists[i]) {
+                if (counts[ordinal]++ == 0) {
+                    touched.add(ordinal);
+                }
+            }
+        }
+        for (int i = generating; i < lists.length; i++) {
+            // candidates that would miss the threshold even with every list left are dropped before the next one
+            int kept = 0;
+            for (int t = 0; t < touched.size; t++) {
+                int ordinal = touched.values[t];
+                if (counts[ordinal] + lists.length - i >= required) {
+                    touched.values[kept++] = ordinal;
+                } else {
+                    counts[ordinal] = 0;
+                }
+            }
+            touched.size = kept;
+            int[] list = lists[i];
+            // posting lists are sorted, a few candidates are looked up, many are counted in one pass over the list
+            if ((long) touched.size * (32 - Integer.numberOfLeadingZeros(list.length)) < list.length) {
+                for (int t = 0; t < touched.size; t++) {
+                    if (Arrays.binarySearch(list, touched.values[t]) >= 0) {
+                        counts[touched.values[t]]++;
+                    }
+                }
+            } else {
+                for (int ordinal : list) {
+                    if (counts[ordinal] > 0) {
+                        counts[ordinal]++;
+                    }
+                }
+            }
+        }
+
+        long[] best = new long[limit];
+        int found = 0;
+        for (int i = 0; i < touched.size; i++) {
+            int ordinal = touched.values[i];
+            int shared = counts[ordinal];
+            counts[ordinal] = 0;
+            Entry entry = current.entries[ordinal];
+            if (entry == null || shared < required) {
+                continue;
+            }
+            long rank = ((long) shared << 32) | (Integer.MAX_VALUE - ordinal);
+            // the string check only runs for a doctor that could still make the list
+            if (found == limit && (rank | PREFIX) <= best[0]) {
+                continue;
+            }
+            if (shared == trigrams.size() && entry.startsWith(normalized, wordStart)) {
+                rank |= PREFIX;
+            }
+            // best is ascending, best[0] is the weakest match kept
+            if (found < limit) {
+                int at = found++;
+                while (at > 0 && best[at - 1] > rank) {
+                    best[at] = best[at - 1];
+                    at--;
+                }
+                best[at] = rank;
+            } else if (rank > best[0]) {
+                int at = 0;
+                while (at + 1 < limit && best[at + 1] < rank) {
+                    best[at] = best[at + 1];
+                    at++;
+                }
+                best[at] = rank;
+            }
+        }
+        List<DoctorDto> ranked = new ArrayList<>(found);
+        for (int i = found - 1; i >= 0; i--) {
+            ranked.add(current.entries[Integer.MAX_VALUE - (int) best[i]].doctor);
+        }
+        return ranked;
+    }
+
+    // a prefix hit shares every trigram and outranks any other match, ties go to the lower ordinal. Walking the
+    // intersection of the lists in ordinal order, the first hits found are the answer, so "cardio" stops after a
+    // few dozen of its thousands of doctors. Null when there are fewer hits than asked for and counting has to rank.
+    private static List<DoctorDto> firstPrefixHits(Index current, int[][] lists, String normalized, String wordStart,
+                                                   int limit) {
+        int[] cursors = new int[lists.length];
+        List<DoctorDto> hits = new ArrayList<>(limit);
+        candidates:
+        for (int ordinal : lists[0]) {
+            for (int i = 1; i < lists.length; i++) {
+                int at = advance(lists[i], cursors[i], ordinal);
+                if (at == lists[i].length) {
+                    return null;
+                }
+                cursors[i] = at;
+                if (lists[i][at] != ordinal) {
+                    continue candidates;
+                }
+            }
+            Entry entry = current.entries[ordinal];
+            if (entry.startsWith(normalized, wordStart)) {
+                hits.add(entry.doctor);
+                if (hits.size() == limit) {
+                    return hits;
+                }
+            }
+        }
+        return null;
+    }
+
+    // first index at or after from holding a value >= target, galloping because the cursor mostly moves a little
+    private static int advance(int[] list, int from, int target) {
+        int low = from;
+        int high = from;
+        int step = 1;
+        while (high < list.length && list[high] < target) {
+            low = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        int found = Arrays.binarySearch(list, low, Math.min(high, list.length), target);
+        return found >= 0 ? found : -found - 1;
+    }
+
+    public synchronized int size() {
+        return ordinals.size();
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    static Set<String> trigrams(String normalized) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (String word : normalized.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "$$" + word;
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    // keeps the list sorted, a reused ordinal can land anywhere in it
+    private static int[] insert(int[] ordinals, int[] added) {
+        int at = -Arrays.binarySearch(ordinals, added[0]) - 1;
+        int[] merged = new int[ordinals.length + 1];
+        System.arraycopy(ordinals, 0, merged, 0, at);
+        merged[at] = added[0];
+        System.arraycopy(ordinals, at, merged, at + 1, ordinals.length - at);
+        return merged;
+    }
+
+    private static void unlink(Map<String, int[]> postings, String trigram, int ordinal) {
+        postings.computeIfPresent(trigram, (key, ordinals) -> {
+            int[] kept = Arrays.stream(ordinals).filter(value -> value != ordinal).toArray();
+            return kept.length == 0 ? null : kept;
+        });
+    }
+
+    private record Index(Map<String, int[]> postings, Entry[] entries) {
+    }
+
+    // trigrams are recomputed on the rare write instead of being held per doctor, the posting lists already have them
+    private static final class Entry {
+        private final DoctorDto doctor;
+        private final String text;
+
+        private Entry(DoctorDto doctor) {
+            this.doctor = doctor;
+            this.text = (normalize(Objects.toString(doctor.getFirstName(), "") + " " + Objects.toString(doctor.getLastName(), ""))
+                    + " " + normalize(doctor.getSpecialization())).trim();
+        }
+
+        private Set<String> trigrams() {
+            return DoctorSearchIndex.trigrams(text);
+        }
+
+        // "john sm" starts the full name, "cardio" starts a word
+        private boolean startsWith(String query, String wordStart) {
+            return text.startsWith(query) || text.contains(wordStart);
+        }
+    }
+
+    // per thread, a specialization prefix touches tens of thousands of doctors and the buffers only ever grow
+    private static final class Scratch {
+        private int[] counts = EMPTY;
+        private final IntList touched = new IntList();
+    }
+
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -1,23 +1,34 @@
 package com.project.jsb.service.doctor;
 
 import com.project.jsb.dto.DoctorDto;
-import com.project.jsb.model.Role;
+import com.project.jsb.dto.DoctorPageDto;
+import com.project.jsb.dto.DoctorProfileDto;
+import com.project.jsb.dto.DoctorProfileRow;
+import com.project.jsb.dto.LeaderboardEntry;
+import com.project.jsb.dto.ResourceVersion;
+import com.project.jsb.enums.DoctorSort;
 import com.project.jsb.exception.AlreadyExistsException;
 import com.project.jsb.exception.ResourceNotFoundException;
 import com.project.jsb.model.Doctor;
 import com.project.jsb.model.User;
 import com.project.jsb.repository.DoctorRepository;
-import com.project.jsb.repository.RoleRepository;
 import com.project.jsb.repository.UserRepository;
 import com.project.jsb.request.CreateDoctorRequest;
 import com.project.jsb.request.UpdateDoctorRequest;
 import com.project.jsb.service.User.IUserService;
+import com.project.jsb.service.User.UserCountCache;
+import com.project.jsb.service.availability.IAvailabilityService;
+import com.project.jsb.service.role.RoleRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.util.Collection;
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class DoctorService implements IDoctorService {
@@ -27,19 +38,57 @@ public class DoctorService implements IDoctorService {
     @Autowired
     public final UserRepository userRepository;
     @Autowired
-    public final RoleRepository roleRepository;
+    public final RoleRegistry roleRegistry;
     @Autowired
     public final IUserService userService;
     @Autowired
     public final PasswordEncoder passwordEncoder;
-
-
-    public DoctorService(DoctorRepository doctorRepository, UserRepository userRepository, RoleRepository roleRepository, IUserService userService, PasswordEncoder passwordEncoder) {
+    @Autowired
+    public final DoctorDirectoryCache doctorDirectoryCache;
+    @Autowired
+    public final SpecializationIndex specializationIndex;
+    @Autowired
+    public final DoctorSearchIndex doctorSearchIndex;
+    @Autowired
+    public final DoctorLeaderboard doctorLeaderboard;
+    @Autowired
+    public final IAvailabilityService availabilityService;
+    @Autowired
+    public final UserCountCache userCountCache;
+
+    @Value("${doctor.page.default-size}")
+    private int defaultPageSize;
+    @Value("${doctor.page.max-size}")
+    private int maxPageSize;
+    @Value("${doctor.search.default-limit}")
+    private int defaultSearchLimit;
+    @Value("${doctor.search.max-limit}")
+    private int maxSearchLimit;
+    @Value("${doctor.top.default-limit}")
+    private int defaultTopLimit;
+    @Value("${doctor.top.max-limit}")
+    private int maxTopLimit;
+    @Value("${doctor.profile.default-slots}")
+    private int defaultProfileSlots;
+    @Value("${doctor.profile.max-slots}")
+    private int maxProfileSlots;
+
+
+    public DoctorService(DoctorRepository doctorRepository, UserRepository userRepository, RoleRegistry roleRegistry, IUserService userService,
+                         PasswordEncoder passwordEncoder, DoctorDirectoryCache doctorDirectoryCache, SpecializationIndex specializationIndex,
+                         DoctorSearchIndex doctorSearchIndex, DoctorLeaderboard doctorLeaderboard,
+                         IAvailabilityService availabilityService, UserCountCache userCountCache) {
         this.doctorRepository = doctorRepository;
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
         this.userService = userService;
         this.passwordEncoder = passwordEncoder;
+        this.doctorDirectoryCache = doctorDirectoryCache;
+        this.specializationIndex = specializationIndex;
+        this.doctorSearchIndex = doctorSearchIndex;
+        this.doctorLeaderboard = doctorLeaderboard;
+        this.availabilityService = availabilityService;
+        this.userCountCache = userCountCache;
     }
 
     @Override
@@ -50,6 +99,29 @@ public class DoctorService implements IDoctorService {
         return convertToDoctorDto(user, doctor);
     }
 
+    // the doctor row joins its user, one lookup covers both versions. Completions move total_points without a
+    // version bump, so the total goes into the tag itself.
+    @Override
+    public ResourceVersion getDoctorVersion(Long userId) {
+        Doctor doctor = doctorRepository.findByUserId(userId).orElseThrow(() -> new ResourceNotFoundException("not found"));
+        User user = doctor.getUser();
+        BigDecimal points = doctor.getTotal_points() == null ? BigDecimal.ZERO : doctor.getTotal_points();
+        return new ResourceVersion("d" + user.getId() + "-" + user.getVersion() + "-" + doctor.getVersion() + "-"
+                + points.stripTrailingZeros().toPlainString(),
+                ResourceVersion.latest(user.getUpdatedAt(), doctor.getUpdatedAt()));
+    }
+
+    // one query for the doctor and the image metadata, the free slots come from the in-memory calendar
+    @Override
+    public DoctorProfileDto getProfile(Long userId, Integer slots) {
+        int count = slots == null ? defaultProfileSlots : slots;
+        if (count < 1 || count > maxProfileSlots) {
+            throw new IllegalArgumentException("slots must be between 1 and " + maxProfileSlots);
+        }
+        DoctorProfileRow row = doctorRepository.findProfile(userId)
+                .orElseThrow(() -> new ResourceNotFoundException(" doctor not found"));
+        return new DoctorProfileDto(row.doctor(), row.image(), availabilityService.nextFreeSlots(userId, count));
+    }
 
     @Override
     public DoctorDto createDoctor(CreateDoctorRequest request) {
@@ -60,8 +132,7 @@ public class DoctorService implements IDoctorService {
             user.setEmail(request.getEmail());
             user.setPassword(passwordEncoder.encode(request.getPassword()));
             user.setPhoneNumber(request.getPhoneNumber());
-            Collection<Role> roles = roleRepository.findByName("DOCTOR");
-            user.setRoles(roles);
+            user.setRoles(Set.of(roleRegistry.get(RoleRegistry.DOCTOR)));
 
             User savedUser = userRepository.save(user);
 
@@ -72,6 +143,9 @@ public class DoctorService implements IDoctorService {
             doctor.setDoctor_fees(request.getDoctor_fees());
 
             Doctor savedDoctor = doctorRepository.save(doctor);
+            doctorDirectoryCache.invalidate();
+            userCountCache.increment(RoleRegistry.DOCTOR);
+            reindex(savedUser.getId());
 
             return convertToDoctorDto(savedUser, savedDoctor);
         }).orElseThrow(() -> new AlreadyExistsException("user already exists with this email " + request.getEmail()));
@@ -89,8 +163,50 @@ public class DoctorService implements IDoctorService {
         doctor.setSpecialization(request.getSpecialization());
         doctor.setDoctor_fees(request.getDoctor_fees());
         doctorRepository.save(doctor);
+        doctorDirectoryCache.invalidate();
 
-        return convertToDoctorDto(user, doctor);
+        // the total may have moved since the doctor was loaded, the read back row has it
+        return reindex(user.getId()).orElseGet(() -> convertToDoctorDto(user, doctor));
+    }
+
+    // the listing is sorted in memory, a specialization holds tens of doctors, not thousands
+    @Override
+    public DoctorPageDto findBySpecialization(String specialization, DoctorSort sort, Sort.Direction direction,
+                                              Integer page, Integer size) {
+        int pageSize = size == null ? defaultPageSize : size;
+        int pageNumber = page == null ? 0 : page;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new IllegalArgumentException("size must be between 1 and " + maxPageSize);
+        }
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("page must not be negative");
+        }
+        List<DoctorDto> doctors = specializationIndex.find(specialization);
+        int from = (int) Math.min((long) pageNumber * pageSize, doctors.size());
+        List<DoctorDto> pageOf = doctors.stream()
+                .sorted(sort.comparator(direction))
+                .skip(from)
+                .limit(pageSize)
+                .toList();
+        return new DoctorPageDto(pageOf, pageNumber, pageSize, doctors.size());
+    }
+
+    @Override
+    public List<DoctorDto> autocomplete(String query, Integer limit) {
+        int max = limit == null ? defaultSearchLimit : limit;
+        if (max < 1 || max > maxSearchLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxSearchLimit);
+        }
+        return doctorSearchIndex.search(query, max);
+    }
+
+    @Override
+    public List<LeaderboardEntry> topDoctors(String specialization, Integer limit) {
+        int max = limit == null ? defaultTopLimit : limit;
+        if (max < 1 || max > maxTopLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxTopLimit);
+        }
+        return doctorLeaderboard.top(specialization, max);
     }
 
     @Override
@@ -107,5 +223,14 @@ public class DoctorService implements IDoctorService {
         return doctorDto;
     }
 
-
+    // the saved row is read back once so every in-memory listing holds the same record
+    private Optional<DoctorDto> reindex(Long userId) {
+        Optional<DoctorDto> saved = doctorRepository.findDoctorDto(userId);
+        saved.ifPresent(doctor -> {
+            specializationIndex.put(doctor);
+            doctorSearchIndex.put(doctor);
+            doctorLeaderboard.put(doctor);
+        });
+        return saved;
+    }
 }
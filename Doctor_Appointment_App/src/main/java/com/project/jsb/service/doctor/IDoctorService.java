@@ -1,19 +1,37 @@
 package com.project.jsb.service.doctor;
 
 import com.project.jsb.dto.DoctorDto;
+import com.project.jsb.dto.DoctorPageDto;
+import com.project.jsb.dto.DoctorProfileDto;
+import com.project.jsb.dto.LeaderboardEntry;
+import com.project.jsb.dto.ResourceVersion;
 import com.project.jsb.dto.UserDto;
+import com.project.jsb.enums.DoctorSort;
 import com.project.jsb.model.Doctor;
 import com.project.jsb.model.User;
 import com.project.jsb.request.CreateDoctorRequest;
 import com.project.jsb.request.UpdateDoctorRequest;
 import com.project.jsb.request.UpdateUserRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
 
 public interface IDoctorService {
     DoctorDto getDoctor(Long userId);
 
+    DoctorProfileDto getProfile(Long userId, Integer slots);
+
+    ResourceVersion getDoctorVersion(Long userId);
+
     UserDto createDoctor(CreateDoctorRequest request);
 
     UserDto updateDoctor(UpdateDoctorRequest request);
 
+    DoctorPageDto findBySpecialization(String specialization, DoctorSort sort, Sort.Direction direction, Integer page, Integer size);
+
+    List<DoctorDto> autocomplete(String query, Integer limit);
+
+    List<LeaderboardEntry> topDoctors(String specialization, Integer limit);
+
     DoctorDto convertToDoctorDto(User user, Doctor doctor);
 }
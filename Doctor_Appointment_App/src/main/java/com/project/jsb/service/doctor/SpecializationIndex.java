@@ -0,0 +1,94 @@
+package com.project.jsb.service.doctor;
+
+import com.project.jsb.dto.DoctorDto;
+import com.project.jsb.repository.DoctorRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// specialization -> doctor ids, with the doctor rows kept alongside so a listing never reaches the database.
+// Writers are serialized, readers go through the concurrent maps without locking.
+@Component
+public class SpecializationIndex {
+
+    @Autowired
+    public final DoctorRepository doctorRepository;
+
+    private volatile Index index = new Index();
+
+    public SpecializationIndex(DoctorRepository doctorRepository) {
+        this.doctorRepository = doctorRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Index rebuilt = new Index();
+        doctorRepository.findAllDoctorDtos().forEach(rebuilt::add);
+        index = rebuilt;
+    }
+
+    public synchronized void put(DoctorDto doctor) {
+        index.add(doctor);
+    }
+
+    public synchronized void remove(Long doctorId) {
+        index.remove(doctorId);
+    }
+
+    // a doctor moved to another specialization mid-read can still sit under the old key, the row decides
+    public List<DoctorDto> find(String specialization) {
+        Index current = index;
+        String key = key(specialization);
+        Set<Long> ids = current.ids.get(key);
+        if (ids == null) {
+            return List.of();
+        }
+        return ids.stream()
+                .map(current.doctors::get)
+                .filter(doctor -> doctor != null && key.equals(key(doctor.getSpecialization())))
+                .toList();
+    }
+
+    static String key(String specialization) {
+        return specialization == null ? "" : specialization.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Index {
+        private final Map<String, Set<Long>> ids = new ConcurrentHashMap<>();
+        private final Map<Long, DoctorDto> doctors = new ConcurrentHashMap<>();
+
+        // the new entry goes in before the old key lets go, readers never miss the doctor
+        private void add(DoctorDto doctor) {
+            String key = key(doctor.getSpecialization());
+            DoctorDto previous = doctors.put(doctor.getId(), doctor);
+            ids.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(doctor.getId());
+            if (previous != null && !key.equals(key(previous.getSpecialization()))) {
+                unlink(key(previous.getSpecialization()), doctor.getId());
+            }
+        }
+
+        private void remove(Long doctorId) {
+            DoctorDto previous = doctors.remove(doctorId);
+            if (previous != null) {
+                unlink(key(previous.getSpecialization()), doctorId);
+            }
+        }
+
+        private void unlink(String key, Long doctorId) {
+            Set<Long> byKey = ids.get(key);
+            if (byKey != null) {
+                byKey.remove(doctorId);
+                if (byKey.isEmpty()) {
+                    ids.remove(key, byKey);
+                }
+            }
+        }
+    }
+}
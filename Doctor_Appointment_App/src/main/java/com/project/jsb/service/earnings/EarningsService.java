@@ -0,0 +1,98 @@
+package com.project.jsb.service.earnings;
+
+import com.project.jsb.dto.AppointmentStateView;
+import com.project.jsb.dto.DoctorFee;
+import com.project.jsb.dto.EarningsDto;
+import com.project.jsb.repository.DoctorEarningRepository;
+import com.project.jsb.repository.DoctorRepository;
+import com.project.jsb.service.doctor.DoctorDirectoryCache;
+import com.project.jsb.service.doctor.DoctorLeaderboard;
+import com.project.jsb.service.stats.IAppointmentStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class EarningsService implements IEarningsService {
+
+    @Autowired
+    public final DoctorRepository doctorRepository;
+    @Autowired
+    public final DoctorEarningRepository doctorEarningRepository;
+    @Autowired
+    public final JdbcTemplate jdbcTemplate;
+    @Autowired
+    public final IAppointmentStatsService statsService;
+    @Autowired
+    public final DoctorLeaderboard doctorLeaderboard;
+    @Autowired
+    public final DoctorDirectoryCache doctorDirectoryCache;
+
+    public EarningsService(DoctorRepository doctorRepository, DoctorEarningRepository doctorEarningRepository, JdbcTemplate jdbcTemplate,
+                           IAppointmentStatsService statsService, DoctorLeaderboard doctorLeaderboard,
+                           DoctorDirectoryCache doctorDirectoryCache) {
+        this.doctorRepository = doctorRepository;
+        this.doctorEarningRepository = doctorEarningRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.statsService = statsService;
+        this.doctorLeaderboard = doctorLeaderboard;
+        this.doctorDirectoryCache = doctorDirectoryCache;
+    }
+
+    // ledger rows are only inserted, the running total is bumped in the database, never read-modify-written here
+    @Override
+    @Transactional
+    public void recordCompletions(List<AppointmentStateView> completed) {
+        if (completed.isEmpty()) {
+            return;
+        }
+        Map<Long, BigDecimal> fees = new HashMap<>();
+        for (DoctorFee fee : doctorRepository.findFees(completed.stream().map(AppointmentStateView::doctorId).distinct().toList())) {
+            fees.put(fee.doctorId(), fee.doctorFees() == null ? BigDecimal.ZERO : fee.doctorFees());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BigDecimal> earnedPerDoctor = new HashMap<>();
+        Map<Long, Long> completedPerDoctor = new HashMap<>();
+        List<Object[]> entries = completed.stream().map(view -> {
+            BigDecimal amount = fees.getOrDefault(view.doctorId(), BigDecimal.ZERO);
+            earnedPerDoctor.merge(view.doctorId(), amount, BigDecimal::add);
+            completedPerDoctor.merge(view.doctorId(), 1L, Long::sum);
+            return new Object[]{view.doctorId(), view.id(), amount, now};
+        }).toList();
+        jdbcTemplate.batchUpdate("insert into doctor_earning (doctor_id, appointment_id, amount, earned_at) values (?, ?, ?, ?)", entries);
+
+        List<Object[]> increments = earnedPerDoctor.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), now, entry.getKey()})
+                .toList();
+        jdbcTemplate.batchUpdate("update doctor set total_points = coalesce(total_points, 0) + ?, " +
+                "updated_at = ? where user_id = ?", increments);
+
+        // the live revenue counter, the leaderboard and the directory's total_points only move once the ledger rows are committed
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                earnedPerDoctor.forEach(statsService::earned);
+                completedPerDoctor.forEach((doctorId, count) ->
+                        doctorLeaderboard.completed(doctorId, count, earnedPerDoctor.get(doctorId)));
+                // after the board, the directory takes the new totals from it
+                doctorDirectoryCache.pointsChanged(earnedPerDoctor.keySet());
+            }
+        });
+    }
+
+    @Override
+    public EarningsDto getEarnings(Long doctorId) {
+        return doctorEarningRepository.findEarnings(doctorId)
+                .orElseGet(() -> new EarningsDto(doctorId, BigDecimal.ZERO, 0L));
+    }
+}
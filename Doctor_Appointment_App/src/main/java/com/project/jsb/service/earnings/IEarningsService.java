@@ -0,0 +1,13 @@
+package com.project.jsb.service.earnings;
+
+import com.project.jsb.dto.AppointmentStateView;
+import com.project.jsb.dto.EarningsDto;
+
+import java.util.List;
+
+public interface IEarningsService {
+
+    void recordCompletions(List<AppointmentStateView> completed);
+
+    EarningsDto getEarnings(Long doctorId);
+}
@@ -0,0 +1,164 @@
+package com.project.jsb.service.event;
+
+import com.project.jsb.dto.AppointmentEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// idle subscribers are parked async requests, no thread is held per connection. Open streams count as active
+// requests, so they are completed in the default lifecycle phase, before the web server's graceful shutdown waits on them.
+@Slf4j
+@Service
+public class AppointmentEventService implements IAppointmentEventService, SmartLifecycle {
+
+    private final Map<Long, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final long timeoutMillis;
+    private final long heartbeatMillis;
+    private volatile boolean running;
+
+    // one writer thread, so a publishing request never waits on a client socket
+    private final ThreadPoolExecutor dispatcher;
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "appointment-events-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public AppointmentEventService(@Value("${appointment.events.timeout-ms}") long timeoutMillis,
+                                   @Value("${appointment.events.heartbeat-ms}") long heartbeatMillis,
+                                   @Value("${appointment.events.queue-capacity}") int queueCapacity) {
+        this.timeoutMillis = timeoutMillis;
+        this.heartbeatMillis = heartbeatMillis;
+        this.dispatcher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "appointment-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        // heartbeats find connections the client dropped without closing
+        heartbeat.scheduleWithFixedDelay(() -> submit(this::sendHeartbeats), heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        heartbeat.shutdownNow();
+        dispatcher.shutdownNow();
+        subscribers.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        subscribers.compute(userId, (id, emitters) -> {
+            Set<SseEmitter> set = emitters == null ? ConcurrentHashMap.newKeySet() : emitters;
+            set.add(emitter);
+            return set;
+        });
+        subscriberCount.incrementAndGet();
+        Runnable remove = () -> unsubscribe(userId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        if (!running) {
+            // registered while stop() was completing the streams, it may have missed this one
+            emitter.complete();
+            return emitter;
+        }
+        try {
+            // flushes the headers so the client sees the stream open right away
+            emitter.send(SseEmitter.event().comment("connected"));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    @Override
+    public void publish(AppointmentEvent event) {
+        submit(() -> {
+            send(event.doctorId(), event);
+            if (!event.patientId().equals(event.doctorId())) {
+                send(event.patientId(), event);
+            }
+        });
+    }
+
+    @Override
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private void submit(Runnable task) {
+        try {
+            dispatcher.execute(task);
+        } catch (RejectedExecutionException e) {
+            // clients re-fetch their list when they reconnect, a dropped event is not lost for good
+            log.warn("appointment event queue is full, dropping event");
+        }
+    }
+
+    private void send(Long userId, AppointmentEvent event) {
+        Set<SseEmitter> emitters = subscribers.get(userId);
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event()
+                        .name(event.type().name())
+                        .data(event, MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+                unsubscribe(userId, emitter);
+            }
+        }
+    }
+
+    private void sendHeartbeats() {
+        subscribers.forEach((userId, emitters) -> {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | IllegalStateException e) {
+                    emitter.completeWithError(e);
+                    unsubscribe(userId, emitter);
+                }
+            }
+        });
+    }
+
+    private void unsubscribe(Long userId, SseEmitter emitter) {
+        subscribers.computeIfPresent(userId, (id, emitters) -> {
+            if (emitters.remove(emitter)) {
+                subscriberCount.decrementAndGet();
+            }
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
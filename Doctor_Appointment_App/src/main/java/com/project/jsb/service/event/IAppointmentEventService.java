@@ -0,0 +1,13 @@
+package com.project.jsb.service.event;
+
+import com.project.jsb.dto.AppointmentEvent;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface IAppointmentEventService {
+
+    SseEmitter subscribe(Long userId);
+
+    void publish(AppointmentEvent event);
+
+    int subscriberCount();
+}
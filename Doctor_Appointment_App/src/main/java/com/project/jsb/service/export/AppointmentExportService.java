@@ -0,0 +1,124 @@
+package com.project.jsb.service.export;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.project.jsb.dto.AppointmentExportRow;
+import com.project.jsb.enums.ExportFormat;
+import com.project.jsb.model.Appointment;
+import com.project.jsb.model.ArchivedAppointment;
+import com.project.jsb.repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@Service
+public class AppointmentExportService implements IAppointmentExportService {
+
+    private static final String CSV_HEADER = "id,appointment_date,appointment_status,payment_status,patient_id," +
+            "patient_first_name,patient_last_name,patient_email,doctor_id,doctor_first_name,doctor_last_name,doctor_fees\n";
+
+    @Autowired
+    public final AppointmentRepository appointmentRepository;
+    @Autowired
+    public final ObjectMapper objectMapper;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream row by row instead of buffering the whole result
+    @Value("${appointment.export.fetch-size}")
+    private int fetchSize;
+
+    public AppointmentExportService(AppointmentRepository appointmentRepository, ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager) {
+        this.appointmentRepository = appointmentRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // the range is checked before the response is committed, rows are only read once the body is written
+    @Override
+    public StreamingResponseBody export(ExportFormat format, LocalDate from, LocalDate to) {
+        if (format == null || from == null || to == null) {
+            throw new IllegalArgumentException("format, from and to are required");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("to must not be before from");
+        }
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        ObjectWriter json = objectMapper.writerFor(AppointmentExportRow.class);
+        Function<AppointmentExportRow, String> line = format == ExportFormat.CSV ? AppointmentExportService::csvLine : row -> {
+            try {
+                return json.writeValueAsString(row) + '\n';
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        return out -> readOnlyTransaction.executeWithoutResult(status -> {
+            try {
+                write(format == ExportFormat.CSV ? CSV_HEADER : "", start, end, line, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void write(String header, LocalDateTime start, LocalDateTime end, Function<AppointmentExportRow, String> line,
+                       OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(header);
+        // archived rows are older than anything still in the hot table, so the file stays in date order
+        for (Class<?> table : List.of(ArchivedAppointment.class, Appointment.class)) {
+            try (Stream<AppointmentExportRow> rows = appointmentRepository.streamExportRows(table, start, end, fetchSize)) {
+                for (Iterator<AppointmentExportRow> it = rows.iterator(); it.hasNext(); ) {
+                    writer.write(line.apply(it.next()));
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private static String csvLine(AppointmentExportRow row) {
+        Object[] values = {row.id(), row.appointmentDate(), row.appointmentStatus(), row.paymentStatus(), row.patientId(),
+                row.patientFirstName(), row.patientLastName(), row.patientEmail(), row.doctorId(), row.doctorFirstName(),
+                row.doctorLastName(), row.doctorFees()};
+        StringBuilder line = new StringBuilder(128);
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append(csvField(values[i]));
+        }
+        return line.append('\n').toString();
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
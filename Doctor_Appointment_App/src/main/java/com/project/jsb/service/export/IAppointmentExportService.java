@@ -0,0 +1,11 @@
+package com.project.jsb.service.export;
+
+import com.project.jsb.enums.ExportFormat;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+public interface IAppointmentExportService {
+
+    StreamingResponseBody export(ExportFormat format, LocalDate from, LocalDate to);
+}
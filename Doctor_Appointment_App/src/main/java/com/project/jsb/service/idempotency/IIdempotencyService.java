@@ -0,0 +1,21 @@
+package com.project.jsb.service.idempotency;
+
+import com.project.jsb.dto.IdempotencyClaim;
+import com.project.jsb.dto.StoredResponse;
+
+public interface IIdempotencyService {
+
+    // null when the key has not been used yet
+    StoredResponse find(Long userId, String key);
+
+    // claims the key, unless it was answered already or another request with it is still running
+    IdempotencyClaim begin(Long userId, String key);
+
+    void complete(Long userId, String key, StoredResponse response);
+
+    void persist(Long userId, String key, StoredResponse response);
+
+    void abandon(Long userId, String key);
+
+    int purgeExpired();
+}
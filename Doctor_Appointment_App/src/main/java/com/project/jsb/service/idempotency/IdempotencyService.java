@@ -0,0 +1,113 @@
+package com.project.jsb.service.idempotency;
+
+import com.project.jsb.cache.TtlCache;
+import com.project.jsb.dto.IdempotencyClaim;
+import com.project.jsb.dto.StoredResponse;
+import com.project.jsb.model.IdempotencyRecord;
+import com.project.jsb.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// recent keys are answered from memory, the table covers retries that land on another instance or after a restart
+@Slf4j
+@Service
+public class IdempotencyService implements IIdempotencyService {
+
+    @Autowired
+    public final IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private final TtlCache<String, StoredResponse> recent;
+    // claims and completions of a key both go through compute(), so a retry can not slip in between them
+    private final Map<String, Boolean> inFlight = new ConcurrentHashMap<>();
+    private final int retentionHours;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              @Value("${idempotency.cache.max-entries}") int maxEntries,
+                              @Value("${idempotency.cache.ttl-minutes}") long ttlMinutes,
+                              @Value("${idempotency.retention-hours}") int retentionHours) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.recent = new TtlCache<>(maxEntries, TimeUnit.MINUTES.toMillis(ttlMinutes));
+        this.retentionHours = retentionHours;
+    }
+
+    @Override
+    public StoredResponse find(Long userId, String key) {
+        return recent.get(scoped(userId, key), ignored -> idempotencyRecordRepository.findResponse(userId, key).orElse(null));
+    }
+
+    @Override
+    public IdempotencyClaim begin(Long userId, String key) {
+        StoredResponse stored = find(userId, key);
+        if (stored != null) {
+            return IdempotencyClaim.answered(stored);
+        }
+        String scoped = scoped(userId, key);
+        IdempotencyClaim[] claim = new IdempotencyClaim[1];
+        inFlight.compute(scoped, (ignored, running) -> {
+            if (running != null) {
+                claim[0] = IdempotencyClaim.IN_PROGRESS;
+                return running;
+            }
+            // the first request may have completed since find() looked
+            StoredResponse answered = recent.get(scoped);
+            claim[0] = answered == null ? IdempotencyClaim.CLAIMED : IdempotencyClaim.answered(answered);
+            return answered == null ? Boolean.TRUE : null;
+        });
+        return claim[0];
+    }
+
+    @Override
+    public void complete(Long userId, String key, StoredResponse response) {
+        String scoped = scoped(userId, key);
+        inFlight.compute(scoped, (ignored, running) -> {
+            recent.put(scoped, response);
+            return null;
+        });
+    }
+
+    @Override
+    public void persist(Long userId, String key, StoredResponse response) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setUserId(userId);
+        record.setIdempotencyKey(key);
+        record.setRequestHash(response.requestHash());
+        record.setStatusCode(response.statusCode());
+        record.setContentType(response.contentType());
+        record.setResponseBody(response.body());
+        record.setCreatedAt(LocalDateTime.now());
+        try {
+            idempotencyRecordRepository.save(record);
+        } catch (DataIntegrityViolationException e) {
+            // the same key finished first on another instance, its stored response wins
+            log.debug("idempotency key {} already stored for user {}", key, userId);
+        }
+    }
+
+    @Override
+    public void abandon(Long userId, String key) {
+        inFlight.remove(scoped(userId, key));
+    }
+
+    @Override
+    @Scheduled(cron = "${idempotency.purge-cron}")
+    public int purgeExpired() {
+        int purged = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (purged > 0) {
+            log.info("purged {} idempotency records older than {} hours", purged, retentionHours);
+        }
+        return purged;
+    }
+
+    private static String scoped(Long userId, String key) {
+        return userId + ":" + key;
+    }
+}
@@ -0,0 +1,161 @@
+package com.project.jsb.service.reminder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Hashed hierarchical timing wheel: LEVELS wheels of 64 slots, each slot one tick of the wheel below.
+// Timers sit in intrusive doubly linked buckets so schedule and cancel are O(1); a timer is moved down
+// a level at most LEVELS - 1 times before it fires. Not thread safe on its own, callers synchronize.
+public class HierarchicalTimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 5;
+    // furthest deadline a timer can be placed at directly, longer ones are re-placed on cascade
+    private static final long MAX_SPAN = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final Timer<T>[][] buckets;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long startTick) {
+        this.buckets = new Timer[LEVELS][SLOTS];
+        this.currentTick = startTick;
+    }
+
+    public Timer<T> schedule(long deadlineTick, T payload) {
+        Timer<T> timer = new Timer<>(Math.max(deadlineTick, currentTick + 1), payload);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    public boolean cancel(Timer<T> timer) {
+        if (timer.level < 0) {
+            return false;
+        }
+        unlink(timer);
+        size--;
+        return true;
+    }
+
+    // moves the wheel forward to the given tick and returns the payloads of every timer that came due
+    public List<T> advanceTo(long tick) {
+        List<T> expired = new ArrayList<>();
+        if (size == 0) {
+            currentTick = Math.max(currentTick, tick);
+            return expired;
+        }
+        while (currentTick < tick) {
+            currentTick++;
+            cascade(1);
+            Timer<T> timer = detach(0, (int) (currentTick & SLOT_MASK));
+            while (timer != null) {
+                Timer<T> next = timer.next;
+                timer.next = null;
+                expired.add(timer.payload);
+                size--;
+                timer = next;
+            }
+            if (size == 0) {
+                currentTick = tick;
+            }
+        }
+        return expired;
+    }
+
+    public long currentTick() {
+        return currentTick;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // when the wheel below wraps, empty this level's current slot into the lower levels
+    private void cascade(int level) {
+        long shift = (long) SLOT_BITS * level;
+        if (level >= LEVELS || (currentTick & ((1L << shift) - 1)) != 0) {
+            return;
+        }
+        int slot = (int) ((currentTick >>> shift) & SLOT_MASK);
+        if (slot == 0) {
+            cascade(level + 1);
+        }
+        Timer<T> timer = detach(level, slot);
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            timer.next = null;
+            place(timer);
+            timer = next;
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        long delta = Math.min(timer.deadlineTick - currentTick, MAX_SPAN);
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        long slotTick = currentTick + delta;
+        int slot = (int) ((slotTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        Timer<T> head = buckets[level][slot];
+        timer.level = (byte) level;
+        timer.slot = (byte) slot;
+        timer.prev = null;
+        timer.next = head;
+        if (head != null) {
+            head.prev = timer;
+        }
+        buckets[level][slot] = timer;
+    }
+
+    private void unlink(Timer<T> timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            buckets[timer.level][timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+        timer.level = -1;
+    }
+
+    // takes the whole bucket, the returned chain is only linked through next
+    private Timer<T> detach(int level, int slot) {
+        Timer<T> head = buckets[level][slot];
+        buckets[level][slot] = null;
+        for (Timer<T> timer = head; timer != null; timer = timer.next) {
+            timer.prev = null;
+            timer.level = -1;
+        }
+        return head;
+    }
+
+    public static final class Timer<T> {
+        private final long deadlineTick;
+        private final T payload;
+        private Timer<T> prev;
+        private Timer<T> next;
+        private byte level = -1;
+        private byte slot;
+
+        private Timer(long deadlineTick, T payload) {
+            this.deadlineTick = deadlineTick;
+            this.payload = payload;
+        }
+
+        public long deadlineTick() {
+            return deadlineTick;
+        }
+
+        public T payload() {
+            return payload;
+        }
+    }
+}
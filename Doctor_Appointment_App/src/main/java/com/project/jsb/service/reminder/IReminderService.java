@@ -0,0 +1,12 @@
+package com.project.jsb.service.reminder;
+
+import java.time.LocalDateTime;
+
+public interface IReminderService {
+
+    void schedule(Long appointmentId, LocalDateTime appointmentDate);
+
+    void cancel(Long appointmentId);
+
+    int pendingCount();
+}
@@ -0,0 +1,16 @@
+package com.project.jsb.service.reminder;
+
+import com.project.jsb.dto.AppointmentReminder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class LoggingReminderSink implements ReminderSink {
+
+    @Override
+    public void send(AppointmentReminder reminder) {
+        log.info("reminder: appointment {} for {} with Dr. {} {} at {}", reminder.appointmentId(),
+                reminder.patientEmail(), reminder.doctorFirstName(), reminder.doctorLastName(), reminder.appointmentDate());
+    }
+}
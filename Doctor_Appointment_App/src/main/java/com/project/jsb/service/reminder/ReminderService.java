@@ -0,0 +1,141 @@
+package com.project.jsb.service.reminder;
+
+import com.project.jsb.dto.AppointmentReminder;
+import com.project.jsb.dto.AppointmentSlot;
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.repository.AppointmentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+public class ReminderService implements IReminderService {
+
+    private static final List<AppointmentStatus> REMINDABLE = List.of(AppointmentStatus.BOOKED, AppointmentStatus.CONFIRMED);
+    private static final int DISPATCH_CHUNK = 500;
+
+    @Autowired
+    public final AppointmentRepository appointmentRepository;
+    @Autowired
+    public final ReminderSink reminderSink;
+
+    private final long leadMillis;
+    private final long tickMillis;
+
+    // the wheel only keeps appointment ids, details are read when the reminder fires
+    private final HierarchicalTimingWheel<Long> wheel;
+    private final Map<Long, HierarchicalTimingWheel.Timer<Long>> timers = new HashMap<>();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "appointment-reminders");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReminderService(AppointmentRepository appointmentRepository, ReminderSink reminderSink,
+                           @Value("${appointment.reminder.lead-minutes}") long leadMinutes,
+                           @Value("${appointment.reminder.tick-ms}") long tickMillis) {
+        this.appointmentRepository = appointmentRepository;
+        this.reminderSink = reminderSink;
+        this.leadMillis = TimeUnit.MINUTES.toMillis(leadMinutes);
+        this.tickMillis = tickMillis;
+        this.wheel = new HierarchicalTimingWheel<>(System.currentTimeMillis() / tickMillis);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long now = System.currentTimeMillis();
+        List<AppointmentSlot> slots = appointmentRepository.findUpcomingSlots(REMINDABLE, LocalDateTime.now());
+        synchronized (wheel) {
+            // reminders already due were sent before the restart
+            slots.stream()
+                    .filter(slot -> reminderAt(slot.appointmentDate()) > now)
+                    .forEach(slot -> add(slot.id(), slot.appointmentDate()));
+        }
+        ticker.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    @Override
+    public void schedule(Long appointmentId, LocalDateTime appointmentDate) {
+        if (!appointmentDate.isAfter(LocalDateTime.now())) {
+            return;
+        }
+        synchronized (wheel) {
+            add(appointmentId, appointmentDate);
+        }
+    }
+
+    @Override
+    public void cancel(Long appointmentId) {
+        synchronized (wheel) {
+            HierarchicalTimingWheel.Timer<Long> timer = timers.remove(appointmentId);
+            if (timer != null) {
+                wheel.cancel(timer);
+            }
+        }
+    }
+
+    @Override
+    public int pendingCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    void tick() {
+        List<Long> due;
+        synchronized (wheel) {
+            due = wheel.advanceTo(System.currentTimeMillis() / tickMillis);
+            due.forEach(timers::remove);
+        }
+        for (int from = 0; from < due.size(); from += DISPATCH_CHUNK) {
+            try {
+                // re-checking the status skips appointments cancelled by a path that did not unschedule them
+                List<AppointmentReminder> reminders = appointmentRepository.findReminders(
+                        due.subList(from, Math.min(from + DISPATCH_CHUNK, due.size())), REMINDABLE);
+                reminders.forEach(this::send);
+            } catch (RuntimeException e) {
+                log.error("could not load {} due reminders", due.size(), e);
+            }
+        }
+    }
+
+    private void send(AppointmentReminder reminder) {
+        try {
+            reminderSink.send(reminder);
+        } catch (RuntimeException e) {
+            log.error("reminder for appointment {} failed", reminder.appointmentId(), e);
+        }
+    }
+
+    private void add(Long appointmentId, LocalDateTime appointmentDate) {
+        HierarchicalTimingWheel.Timer<Long> previous = timers.remove(appointmentId);
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+        long deadlineTick = Math.ceilDiv(reminderAt(appointmentDate), tickMillis);
+        timers.put(appointmentId, wheel.schedule(deadlineTick, appointmentId));
+    }
+
+    private long reminderAt(LocalDateTime appointmentDate) {
+        return appointmentDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() - leadMillis;
+    }
+}
@@ -0,0 +1,9 @@
+package com.project.jsb.service.reminder;
+
+import com.project.jsb.dto.AppointmentReminder;
+
+// where due reminders go, replace the logging sink with a mail/sms bean to deliver them
+public interface ReminderSink {
+
+    void send(AppointmentReminder reminder);
+}
@@ -0,0 +1,50 @@
+package com.project.jsb.service.role;
+
+import com.project.jsb.model.Role;
+import com.project.jsb.repository.RoleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// role rows only change through DataInitializer or an admin, they are read once and handed out from an immutable map.
+// The detached roles are safe to put on new users, User.roles does not cascade.
+@Component
+public class RoleRegistry {
+
+    public static final String PATIENT = "PATIENT";
+    public static final String DOCTOR = "DOCTOR";
+    public static final String ADMIN = "ADMIN";
+
+    @Autowired
+    public final RoleRepository roleRepository;
+
+    private volatile Map<String, Role> roles;
+
+    public RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    public Role get(String name) {
+        Role role = roles().get(name);
+        if (role == null) {
+            throw new IllegalStateException("role " + name + " is not seeded");
+        }
+        return role;
+    }
+
+    // loaded on first use when nothing refreshed it yet
+    public Map<String, Role> roles() {
+        Map<String, Role> current = roles;
+        return current == null ? refresh() : current;
+    }
+
+    public synchronized Map<String, Role> refresh() {
+        Map<String, Role> loaded = roleRepository.findAll().stream()
+                .collect(Collectors.toUnmodifiableMap(Role::getName, Function.identity(), (first, duplicate) -> first));
+        roles = loaded;
+        return loaded;
+    }
+}
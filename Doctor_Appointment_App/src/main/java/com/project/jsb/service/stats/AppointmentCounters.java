@@ -0,0 +1,55 @@
+package com.project.jsb.service.stats;
+
+import com.project.jsb.enums.AppointmentStatus;
+
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// counters for one scope (the clinic or one doctor), LongAdder keeps concurrent transitions off a shared cache line
+class AppointmentCounters {
+
+    private final LongAdder[] byStatus = new LongAdder[AppointmentStatus.values().length];
+    // appointments that are not cancelled, per day
+    private final ConcurrentNavigableMap<LocalDate, LongAdder> byDay = new ConcurrentSkipListMap<>();
+    private final LongAdder revenueCents = new LongAdder();
+
+    AppointmentCounters() {
+        for (int i = 0; i < byStatus.length; i++) {
+            byStatus[i] = new LongAdder();
+        }
+    }
+
+    void add(AppointmentStatus status, long count) {
+        byStatus[status.ordinal()].add(count);
+    }
+
+    void addDay(LocalDate day, long count) {
+        byDay.computeIfAbsent(day, d -> new LongAdder()).add(count);
+    }
+
+    void addRevenueCents(long cents) {
+        revenueCents.add(cents);
+    }
+
+    long count(AppointmentStatus status) {
+        return byStatus[status.ordinal()].sum();
+    }
+
+    long countDay(LocalDate day) {
+        LongAdder adder = byDay.get(day);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    long revenueCents() {
+        return revenueCents.sum();
+    }
+
+    int dropDaysBefore(LocalDate day) {
+        ConcurrentNavigableMap<LocalDate, LongAdder> past = byDay.headMap(day);
+        int dropped = past.size();
+        past.clear();
+        return dropped;
+    }
+}
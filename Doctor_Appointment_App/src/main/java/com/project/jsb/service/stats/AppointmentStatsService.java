@@ -0,0 +1,193 @@
+package com.project.jsb.service.stats;
+
+import com.project.jsb.dto.AppointmentStatsDto;
+import com.project.jsb.dto.EarningsDto;
+import com.project.jsb.dto.StatsDrift;
+import com.project.jsb.dto.StatusCount;
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.repository.AppointmentRepository;
+import com.project.jsb.repository.ArchivedAppointmentRepository;
+import com.project.jsb.repository.DoctorEarningRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// dashboard figures kept in memory, seeded from GROUP BY queries at startup and moved by every transition after commit
+@Service
+public class AppointmentStatsService implements IAppointmentStatsService {
+
+    @Autowired
+    public final AppointmentRepository appointmentRepository;
+    @Autowired
+    public final ArchivedAppointmentRepository archivedAppointmentRepository;
+    @Autowired
+    public final DoctorEarningRepository doctorEarningRepository;
+
+    private volatile Snapshot counters = new Snapshot();
+
+    public AppointmentStatsService(AppointmentRepository appointmentRepository,
+                                   ArchivedAppointmentRepository archivedAppointmentRepository,
+                                   DoctorEarningRepository doctorEarningRepository) {
+        this.appointmentRepository = appointmentRepository;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
+        this.doctorEarningRepository = doctorEarningRepository;
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        counters = load();
+    }
+
+    @Override
+    public void booked(Long doctorId, LocalDateTime appointmentDate) {
+        Snapshot snapshot = counters;
+        for (AppointmentCounters scope : List.of(snapshot.clinic, snapshot.doctor(doctorId))) {
+            scope.add(AppointmentStatus.BOOKED, 1);
+            scope.addDay(appointmentDate.toLocalDate(), 1);
+        }
+    }
+
+    @Override
+    public void moved(Long doctorId, LocalDateTime appointmentDate, AppointmentStatus from, AppointmentStatus to) {
+        Snapshot snapshot = counters;
+        for (AppointmentCounters scope : List.of(snapshot.clinic, snapshot.doctor(doctorId))) {
+            scope.add(from, -1);
+            scope.add(to, 1);
+            if (to == AppointmentStatus.CANCELLED) {
+                scope.addDay(appointmentDate.toLocalDate(), -1);
+            }
+        }
+    }
+
+    @Override
+    public void earned(Long doctorId, BigDecimal amount) {
+        long cents = toCents(amount);
+        Snapshot snapshot = counters;
+        snapshot.clinic.addRevenueCents(cents);
+        snapshot.doctor(doctorId).addRevenueCents(cents);
+    }
+
+    @Override
+    public AppointmentStatsDto getStats() {
+        return toDto(null, counters.clinic);
+    }
+
+    @Override
+    public AppointmentStatsDto getDoctorStats(Long doctorId) {
+        AppointmentCounters scope = counters.doctors.get(doctorId);
+        return toDto(doctorId, scope == null ? new AppointmentCounters() : scope);
+    }
+
+    // transitions committing while the check reads the database can show up as drift, re-check before repairing
+    @Override
+    public List<StatsDrift> check(boolean repair) {
+        Snapshot database = load();
+        Snapshot live = counters;
+        LocalDate today = LocalDate.now();
+        List<StatsDrift> drift = new ArrayList<>();
+        compare(null, database.clinic, live.clinic, today, drift);
+        Set<Long> doctorIds = new HashSet<>(database.doctors.keySet());
+        doctorIds.addAll(live.doctors.keySet());
+        for (Long doctorId : doctorIds) {
+            compare(doctorId, database.doctors.getOrDefault(doctorId, new AppointmentCounters()),
+                    live.doctors.getOrDefault(doctorId, new AppointmentCounters()), today, drift);
+        }
+        if (repair && !drift.isEmpty()) {
+            counters = database;
+        }
+        return drift;
+    }
+
+    // reads only look at today, the days that went by are dropped once a night
+    @Override
+    @Scheduled(cron = "${appointment.stats.rollover-cron}")
+    public int dropPastDays() {
+        return dropDaysBefore(LocalDate.now());
+    }
+
+    int dropDaysBefore(LocalDate day) {
+        Snapshot snapshot = counters;
+        int dropped = snapshot.clinic.dropDaysBefore(day);
+        for (AppointmentCounters scope : snapshot.doctors.values()) {
+            dropped += scope.dropDaysBefore(day);
+        }
+        return dropped;
+    }
+
+    private Snapshot load() {
+        Snapshot snapshot = new Snapshot();
+        Stream.concat(appointmentRepository.countByDoctorAndStatus().stream(),
+                archivedAppointmentRepository.countByDoctorAndStatus().stream()).forEach((StatusCount count) -> {
+            snapshot.clinic.add(count.status(), count.count());
+            snapshot.doctor(count.doctorId()).add(count.status(), count.count());
+        });
+        // archived appointments are months old, only the hot table has days from today on
+        appointmentRepository.countByDoctorAndDayFrom(LocalDate.now().atStartOfDay()).forEach(count -> {
+            snapshot.clinic.addDay(count.day(), count.count());
+            snapshot.doctor(count.doctorId()).addDay(count.day(), count.count());
+        });
+        for (EarningsDto earnings : doctorEarningRepository.findAllEarnings()) {
+            long cents = toCents(earnings.getTotalEarnings());
+            snapshot.clinic.addRevenueCents(cents);
+            snapshot.doctor(earnings.getDoctorId()).addRevenueCents(cents);
+        }
+        return snapshot;
+    }
+
+    private void compare(Long doctorId, AppointmentCounters database, AppointmentCounters live, LocalDate today,
+                         List<StatsDrift> drift) {
+        for (AppointmentStatus status : AppointmentStatus.values()) {
+            if (database.count(status) != live.count(status)) {
+                drift.add(new StatsDrift(status.name(), doctorId, database.count(status), live.count(status)));
+            }
+        }
+        if (database.countDay(today) != live.countDay(today)) {
+            drift.add(new StatsDrift("TODAY", doctorId, database.countDay(today), live.countDay(today)));
+        }
+        if (database.revenueCents() != live.revenueCents()) {
+            drift.add(new StatsDrift("REVENUE_CENTS", doctorId, database.revenueCents(), live.revenueCents()));
+        }
+    }
+
+    private AppointmentStatsDto toDto(Long doctorId, AppointmentCounters scope) {
+        LocalDate today = LocalDate.now();
+        Map<AppointmentStatus, Long> byStatus = new EnumMap<>(AppointmentStatus.class);
+        long total = 0;
+        for (AppointmentStatus status : AppointmentStatus.values()) {
+            long count = scope.count(status);
+            byStatus.put(status, count);
+            total += count;
+        }
+        return new AppointmentStatsDto(doctorId, byStatus, total, scope.countDay(today),
+                BigDecimal.valueOf(scope.revenueCents(), 2));
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static final class Snapshot {
+        private final AppointmentCounters clinic = new AppointmentCounters();
+        private final Map<Long, AppointmentCounters> doctors = new ConcurrentHashMap<>();
+
+        private AppointmentCounters doctor(Long doctorId) {
+            return doctors.computeIfAbsent(doctorId, id -> new AppointmentCounters());
+        }
+    }
+}
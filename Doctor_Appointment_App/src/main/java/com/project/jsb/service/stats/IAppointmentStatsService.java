@@ -0,0 +1,28 @@
+package com.project.jsb.service.stats;
+
+import com.project.jsb.dto.AppointmentStatsDto;
+import com.project.jsb.dto.StatsDrift;
+import com.project.jsb.enums.AppointmentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface IAppointmentStatsService {
+
+    void booked(Long doctorId, LocalDateTime appointmentDate);
+
+    void moved(Long doctorId, LocalDateTime appointmentDate, AppointmentStatus from, AppointmentStatus to);
+
+    void earned(Long doctorId, BigDecimal amount);
+
+    AppointmentStatsDto getStats();
+
+    AppointmentStatsDto getDoctorStats(Long doctorId);
+
+    List<StatsDrift> check(boolean repair);
+
+    int dropPastDays();
+
+    void rebuild();
+}
@@ -0,0 +1,212 @@
+package com.project.jsb.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.jsb.dto.IdempotencyClaim;
+import com.project.jsb.dto.StoredResponse;
+import com.project.jsb.response.ApiResponse;
+import com.project.jsb.security.user.CustomUserDetails;
+import com.project.jsb.service.idempotency.IIdempotencyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.TreeMap;
+
+// retried POST/PUT calls carrying the same Idempotency-Key get the first response back instead of running again
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 100;
+
+    @Autowired
+    public final IIdempotencyService idempotencyService;
+    @Autowired
+    public final ObjectMapper objectMapper;
+
+    private final String appointmentsPath;
+
+    public IdempotencyFilter(IIdempotencyService idempotencyService, ObjectMapper objectMapper,
+                             @Value("${api.prefix}") String apiPrefix) {
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+        this.appointmentsPath = apiPrefix + "/appointments/";
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return request.getHeader(HEADER) == null
+                || !("POST".equals(method) || "PUT".equals(method) || "DELETE".equals(method))
+                || !request.getRequestURI().startsWith(appointmentsPath);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof CustomUserDetails user)) {
+            // keys are scoped per user, anonymous calls are rejected further down anyway
+            chain.doFilter(request, response);
+            return;
+        }
+        String key = request.getHeader(HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpServletResponse.SC_BAD_REQUEST, HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        // parameters first, for form posts the container reads them out of the body
+        String target = request.getMethod() + " " + request.getRequestURI() + " " + parameters(request);
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String requestHash = hash(target, cachedRequest.body);
+        IdempotencyClaim claim = idempotencyService.begin(user.getId(), key);
+        if (claim.stored() != null) {
+            replay(claim.stored(), requestHash, response);
+            return;
+        }
+        if (!claim.claimed()) {
+            reject(response, HttpServletResponse.SC_CONFLICT, "a request with this " + HEADER + " is still in progress");
+            return;
+        }
+
+        ContentCachingResponseWrapper cachedResponse = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            chain.doFilter(cachedRequest, cachedResponse);
+            // server errors are not remembered, the client may retry them
+            if (cachedResponse.getStatus() < 500) {
+                StoredResponse first = new StoredResponse(requestHash, cachedResponse.getStatus(), cachedResponse.getContentType(),
+                        new String(cachedResponse.getContentAsByteArray(), StandardCharsets.UTF_8));
+                idempotencyService.complete(user.getId(), key, first);
+                completed = true;
+                cachedResponse.copyBodyToResponse();
+                // the client has its answer before the key is written to the table
+                response.flushBuffer();
+                idempotencyService.persist(user.getId(), key, first);
+            }
+        } finally {
+            if (!completed) {
+                idempotencyService.abandon(user.getId(), key);
+                cachedResponse.copyBodyToResponse();
+            }
+        }
+    }
+
+    private void replay(StoredResponse stored, String requestHash, HttpServletResponse response) throws IOException {
+        if (!stored.requestHash().equals(requestHash)) {
+            reject(response, 422, HEADER + " was already used for a different request");
+            return;
+        }
+        response.setStatus(stored.statusCode());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.body() != null) {
+            response.getOutputStream().write(stored.body().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void reject(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ApiResponse(message, null));
+    }
+
+    private static String parameters(HttpServletRequest request) {
+        StringBuilder parameters = new StringBuilder();
+        new TreeMap<>(request.getParameterMap()).forEach((name, values) ->
+                parameters.append(name).append('=').append(String.join(",", values)).append('&'));
+        return parameters.toString();
+    }
+
+    private static String hash(String target, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((target + "\n").getBytes(StandardCharsets.UTF_8));
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // the body is read once for the fingerprint and handed to the controller again
+    static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // the body is already buffered, a non-blocking reader is told right away that all of it is there
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
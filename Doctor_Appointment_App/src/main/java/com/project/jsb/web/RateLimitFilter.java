@@ -0,0 +1,97 @@
+package com.project.jsb.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.jsb.response.ApiResponse;
+import com.project.jsb.security.user.CustomUserDetails;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// sheds bursts from one client on the expensive endpoints before they reach BCrypt or the connection pool.
+// Runs after the security chain so signed in callers are counted per user, anonymous ones per IP.
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    public final ObjectMapper objectMapper;
+
+    // path -> method -> limiter, looked up without building a key per request
+    private final Map<String, Map<String, TokenBucketLimiter>> limiters = new HashMap<>();
+    private final long idleNanos;
+
+    public RateLimitFilter(ObjectMapper objectMapper, RateLimitProperties properties,
+                           @Value("${api.prefix}") String apiPrefix) {
+        this.objectMapper = objectMapper;
+        for (RateLimitProperties.Rule rule : properties.rules()) {
+            limiters.computeIfAbsent(apiPrefix + rule.path(), path -> new HashMap<>())
+                    .put(rule.method().toUpperCase(), new TokenBucketLimiter(rule.capacity(), rule.refillPerMinute()));
+        }
+        this.idleNanos = TimeUnit.MINUTES.toNanos(properties.idleMinutes());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return limiter(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long waitNanos = limiter(request).tryAcquire(clientKey(request));
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new ApiResponse("too many requests, retry in " + retryAfter + " seconds", null));
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.evict-interval-ms:60000}")
+    public void evictIdle() {
+        int evicted = limiters.values().stream().flatMap(byMethod -> byMethod.values().stream())
+                .mapToInt(limiter -> limiter.evictIdle(idleNanos)).sum();
+        if (evicted > 0) {
+            log.debug("evicted {} idle rate limit buckets", evicted);
+        }
+    }
+
+    private TokenBucketLimiter limiter(HttpServletRequest request) {
+        Map<String, TokenBucketLimiter> byMethod = limiters.get(request.getRequestURI());
+        return byMethod == null ? null : byMethod.get(request.getMethod());
+    }
+
+    // user ids are Longs and addresses Strings, so the two never share a bucket
+    private static Object clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails user) {
+            return user.getId();
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,14 @@
+package com.project.jsb.web;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+// rate-limit.rules[n].method/path/capacity/refill-per-minute, paths are relative to api.prefix
+@ConfigurationProperties(prefix = "rate-limit")
+public record RateLimitProperties(@DefaultValue("10") long idleMinutes, @DefaultValue List<Rule> rules) {
+
+    public record Rule(String method, String path, int capacity, int refillPerMinute) {
+    }
+}
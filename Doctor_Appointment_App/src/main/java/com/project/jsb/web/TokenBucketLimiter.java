@@ -0,0 +1,67 @@
+package com.project.jsb.web;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// one token bucket per key, kept as a single long: the time at which the bucket would be full again
+// (GCRA). A request takes a token when that time stays within capacity refill intervals of now.
+public class TokenBucketLimiter {
+
+    private final long refillNanos;
+    private final long burstNanos;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<Object, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public TokenBucketLimiter(int capacity, int refillPerMinute) {
+        this(capacity, refillPerMinute, System::nanoTime);
+    }
+
+    public TokenBucketLimiter(int capacity, int refillPerMinute, LongSupplier clock) {
+        if (capacity < 1 || refillPerMinute < 1) {
+            throw new IllegalArgumentException("capacity and refillPerMinute must be positive");
+        }
+        this.refillNanos = 60_000_000_000L / refillPerMinute;
+        this.burstNanos = refillNanos * capacity;
+        this.clock = clock;
+    }
+
+    // 0 when a token was taken, otherwise the nanos until the next one is available
+    public long tryAcquire(Object key) {
+        long now = clock.getAsLong();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + refillNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // a bucket that has been full for a while is the same as a missing one, dropping it loses nothing.
+    // A caller racing the removal spends its token on the dropped bucket, at worst one extra request gets in.
+    public int evictIdle(long idleNanos) {
+        long now = clock.getAsLong();
+        int evicted = 0;
+        for (Iterator<AtomicLong> it = buckets.values().iterator(); it.hasNext(); ) {
+            if (now - it.next().get() > idleNanos) {
+                it.remove();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,162 @@
+package com.project.jsb.benchmark;
+
+import com.project.jsb.dto.AppointmentEvent;
+import com.project.jsb.enums.AppointmentEventType;
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.enums.PaymentStatus;
+import com.project.jsb.security.jwt.JwtUtils;
+import com.project.jsb.security.user.CustomUserDetails;
+import com.project.jsb.service.event.IAppointmentEventService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// mvn test -Dtest=AppointmentEventLoadBenchmark -Dbenchmark.subscribers=10000
+// client and server share the JVM: add -DargLine=-Xmx3g and raise ulimit -n for large runs
+// the whole burst is published at once, the queue has to hold all of it
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "appointment.events.queue-capacity=" + AppointmentEventLoadBenchmark.EVENTS)
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark.subscribers", matches = "\\d+")
+class AppointmentEventLoadBenchmark {
+
+	static final int EVENTS = 20_000;
+
+	@LocalServerPort
+	private int port;
+	@Value("${api.prefix}")
+	private String apiPrefix;
+	@Value("${server.tomcat.threads.max:200}")
+	private int maxWorkerThreads;
+	@Autowired
+	private IAppointmentEventService appointmentEventService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private JwtUtils jwtUtils;
+
+	private final LongAdder delivered = new LongAdder();
+
+	@Test
+	void idleSubscribersCostNoThreads() throws InterruptedException {
+		int subscribers = Integer.getInteger("benchmark.subscribers");
+		List<Long> userIds = seedUsers(subscribers);
+		int serverThreadsBefore = serverThreads();
+		long heapBefore = usedHeap();
+
+		HttpClient client = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(4)).build();
+		List<CompletableFuture<?>> streams = new ArrayList<>(subscribers);
+		long connectStart = System.nanoTime();
+		for (int i = 0; i < subscribers; i++) {
+			streams.add(client.sendAsync(request(userIds.get(i), i), HttpResponse.BodyHandlers.fromLineSubscriber(new EventCounter())));
+		}
+		await(() -> appointmentEventService.subscriberCount() >= subscribers, 120_000);
+		double connectMillis = (System.nanoTime() - connectStart) / 1_000_000.0;
+		int serverThreadsConnected = serverThreads();
+		long heapConnected = usedHeap();
+
+		// every event goes to a doctor and a patient, so each one fans out to two connections
+		long publishStart = System.nanoTime();
+		for (int i = 0; i < EVENTS; i++) {
+			Long doctorId = userIds.get(i % subscribers);
+			Long patientId = userIds.get((i + 1) % subscribers);
+			appointmentEventService.publish(new AppointmentEvent(AppointmentEventType.CONFIRMED, (long) i, doctorId, patientId,
+					LocalDateTime.now(), AppointmentStatus.CONFIRMED, PaymentStatus.CASH));
+		}
+		await(() -> delivered.sum() >= 2L * EVENTS, 120_000);
+		double deliverMillis = (System.nanoTime() - publishStart) / 1_000_000.0;
+
+		System.out.printf("%n%,d subscribers connected in %.0f ms%n", subscribers, connectMillis);
+		System.out.printf("server threads: %d idle, %d with every subscriber connected (worker pool capped at %d)%n",
+				serverThreadsBefore, serverThreadsConnected, maxWorkerThreads);
+		System.out.printf("heap: %.1f KB per subscriber (rough, includes client side)%n",
+				(heapConnected - heapBefore) / 1024.0 / subscribers);
+		System.out.printf("%,d events / %,d deliveries in %.0f ms, %,.0f deliveries/s%n",
+				EVENTS, 2 * EVENTS, deliverMillis, 2 * EVENTS / (deliverMillis / 1000));
+		// the connect burst can grow the worker pool to its cap, parked streams never hold a worker
+		assertTrue(serverThreadsConnected - serverThreadsBefore <= maxWorkerThreads, "server threads grew with subscribers");
+
+		streams.forEach(stream -> stream.cancel(true));
+	}
+
+	private HttpRequest request(Long userId, int i) {
+		String token = jwtUtils.generateTokenForUser(new UsernamePasswordAuthenticationToken(
+				new CustomUserDetails(userId, "load" + i + "@load.test", "secret", List.of()), null));
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + port + apiPrefix +
+				"/appointments/appointment/events?token=" + token)).build();
+	}
+
+	private List<Long> seedUsers(int count) {
+		List<Object[]> users = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			users.add(new Object[]{"load" + i, "user", "load" + i + "@load.test", "secret", "1234567890", "OTHER"});
+		}
+		jdbcTemplate.batchUpdate("insert into user (first_name, last_name, email, password, phone_number, gender) " +
+				"values (?, ?, ?, ?, ?, ?)", users);
+		return jdbcTemplate.queryForList("select id from user where email like 'load%@load.test' order by id", Long.class);
+	}
+
+	private static int serverThreads() {
+		return (int) Thread.getAllStackTraces().keySet().stream()
+				.filter(thread -> thread.getName().startsWith("http-nio") || thread.getName().startsWith("appointment-events"))
+				.count();
+	}
+
+	private static long usedHeap() {
+		System.gc();
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static void await(BooleanSupplier condition, long timeoutMillis) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < deadline, "timed out");
+			Thread.sleep(10);
+		}
+	}
+
+	private class EventCounter implements Flow.Subscriber<String> {
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			subscription.request(Long.MAX_VALUE);
+		}
+
+		@Override
+		public void onNext(String line) {
+			if (line.startsWith("event:")) {
+				delivered.increment();
+			}
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+		}
+
+		@Override
+		public void onComplete() {
+		}
+	}
+}
@@ -0,0 +1,165 @@
+package com.project.jsb.benchmark;
+
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.request.AppointmentSearchRequest;
+import com.project.jsb.service.appointment.IAppointmentService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// mvn test -Dtest=AppointmentIndexBenchmark -Dbenchmark.rows=2000000
+// runs on the H2 test database, pass -Dspring.datasource.url=... (and dialect) to measure against a scratch MySQL schema
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark.rows", matches = "\\d+")
+class AppointmentIndexBenchmark {
+
+	private static final int DOCTORS = 500;
+	private static final int PATIENTS = 20_000;
+	private static final int BATCH = 10_000;
+	private static final int WARMUP = 5;
+	private static final int RUNS = 15;
+	private static final LocalDateTime BASE = LocalDateTime.of(2020, 1, 1, 10, 0);
+	private static final Map<String, String> INDEXES = Map.of(
+			"idx_appointment_doctor_date", "doctor_id, appointment_date, id",
+			"idx_appointment_patient_date", "patient_id, appointment_date, id",
+			"idx_appointment_status_date", "appointment_status, appointment_date, id");
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private IAppointmentService appointmentService;
+
+	@Test
+	void searchUsesCompositeIndexes() {
+		int rows = Integer.getInteger("benchmark.rows");
+		long firstUser = seedUsers();
+		seedAppointments(rows, firstUser);
+
+		long doctorId = firstUser + 7;
+		LocalDateTime midway = BASE.plusMinutes(30L * (rows / DOCTORS / 2));
+
+		// parameters move on every run, H2 hands back the previous result for a repeated identical query
+		Map<String, IntFunction<Object[]>> queries = new TreeMap<>(Map.of(
+				"doctor + date", run -> new Object[]{"select id from appointment where doctor_id = ? and appointment_date >= ? " +
+						"order by appointment_date, id limit 21", firstUser + run % DOCTORS, from(midway, run)},
+				"patient + date", run -> new Object[]{"select id from appointment where patient_id = ? and appointment_date >= ? " +
+						"order by appointment_date, id limit 21", firstUser + DOCTORS + run % PATIENTS, from(midway, run)},
+				"status + date", run -> new Object[]{"select id from appointment where appointment_status = ? and appointment_date >= ? " +
+						"order by appointment_date, id limit 21", AppointmentStatus.BOOKED.name(), from(midway, run)}));
+		assertPlanUses("idx_appointment_doctor_date", queries.get("doctor + date").apply(0));
+		assertPlanUses("idx_appointment_patient_date", queries.get("patient + date").apply(0));
+		assertPlanUses("idx_appointment_status_date", queries.get("status + date").apply(0));
+
+		// the search endpoint itself, specialization goes through the doctor_id in (...) subquery
+		assertTrue(search(criteria -> criteria.setSpecialization("Cardiology")) > 0);
+		assertTrue(search(criteria -> {
+			criteria.setDoctorId(doctorId);
+			criteria.setStatus(AppointmentStatus.BOOKED);
+			criteria.setFrom(midway.toLocalDate());
+		}) > 0);
+
+		Map<String, Double> indexed = new TreeMap<>();
+		queries.forEach((name, query) -> indexed.put(name, medianMillis(query)));
+		INDEXES.keySet().forEach(index -> jdbcTemplate.execute("alter table appointment drop index " + index));
+		Map<String, Double> unindexed = new TreeMap<>();
+		queries.forEach((name, query) -> unindexed.put(name, medianMillis(query)));
+		INDEXES.forEach((index, columns) -> jdbcTemplate.execute("create index " + index + " on appointment (" + columns + ")"));
+
+		System.out.printf("%n%,d appointments, median of %d queries (ms)%n", rows, RUNS);
+		System.out.printf("%-24s %12s %12s%n", "filter", "composite", "fk only");
+		indexed.forEach((name, millis) -> System.out.printf("%-24s %12.3f %12.3f%n", name, millis, unindexed.get(name)));
+	}
+
+	private int search(Consumer<AppointmentSearchRequest> filters) {
+		AppointmentSearchRequest criteria = new AppointmentSearchRequest();
+		criteria.setSize(20);
+		filters.accept(criteria);
+		return appointmentService.searchAppointments(criteria).getAppointments().size();
+	}
+
+	private double medianMillis(IntFunction<Object[]> query) {
+		for (int i = 0; i < WARMUP; i++) {
+			run(query.apply(RUNS + i));
+		}
+		double[] millis = new double[RUNS];
+		for (int i = 0; i < RUNS; i++) {
+			Object[] next = query.apply(i);
+			long start = System.nanoTime();
+			assertTrue(run(next) > 0);
+			millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+		}
+		Arrays.sort(millis);
+		return millis[RUNS / 2];
+	}
+
+	private static Timestamp from(LocalDateTime midway, int run) {
+		return Timestamp.valueOf(midway.plusMinutes(30L * run));
+	}
+
+	private int run(Object[] query) {
+		return jdbcTemplate.queryForList((String) query[0], Long.class, Arrays.copyOfRange(query, 1, query.length)).size();
+	}
+
+	private void assertPlanUses(String index, Object[] query) {
+		String plan = jdbcTemplate.queryForList("explain " + query[0], Arrays.copyOfRange(query, 1, query.length)).toString();
+		assertTrue(plan.toLowerCase().contains(index), () -> index + " not used:\n" + plan);
+	}
+
+	private long seedUsers() {
+		List<Object[]> users = new ArrayList<>();
+		for (int i = 0; i < DOCTORS + PATIENTS; i++) {
+			users.add(new Object[]{"bench" + i, "user", "bench" + i + "@bench.test", "secret", "1234567890", "OTHER"});
+		}
+		jdbcTemplate.batchUpdate("insert into user (first_name, last_name, email, password, phone_number, gender) " +
+				"values (?, ?, ?, ?, ?, ?)", users);
+		long firstUser = jdbcTemplate.queryForObject("select min(id) from user where email like 'bench%'", Long.class);
+
+		String[] specializations = {"Cardiology", "Dermatology", "Neurology", "Pediatrics", "Orthopedics"};
+		List<Object[]> doctors = new ArrayList<>();
+		for (int i = 0; i < DOCTORS; i++) {
+			doctors.add(new Object[]{firstUser + i, specializations[i % specializations.length], 5, 150});
+		}
+		jdbcTemplate.batchUpdate("insert into doctor (user_id, specialization, experience, doctor_fees, total_points) " +
+				"values (?, ?, ?, ?, 0)", doctors);
+		return firstUser;
+	}
+
+	// doctor i % DOCTORS gets consecutive half-hour slots, so (doctor_id, active_slot) stays unique
+	private void seedAppointments(int rows, long firstUser) {
+		AppointmentStatus[] statuses = AppointmentStatus.values();
+		List<Object[]> batch = new ArrayList<>(BATCH);
+		for (int i = 0; i < rows; i++) {
+			Timestamp date = Timestamp.valueOf(BASE.plusMinutes(30L * (i / DOCTORS)));
+			AppointmentStatus status = statuses[(i / 7) % statuses.length];
+			batch.add(new Object[]{firstUser + DOCTORS + (i % PATIENTS), firstUser + (i % DOCTORS), date,
+					status.name(), i % 3 == 0 ? "ONLINE" : "CASH", status == AppointmentStatus.CANCELLED ? null : date});
+			if (batch.size() == BATCH) {
+				insertAppointments(batch);
+			}
+		}
+		insertAppointments(batch);
+		jdbcTemplate.execute("analyze");
+	}
+
+	private void insertAppointments(List<Object[]> batch) {
+		jdbcTemplate.batchUpdate("insert into appointment (patient_id, doctor_id, appointment_date, appointment_status, " +
+				"payment_status, active_slot, version) values (?, ?, ?, ?, ?, ?, 0)", batch);
+		batch.clear();
+	}
+}
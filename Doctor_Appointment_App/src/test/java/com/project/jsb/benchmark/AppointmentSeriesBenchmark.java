@@ -0,0 +1,86 @@
+package com.project.jsb.benchmark;
+
+import com.project.jsb.enums.RecurrenceFrequency;
+import com.project.jsb.model.User;
+import com.project.jsb.request.BookSeriesRequest;
+import com.project.jsb.service.appointment.IAppointmentSeriesService;
+import com.project.jsb.service.appointment.IAppointmentService;
+import com.project.jsb.support.TestUsers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// mvn test -Dtest=AppointmentSeriesBenchmark -Dbenchmark.series=200
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark.series", matches = "\\d+")
+class AppointmentSeriesBenchmark {
+
+	private static final int OCCURRENCES = 26;
+
+	@Autowired
+	private TestUsers testUsers;
+	@Autowired
+	private IAppointmentService appointmentService;
+	@Autowired
+	private IAppointmentSeriesService appointmentSeriesService;
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void seriesAgainstPerOccurrenceBooking() {
+		int series = Integer.getInteger("benchmark.series");
+		LocalDateTime first = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+		User patient = testUsers.save("bench-patient");
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(patient.getEmail(), null, List.of()));
+
+		// warm both paths up on their own doctors
+		perOccurrence(testUsers.save("warm-doctor").getId(), first);
+		seriesBooking(testUsers.save("warm-doctor").getId(), first);
+
+		List<Long> perOccurrenceDoctors = doctors(series);
+		List<Long> seriesDoctors = doctors(series);
+		long start = System.nanoTime();
+		perOccurrenceDoctors.forEach(doctorId -> perOccurrence(doctorId, first));
+		double perOccurrenceMillis = (System.nanoTime() - start) / 1_000_000.0;
+		start = System.nanoTime();
+		seriesDoctors.forEach(doctorId -> seriesBooking(doctorId, first));
+		double seriesMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+		System.out.printf("%n%d series of %d weekly appointments%n", series, OCCURRENCES);
+		System.out.printf("%-16s %10.1f ms %8.2f ms/series%n", "per occurrence", perOccurrenceMillis, perOccurrenceMillis / series);
+		System.out.printf("%-16s %10.1f ms %8.2f ms/series%n", "series batch", seriesMillis, seriesMillis / series);
+	}
+
+	private void perOccurrence(Long doctorId, LocalDateTime first) {
+		for (int week = 0; week < OCCURRENCES; week++) {
+			appointmentService.bookAppointment(doctorId, first.plusWeeks(week));
+		}
+	}
+
+	private void seriesBooking(Long doctorId, LocalDateTime first) {
+		BookSeriesRequest request = new BookSeriesRequest();
+		request.setDoctorId(doctorId);
+		request.setFirstAppointment(first);
+		request.setFrequency(RecurrenceFrequency.WEEKLY);
+		request.setCount(OCCURRENCES);
+		appointmentSeriesService.bookSeries(request);
+	}
+
+	private List<Long> doctors(int count) {
+		return IntStream.range(0, count).mapToObj(i -> testUsers.save("bench-doctor").getId()).toList();
+	}
+}
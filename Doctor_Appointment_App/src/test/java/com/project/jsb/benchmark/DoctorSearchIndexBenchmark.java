@@ -0,0 +1,127 @@
+package com.project.jsb.benchmark;
+
+import com.project.jsb.dto.DoctorDto;
+import com.project.jsb.service.doctor.DoctorSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// mvn test -Dtest=DoctorSearchIndexBenchmark -Dbenchmark.doctors=100000
+// build time, heap held by the index and autocomplete latency over generated names
+@EnabledIfSystemProperty(named = "benchmark.doctors", matches = "\\d+")
+class DoctorSearchIndexBenchmark {
+
+	private static final String[] SYLLABLES = {"an", "ja", "mi", "ko", "lu", "re", "sa", "to", "vi", "el", "da", "ri",
+			"no", "be", "ka", "li", "mar", "son", "ter", "han", "ber", "ston", "ley", "vic"};
+	private static final String[] SPECIALIZATIONS = {"General Physician", "Gynecologist", "Dermatologist",
+			"Pediatricians", "Neurologist", "Gastroenterologist", "Cardiologist", "Orthopedist", "Psychiatrist"};
+	private static final int BUILDS = 5;
+	private static final int QUERIES = 20_000;
+	private static final String[] SHAPES = {"first name prefix", "name and surname start", "surname typo",
+			"specialization prefix"};
+
+	@Test
+	void buildMemoryAndQueryLatency() {
+		int count = Integer.getInteger("benchmark.doctors");
+		Random random = new Random(42);
+		List<DoctorDto> doctors = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			doctors.add(new DoctorDto((long) i, name(random), name(random), null, null, null, null,
+					SPECIALIZATIONS[random.nextInt(SPECIALIZATIONS.length)], random.nextInt(40),
+					BigDecimal.valueOf(100 + random.nextInt(400)), BigDecimal.ZERO));
+		}
+
+		double[] builds = new double[BUILDS];
+		DoctorSearchIndex index = null;
+		for (int i = 0; i < BUILDS; i++) {
+			index = null;
+			long before = usedHeap();
+			long start = System.nanoTime();
+			index = new DoctorSearchIndex(null);
+			index.load(doctors);
+			builds[i] = (System.nanoTime() - start) / 1_000_000.0;
+			if (i == BUILDS - 1) {
+				System.out.printf("%n%,d doctors%nindex heap     %,12d KB%n", count, (usedHeap() - before) / 1024);
+			}
+		}
+		Arrays.sort(builds);
+		System.out.printf("build          %12.1f ms (median of %d)%n", builds[BUILDS / 2], BUILDS);
+
+		String[] queries = new String[QUERIES];
+		for (int i = 0; i < QUERIES; i++) {
+			DoctorDto doctor = doctors.get(random.nextInt(count));
+			String typed = switch (i % SHAPES.length) {
+				case 0 -> doctor.getFirstName().substring(0, Math.min(3, doctor.getFirstName().length()));
+				case 1 -> doctor.getFirstName() + " " + doctor.getLastName().substring(0, 2);
+				case 2 -> typo(doctor.getLastName(), random);
+				default -> doctor.getSpecialization().substring(0, 6);
+			};
+			queries[i] = typed;
+		}
+		for (int i = 0; i < QUERIES; i++) {
+			index.search(queries[i], 10);
+		}
+		long[] nanos = new long[QUERIES];
+		int empty = 0;
+		for (int i = 0; i < QUERIES; i++) {
+			long start = System.nanoTime();
+			empty += index.search(queries[i], 10).isEmpty() ? 1 : 0;
+			nanos[i] = System.nanoTime() - start;
+		}
+		for (int shape = 0; shape < SHAPES.length; shape++) {
+			long[] ofShape = new long[QUERIES / SHAPES.length];
+			for (int i = 0; i < ofShape.length; i++) {
+				ofShape[i] = nanos[i * SHAPES.length + shape];
+			}
+			Arrays.sort(ofShape);
+			System.out.printf("  %-24s p50 %8.3f ms  p99 %8.3f ms%n", SHAPES[shape], ofShape[ofShape.length / 2] / 1e6,
+					ofShape[ofShape.length * 99 / 100] / 1e6);
+		}
+		Arrays.sort(nanos);
+		System.out.printf("query p50      %12.3f ms%nquery p99      %12.3f ms%nquery max      %12.3f ms%n",
+				nanos[QUERIES / 2] / 1e6, nanos[QUERIES * 99 / 100] / 1e6, nanos[QUERIES - 1] / 1e6);
+		System.out.printf("no suggestion  %12d of %d%n", empty, QUERIES);
+
+		assertFalse(index.search(doctors.get(0).getLastName(), 10).isEmpty());
+		assertTrue(nanos[QUERIES * 99 / 100] < 1_000_000, "p99 autocomplete over a millisecond");
+	}
+
+	private static String name(Random random) {
+		StringBuilder name = new StringBuilder();
+		int syllables = 2 + random.nextInt(2);
+		for (int i = 0; i < syllables; i++) {
+			name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+		}
+		name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+		return name.toString();
+	}
+
+	// swaps two neighbouring letters past the first two
+	private static String typo(String word, Random random) {
+		if (word.length() < 4) {
+			return word;
+		}
+		char[] letters = word.toCharArray();
+		int at = 2 + random.nextInt(letters.length - 3);
+		char swapped = letters[at];
+		letters[at] = letters[at + 1];
+		letters[at + 1] = swapped;
+		return new String(letters);
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
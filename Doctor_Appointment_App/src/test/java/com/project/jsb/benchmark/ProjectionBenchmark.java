@@ -0,0 +1,125 @@
+package com.project.jsb.benchmark;
+
+import com.project.jsb.dto.AppointmentDto;
+import com.project.jsb.dto.UserDto;
+import com.project.jsb.model.Appointment;
+import com.project.jsb.model.User;
+import com.project.jsb.repository.AppointmentRepository;
+import com.project.jsb.repository.UserRepository;
+import com.project.jsb.service.User.IUserService;
+import com.project.jsb.service.appointment.IAppointmentService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// mvn test -Dtest=ProjectionBenchmark -Dbenchmark.appointments=20000
+// the list endpoints before and after the constructor projections: entities hydrated and mapped inside a read-only
+// transaction, the way open-in-view served them, against the DTO queries they use now
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark.appointments", matches = "\\d+")
+class ProjectionBenchmark {
+
+	private static final int DOCTORS = 200;
+	private static final int PATIENTS = 5_000;
+	private static final int BATCH = 10_000;
+	private static final int WARMUP = 5;
+	private static final int RUNS = 15;
+	private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private IAppointmentService appointmentService;
+	@Autowired
+	private IUserService userService;
+
+	@Test
+	void entitiesAgainstProjections() {
+		int rows = Integer.getInteger("benchmark.appointments");
+		seed(rows);
+		TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+		readOnly.setReadOnly(true);
+
+		System.out.printf("%n%,d appointments, %,d users, median of %d calls%n", rows, DOCTORS + PATIENTS, RUNS);
+		System.out.printf("%-22s %12s %14s%n", "list", "ms", "allocated KB");
+		report("appointments entity", () -> readOnly.execute(status -> {
+			List<AppointmentDto> dtos = new ArrayList<>();
+			for (Appointment appointment : appointmentRepository.findAll()) {
+				dtos.add(appointmentService.convertToDto(appointment));
+			}
+			return dtos.size();
+		}));
+		report("appointments dto", () -> readOnly.execute(status -> appointmentRepository.findAllDtos().size()));
+		report("users entity", () -> readOnly.execute(status -> {
+			List<UserDto> dtos = new ArrayList<>();
+			for (User user : userRepository.findAll()) {
+				dtos.add(userService.convertToDto(user));
+			}
+			return dtos.size();
+		}));
+		report("users dto", () -> readOnly.execute(status -> userRepository.findAllDtos().size()));
+	}
+
+	private void report(String name, Supplier<Integer> list) {
+		int expected = list.get();
+		for (int i = 1; i < WARMUP; i++) {
+			list.get();
+		}
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().threadId();
+		double[] millis = new double[RUNS];
+		long[] allocated = new long[RUNS];
+		for (int i = 0; i < RUNS; i++) {
+			long bytes = threads.getThreadAllocatedBytes(thread);
+			long start = System.nanoTime();
+			assertEquals(expected, list.get());
+			millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+			allocated[i] = threads.getThreadAllocatedBytes(thread) - bytes;
+		}
+		Arrays.sort(millis);
+		Arrays.sort(allocated);
+		System.out.printf("%-22s %12.1f %,14d%n", name, millis[RUNS / 2], allocated[RUNS / 2] / 1024);
+	}
+
+	private void seed(int rows) {
+		List<Object[]> users = new ArrayList<>();
+		for (int i = 0; i < DOCTORS + PATIENTS; i++) {
+			users.add(new Object[]{"proj" + i, "user", "proj" + i + "@bench.test", "secret", "1234567890", "OTHER"});
+		}
+		jdbcTemplate.batchUpdate("insert into user (first_name, last_name, email, password, phone_number, gender) " +
+				"values (?, ?, ?, ?, ?, ?)", users);
+		long firstUser = jdbcTemplate.queryForObject("select min(id) from user where email like 'proj%'", Long.class);
+
+		List<Object[]> batch = new ArrayList<>(BATCH);
+		for (int i = 0; i < rows; i++) {
+			Timestamp date = Timestamp.valueOf(BASE.plusMinutes(30L * (i / DOCTORS)));
+			batch.add(new Object[]{firstUser + DOCTORS + (i % PATIENTS), firstUser + (i % DOCTORS), date, date});
+			if (batch.size() == BATCH || i == rows - 1) {
+				jdbcTemplate.batchUpdate("insert into appointment (patient_id, doctor_id, appointment_date, appointment_status, " +
+						"payment_status, active_slot, version) values (?, ?, ?, 'BOOKED', 'CASH', ?, 0)", batch);
+				batch.clear();
+			}
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package com.project.jsb.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.jsb.web.RateLimitFilter;
+import com.project.jsb.web.RateLimitProperties;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// mvn test -Dtest=RateLimitFilterBenchmark -Dbenchmark.requests=2000000
+// time the filter adds per request on top of an empty chain, the mock request/response are built for every call
+// in all cases so the difference to "no filter" is the filter's own cost
+@EnabledIfSystemProperty(named = "benchmark.requests", matches = "\\d+")
+class RateLimitFilterBenchmark {
+
+	private static final int CLIENTS = 10_000;
+	private static final int RUNS = 7;
+	private static final FilterChain EMPTY_CHAIN = (request, response) -> { };
+
+	@Test
+	void filterOverheadPerRequest() throws Exception {
+		int requests = Integer.getInteger("benchmark.requests");
+		RateLimitFilter filter = new RateLimitFilter(new ObjectMapper(), new RateLimitProperties(10, List.of(
+				new RateLimitProperties.Rule("POST", "/public/login", 1_000_000_000, 1_000_000_000),
+				new RateLimitProperties.Rule("POST", "/appointments/appointment/book", 1, 1))), "/api/v1");
+		String[] addresses = new String[CLIENTS];
+		for (int i = 0; i < CLIENTS; i++) {
+			addresses[i] = "10.0." + (i >> 8) + "." + (i & 0xff);
+		}
+
+		Map<String, IntFunction<MockHttpServletRequest>> cases = new LinkedHashMap<>();
+		cases.put("no filter", i -> request("/api/v1/public/login", addresses[i % CLIENTS]));
+		cases.put("unlimited path", i -> request("/api/v1/public/register", addresses[i % CLIENTS]));
+		cases.put("allowed, 10k ips", i -> request("/api/v1/public/login", addresses[i % CLIENTS]));
+		cases.put("rejected, 429", i -> request("/api/v1/appointments/appointment/book", addresses[0]));
+
+		System.out.printf("%n%,d requests per run, median of %d runs%n", requests, RUNS);
+		System.out.printf("%-20s %12s %14s%n", "case", "ns/request", "filter ns");
+		double baseline = 0;
+		for (Map.Entry<String, IntFunction<MockHttpServletRequest>> entry : cases.entrySet()) {
+			boolean bare = entry.getKey().equals("no filter");
+			double nanos = medianNanos(requests, entry.getValue(), bare ? null : filter);
+			if (bare) {
+				baseline = nanos;
+			}
+			System.out.printf("%-20s %12.1f %14.1f%n", entry.getKey(), nanos, nanos - baseline);
+		}
+
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request("/api/v1/appointments/appointment/book", addresses[0]), response, EMPTY_CHAIN);
+		assertEquals(429, response.getStatus());
+	}
+
+	private static double medianNanos(int requests, IntFunction<MockHttpServletRequest> requestFor,
+									  RateLimitFilter filter) throws Exception {
+		double[] runs = new double[RUNS + 2];
+		// the first two runs warm up the JIT
+		for (int run = 0; run < runs.length; run++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < requests; i++) {
+				MockHttpServletRequest request = requestFor.apply(i);
+				MockHttpServletResponse response = new MockHttpServletResponse();
+				if (filter == null) {
+					EMPTY_CHAIN.doFilter(request, response);
+				} else {
+					filter.doFilter(request, response, EMPTY_CHAIN);
+				}
+			}
+			runs[run] = (System.nanoTime() - start) / (double) requests;
+		}
+		double[] measured = Arrays.copyOfRange(runs, 2, runs.length);
+		Arrays.sort(measured);
+		return measured[RUNS / 2];
+	}
+
+	private static MockHttpServletRequest request(String uri, String address) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+		request.setRemoteAddr(address);
+		return request;
+	}
+}
@@ -0,0 +1,46 @@
+package com.project.jsb.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TtlCacheTest {
+
+	@Test
+	void leastRecentlyUsedEntryIsEvicted() {
+		TtlCache<Integer, String> cache = new TtlCache<>(2, 60_000);
+		cache.put(1, "one");
+		cache.put(2, "two");
+		cache.get(1);
+		cache.put(3, "three");
+
+		assertEquals("one", cache.get(1));
+		assertNull(cache.get(2));
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.evictions());
+	}
+
+	@Test
+	void entriesExpire() throws InterruptedException {
+		TtlCache<Integer, String> cache = new TtlCache<>(10, 20);
+		cache.put(1, "one");
+		assertEquals("one", cache.get(1));
+
+		Thread.sleep(40);
+		assertNull(cache.get(1));
+		assertEquals(0, cache.size());
+		assertEquals(1, cache.hits());
+		assertEquals(1, cache.misses());
+	}
+
+	@Test
+	void loaderFillsMissesOnly() {
+		TtlCache<Integer, String> cache = new TtlCache<>(10, 60_000);
+		int[] loads = {0};
+
+		assertEquals("1", cache.get(1, key -> String.valueOf(key + loads[0]++)));
+		assertEquals("1", cache.get(1, key -> String.valueOf(key + loads[0]++)));
+		assertNull(cache.get(2, key -> null));
+		assertEquals(1, loads[0]);
+	}
+}
@@ -0,0 +1,100 @@
+package com.project.jsb.service.User;
+
+import com.project.jsb.dto.UserDto;
+import com.project.jsb.dto.UserPageDto;
+import com.project.jsb.enums.UserSort;
+import com.project.jsb.repository.DoctorRepository;
+import com.project.jsb.repository.RoleRepository;
+import com.project.jsb.repository.UserRepository;
+import com.project.jsb.support.TestUsers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserPageTest {
+
+	@Autowired
+	private IUserService userService;
+	@Autowired
+	private UserCountCache userCountCache;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private RoleRepository roleRepository;
+	@Autowired
+	private DoctorRepository doctorRepository;
+	@Autowired
+	private TestUsers testUsers;
+
+	@Test
+	void pagesWalkEveryPatientOnceInOrder() {
+		List<Long> created = List.of(
+				save("Page", "Zed", "PATIENT"), save("Page", "Amy", "PATIENT"), save("Page|Pipe", "Bob", "PATIENT"),
+				save("Able", "Cy", "PATIENT"), save("Page", "Amy", "PATIENT"), save("Page", "Dora", "DOCTOR"));
+		userCountCache.invalidate();
+		Long roleId = roleRepository.findByName("PATIENT").iterator().next().getId();
+
+		List<UserDto> byId = walk(UserSort.ID);
+		assertEquals(byId.stream().sorted(Comparator.comparing(UserDto::getId)).toList(), byId);
+		List<UserDto> byName = walk(UserSort.NAME);
+		assertEquals(byName.stream().sorted(Comparator.comparing(UserDto::getLastName)
+				.thenComparing(UserDto::getFirstName).thenComparing(UserDto::getId)).toList(), byName);
+
+		for (List<UserDto> walked : List.of(byId, byName)) {
+			List<Long> ids = walked.stream().map(UserDto::getId).toList();
+			assertEquals(ids.size(), ids.stream().distinct().count());
+			assertTrue(ids.containsAll(created.subList(0, 5)));
+			assertFalse(ids.contains(created.get(5)));
+			assertEquals(userRepository.countByRole(roleId), ids.size());
+		}
+	}
+
+	@Test
+	void totalIsCachedUntilInvalidated() {
+		long total = userService.getPatientPage(null, 1, null).total();
+		save("Cached", "Count", "PATIENT");
+		assertEquals(total, userService.getPatientPage(null, 1, null).total());
+		userCountCache.increment("PATIENT");
+		assertEquals(total + 1, userService.getPatientPage(null, 1, null).total());
+		userCountCache.invalidate();
+		assertEquals(total + 1, userService.getPatientPage(null, 1, null).total());
+	}
+
+	@Test
+	void doctorPagesAndBadCursors() {
+		userCountCache.invalidate();
+		UserPageDto page = userService.getDoctorPage(null, 100, UserSort.NAME);
+		assertEquals(doctorRepository.count(), page.total());
+		assertEquals(page.users().stream().sorted(Comparator.comparing(UserDto::getLastName)
+				.thenComparing(UserDto::getFirstName).thenComparing(UserDto::getId)).toList(), page.users());
+		assertThrows(IllegalArgumentException.class, () -> userService.getPatientPage("not a cursor", 2, UserSort.NAME));
+		String idCursor = userService.getPatientPage(null, 1, UserSort.ID).nextCursor();
+		assertThrows(IllegalArgumentException.class, () -> userService.getPatientPage(idCursor, 2, UserSort.NAME));
+	}
+
+	private List<UserDto> walk(UserSort sort) {
+		List<UserDto> walked = new ArrayList<>();
+		String cursor = null;
+		do {
+			UserPageDto page = userService.getPatientPage(cursor, 2, sort);
+			assertTrue(page.users().size() <= 2);
+			assertEquals(userRepository.countByRole(roleRepository.findByName("PATIENT").iterator().next().getId()), page.total());
+			walked.addAll(page.users());
+			cursor = page.nextCursor();
+		} while (cursor != null);
+		return walked;
+	}
+
+	private Long save(String lastName, String firstName, String role) {
+		return testUsers.saveNamed(firstName, lastName, role).getId();
+	}
+}
@@ -0,0 +1,139 @@
+package com.project.jsb.service.appointment;
+
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.enums.PaymentStatus;
+import com.project.jsb.exception.SlotUnavailableException;
+import com.project.jsb.model.Appointment;
+import com.project.jsb.model.User;
+import com.project.jsb.repository.AppointmentRepository;
+import com.project.jsb.repository.DoctorRepository;
+import com.project.jsb.service.User.IUserService;
+import com.project.jsb.service.archive.IAppointmentArchiveService;
+import com.project.jsb.service.availability.AvailabilityService;
+import com.project.jsb.service.earnings.IEarningsService;
+import com.project.jsb.service.event.IAppointmentEventService;
+import com.project.jsb.service.reminder.IReminderService;
+import com.project.jsb.service.stats.IAppointmentStatsService;
+import com.project.jsb.support.TestUsers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AppointmentBookingConcurrencyTest {
+
+	private static final int REQUESTS = 2000;
+	private static final int THREADS = 64;
+
+	@Autowired
+	private TestUsers testUsers;
+	@Autowired
+	private IAppointmentService appointmentService;
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+	@Autowired
+	private DoctorRepository doctorRepository;
+	@Autowired
+	private IUserService userService;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private IEarningsService earningsService;
+	@Autowired
+	private IReminderService reminderService;
+	@Autowired
+	private IAppointmentArchiveService archiveService;
+	@Autowired
+	private IAppointmentStatsService statsService;
+	@Autowired
+	private IAppointmentEventService eventService;
+
+	// half of the requests go through a second instance with its own calendar and lock stripes, only the
+	// unique key on (doctor_id, active_slot) stands between its insert and the first instance's
+	@Test
+	void concurrentBookingsOfOneSlotHaveExactlyOneWinner() throws Exception {
+		User doctor = testUsers.save("race-doctor");
+		User patient = testUsers.save("race-patient");
+		IAppointmentService otherInstance = new AppointmentService(appointmentRepository, userService, doctorRepository,
+				new AvailabilityService(appointmentRepository, 30, LocalTime.of(10, 0), LocalTime.of(18, 0), 31),
+				new SlotLockStripes(64, 200), transactionTemplate, earningsService, reminderService, archiveService,
+				statsService, eventService);
+
+		LocalDateTime slot = LocalDateTime.now().plusDays(1).with(LocalTime.of(11, 0));
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger winners = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		AtomicLong slowestNanos = new AtomicLong();
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < REQUESTS; i++) {
+			IAppointmentService instance = i % 2 == 0 ? appointmentService : otherInstance;
+			futures.add(executor.submit(() -> {
+				SecurityContextHolder.getContext().setAuthentication(
+						new UsernamePasswordAuthenticationToken(patient.getEmail(), null, List.of()));
+				start.await();
+				long begin = System.nanoTime();
+				try {
+					instance.bookAppointment(doctor.getId(), slot);
+					winners.incrementAndGet();
+				} catch (SlotUnavailableException e) {
+					rejected.incrementAndGet();
+				} finally {
+					SecurityContextHolder.clearContext();
+				}
+				slowestNanos.accumulateAndGet(System.nanoTime() - begin, Math::max);
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(60, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+
+		assertEquals(1, winners.get());
+		assertEquals(REQUESTS - 1, rejected.get());
+		assertEquals(1, appointmentRepository.findDtosByDoctorId(doctor.getId()).size());
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(slowestNanos.get()) < 1000,
+				"slowest booking took " + TimeUnit.NANOSECONDS.toMillis(slowestNanos.get()) + " ms");
+	}
+
+	@Test
+	void uniqueKeyRejectsASecondActiveRowForTheSlot() {
+		User doctor = testUsers.save("key-doctor");
+		User patient = testUsers.save("key-patient");
+		LocalDateTime slot = LocalDateTime.now().plusDays(2).with(LocalTime.of(14, 0));
+		appointmentRepository.saveAndFlush(appointment(doctor, patient, slot));
+
+		assertThrows(DataIntegrityViolationException.class,
+				() -> appointmentRepository.saveAndFlush(appointment(doctor, patient, slot)));
+		assertEquals(1, appointmentRepository.findDtosByDoctorId(doctor.getId()).size());
+	}
+
+	private static Appointment appointment(User doctor, User patient, LocalDateTime slot) {
+		Appointment appointment = new Appointment();
+		appointment.setDoctor(doctor);
+		appointment.setPatient(patient);
+		appointment.setAppointmentDate(slot);
+		appointment.setActiveSlot(slot);
+		appointment.setAppointmentStatus(AppointmentStatus.BOOKED);
+		appointment.setPaymentStatus(PaymentStatus.CASH);
+		return appointment;
+	}
+}
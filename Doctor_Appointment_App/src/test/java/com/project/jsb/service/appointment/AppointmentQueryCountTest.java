@@ -0,0 +1,101 @@
+package com.project.jsb.service.appointment;
+
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.enums.PaymentStatus;
+import com.project.jsb.model.Appointment;
+import com.project.jsb.model.User;
+import com.project.jsb.repository.AppointmentRepository;
+import com.project.jsb.support.TestUsers;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AppointmentQueryCountTest {
+
+	@Autowired
+	private TestUsers testUsers;
+	@Autowired
+	private IAppointmentService appointmentService;
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private User doctor;
+	private LocalDateTime nextSlot = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+	@BeforeEach
+	void setUp() {
+		appointmentRepository.deleteAll();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		doctor = testUsers.save("count-doctor");
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(doctor.getEmail(), null, List.of()));
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void allAppointmentsCostConstantStatements() {
+		assertConstantStatements(() -> appointmentService.getAllAppointments().size());
+	}
+
+	@Test
+	void doctorAppointmentsCostConstantStatements() {
+		assertConstantStatements(() -> appointmentService.findByDoctorId().size());
+	}
+
+	@Test
+	void appointmentPagesCostConstantStatements() {
+		assertConstantStatements(() -> appointmentService.getAllAppointments(null, null, 100).getAppointments().size());
+	}
+
+	private void assertConstantStatements(Supplier<Integer> listing) {
+		bookForNewPatients(3);
+		long small = countStatements(listing, 3);
+		bookForNewPatients(30);
+		long large = countStatements(listing, 33);
+
+		assertEquals(small, large, "statements grew with the number of appointments");
+	}
+
+	private long countStatements(Supplier<Integer> listing, int expectedRows) {
+		statistics.clear();
+		assertEquals(expectedRows, listing.get());
+		return statistics.getPrepareStatementCount();
+	}
+
+	private void bookForNewPatients(int count) {
+		for (int i = 0; i < count; i++) {
+			Appointment appointment = new Appointment();
+			appointment.setPatient(testUsers.save("count-patient"));
+			appointment.setDoctor(doctor);
+			appointment.setAppointmentDate(nextSlot);
+			appointment.setActiveSlot(nextSlot);
+			appointment.setAppointmentStatus(AppointmentStatus.BOOKED);
+			appointment.setPaymentStatus(PaymentStatus.CASH);
+			appointmentRepository.save(appointment);
+			nextSlot = nextSlot.plusMinutes(30);
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package com.project.jsb.service.appointment;
+
+import com.project.jsb.dto.AppointmentDto;
+import com.project.jsb.enums.RecurrenceFrequency;
+import com.project.jsb.exception.SlotUnavailableException;
+import com.project.jsb.model.User;
+import com.project.jsb.repository.AppointmentRepository;
+import com.project.jsb.request.BookSeriesRequest;
+import com.project.jsb.support.TestUsers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AppointmentSeriesServiceTest {
+
+	@Autowired
+	private TestUsers testUsers;
+	@Autowired
+	private IAppointmentSeriesService appointmentSeriesService;
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	private User doctor;
+	private final LocalDateTime first = LocalDateTime.now().plusDays(1).withHour(14).withMinute(0).withSecond(0).withNano(0);
+
+	@BeforeEach
+	void setUp() {
+		doctor = testUsers.save("series-doctor");
+		User patient = testUsers.save("series-patient");
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(patient.getEmail(), null, List.of()));
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void seriesIsBookedInOneGo() {
+		List<AppointmentDto> booked = appointmentSeriesService.bookSeries(request(first, RecurrenceFrequency.BIWEEKLY, 4));
+
+		assertEquals(4, booked.size());
+		assertEquals(first.plusWeeks(6), booked.get(3).getAppointmentDate());
+		assertEquals(4, appointmentRepository.findTakenSlots(doctor.getId(),
+				booked.stream().map(AppointmentDto::getAppointmentDate).toList()).size());
+	}
+
+	@Test
+	void overlappingSeriesBooksNothing() {
+		appointmentSeriesService.bookSeries(request(first.plusWeeks(2), RecurrenceFrequency.WEEKLY, 1));
+
+		assertThrows(SlotUnavailableException.class,
+				() -> appointmentSeriesService.bookSeries(request(first, RecurrenceFrequency.WEEKLY, 4)));
+		List<LocalDateTime> others = List.of(first, first.plusWeeks(1), first.plusWeeks(3));
+		assertEquals(List.of(), appointmentRepository.findTakenSlots(doctor.getId(), others));
+	}
+
+	@Test
+	void seriesNeedsExactlyOneEnd() {
+		BookSeriesRequest request = request(first, RecurrenceFrequency.WEEKLY, 3);
+		request.setUntil(first.toLocalDate().plusWeeks(5));
+
+		assertThrows(IllegalArgumentException.class, () -> appointmentSeriesService.expand(request));
+		request.setCount(null);
+		assertEquals(6, appointmentSeriesService.expand(request).size());
+	}
+
+	private BookSeriesRequest request(LocalDateTime firstAppointment, RecurrenceFrequency frequency, int count) {
+		BookSeriesRequest request = new BookSeriesRequest();
+		request.setDoctorId(doctor.getId());
+		request.setFirstAppointment(firstAppointment);
+		request.setFrequency(frequency);
+		request.setCount(count);
+		return request;
+	}
+}
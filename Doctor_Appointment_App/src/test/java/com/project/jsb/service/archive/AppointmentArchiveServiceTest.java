@@ -0,0 +1,190 @@
+package com.project.jsb.service.archive;
+
+import com.project.jsb.dto.AppointmentDto;
+import com.project.jsb.model.User;
+import com.project.jsb.repository.AppointmentRepository;
+import com.project.jsb.repository.ArchivedAppointmentRepository;
+import com.project.jsb.repository.UserRepository;
+import com.project.jsb.service.appointment.AppointmentCursor;
+import com.project.jsb.service.User.IUserService;
+import com.project.jsb.service.appointment.IAppointmentService;
+import com.project.jsb.support.TestUsers;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AppointmentArchiveServiceTest {
+
+	private static final LocalDateTime OLD = LocalDateTime.of(2005, 6, 1, 10, 0);
+
+	@Autowired
+	private TestUsers testUsers;
+	@Autowired
+	private IAppointmentArchiveService archiveService;
+	@Autowired
+	private IAppointmentService appointmentService;
+	@Autowired
+	private IUserService userService;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+	@Autowired
+	private ArchivedAppointmentRepository archivedAppointmentRepository;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Value("${appointment.archive.max-age-days}")
+	private int maxAgeDays;
+
+	private User doctor;
+	private User patient;
+	private Set<Long> finished;
+	private Set<Long> kept;
+
+	// old terminal rows go, old open rows and a recent finished one stay
+	@BeforeEach
+	void setUp() {
+		doctor = testUsers.save("archive-doctor");
+		patient = testUsers.save("archive-patient");
+		finished = new HashSet<>();
+		for (int i = 0; i < 5; i++) {
+			finished.add(insert(OLD.plusDays(i), "COMPLETED"));
+		}
+		finished.add(insert(OLD.plusDays(5), "CANCELLED"));
+		finished.add(insert(OLD.plusDays(6), "CANCELLED"));
+		kept = new HashSet<>(List.of(insert(OLD.plusDays(7), "BOOKED"), insert(OLD.plusDays(8), "CONFIRMED"),
+				insert(LocalDateTime.now().minusDays(maxAgeDays / 2).withNano(0), "COMPLETED")));
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+		jdbcTemplate.update("delete from appointment where doctor_id = ?", doctor.getId());
+		jdbcTemplate.update("delete from appointment_archive where doctor_id = ?", doctor.getId());
+	}
+
+	@Test
+	void movesOnlyFinishedRowsOlderThanTheHorizonInChunks() {
+		Integer archivable = jdbcTemplate.queryForObject("select count(*) from appointment where appointment_status in " +
+				"('COMPLETED', 'CANCELLED') and appointment_date < ?", Integer.class,
+				Timestamp.valueOf(LocalDateTime.now().minusDays(maxAgeDays)));
+		AppointmentArchiveService smallChunks = new AppointmentArchiveService(appointmentRepository,
+				archivedAppointmentRepository, transactionTemplate, maxAgeDays, 2);
+
+		assertEquals(archivable, smallChunks.archiveFinishedAppointments());
+
+		assertEquals(kept, ids("appointment"));
+		assertEquals(finished, ids("appointment_archive"));
+		assertEquals(2, jdbcTemplate.queryForObject("select count(*) from appointment_archive where doctor_id = ? " +
+				"and appointment_status = 'CANCELLED'", Integer.class, doctor.getId()));
+		assertEquals(0, smallChunks.archiveFinishedAppointments());
+	}
+
+	@Test
+	void aFailedDeleteRollsTheCopyBack() {
+		AppointmentRepository failingDelete = mock(AppointmentRepository.class, delegatesTo(appointmentRepository));
+		doThrow(new IllegalStateException("delete failed")).when(failingDelete).deleteByIds(anyCollection());
+		AppointmentArchiveService failing = new AppointmentArchiveService(failingDelete, archivedAppointmentRepository,
+				transactionTemplate, maxAgeDays, 2);
+
+		assertThrows(IllegalStateException.class, failing::archiveFinishedAppointments);
+
+		Set<Long> all = new HashSet<>(finished);
+		all.addAll(kept);
+		assertEquals(all, ids("appointment"));
+		assertTrue(ids("appointment_archive").isEmpty());
+	}
+
+	@Test
+	void readsTouchTheArchiveOnlyWhenTheRangeReachesIt() {
+		archiveService.archiveFinishedAppointments();
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(patient.getEmail(), null, List.of()));
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		statistics.clear();
+		List<AppointmentDto> recent = appointmentService.findByPatientId(null, LocalDate.now().minusDays(maxAgeDays / 2 + 1), 20)
+				.getAppointments();
+		assertEquals(1, recent.size());
+		assertTrue(statistics.getQueries().length > 0);
+		assertTrue(Arrays.stream(statistics.getQueries()).noneMatch(query -> query.contains("ArchivedAppointment")),
+				Arrays.toString(statistics.getQueries()));
+		statistics.clear();
+		assertTrue(archiveService.findPatientPage(patient.getId(),
+				new AppointmentCursor(LocalDateTime.now().minusDays(1), 0L), PageRequest.of(0, 10)).isEmpty());
+		assertEquals(0, statistics.getQueryExecutionCount());
+
+		List<AppointmentDto> merged = appointmentService.findByPatientId(null, OLD.toLocalDate(), 20).getAppointments();
+		Set<Long> all = new HashSet<>(finished);
+		all.addAll(kept);
+		assertEquals(all, new HashSet<>(merged.stream().map(AppointmentDto::getId).toList()));
+		assertEquals(merged.stream().sorted(Comparator.comparing(AppointmentDto::getAppointmentDate)).toList(), merged);
+	}
+
+	@Test
+	void deletingAUserTakesTheirArchivedAppointments() {
+		assertEquals(finished.size(), archiveService.archiveFinishedAppointments());
+
+		userService.deleteUser(patient.getId());
+
+		assertTrue(ids("appointment").isEmpty());
+		assertTrue(ids("appointment_archive").isEmpty());
+		assertFalse(userRepository.existsById(patient.getId()));
+	}
+
+	private Set<Long> ids(String table) {
+		return new HashSet<>(jdbcTemplate.queryForList("select id from " + table + " where doctor_id = ?", Long.class,
+				doctor.getId()));
+	}
+
+	private Long insert(LocalDateTime date, String status) {
+		// finished appointments hold no slot
+		Timestamp slot = status.equals("BOOKED") || status.equals("CONFIRMED") ? Timestamp.valueOf(date) : null;
+		KeyHolder key = new GeneratedKeyHolder();
+		jdbcTemplate.update(connection -> {
+			PreparedStatement statement = connection.prepareStatement("insert into appointment (patient_id, doctor_id, " +
+					"appointment_date, appointment_status, payment_status, active_slot, version) values (?, ?, ?, ?, 'CASH', ?, 0)",
+					Statement.RETURN_GENERATED_KEYS);
+			statement.setLong(1, patient.getId());
+			statement.setLong(2, doctor.getId());
+			statement.setTimestamp(3, Timestamp.valueOf(date));
+			statement.setString(4, status);
+			statement.setTimestamp(5, slot);
+			return statement;
+		}, key);
+		return key.getKey().longValue();
+	}
+}
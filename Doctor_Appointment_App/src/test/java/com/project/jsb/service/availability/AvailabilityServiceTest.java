@@ -0,0 +1,80 @@
+package com.project.jsb.service.availability;
+
+import com.project.jsb.repository.AppointmentRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class AvailabilityServiceTest {
+
+	private final AvailabilityService availabilityService = new AvailabilityService(
+			mock(AppointmentRepository.class), 30, LocalTime.of(10, 0), LocalTime.of(18, 0), 31);
+
+	private final LocalDate tomorrow = LocalDate.now().plusDays(1);
+
+	@Test
+	void emptyCalendarHasEveryWorkingSlotFree() {
+		List<LocalDateTime> slots = availabilityService.getFreeSlots(1L, tomorrow, tomorrow);
+
+		assertEquals(16, slots.size());
+		assertEquals(tomorrow.atTime(10, 0), slots.get(0));
+		assertEquals(tomorrow.atTime(17, 30), slots.get(15));
+	}
+
+	@Test
+	void bookedSlotIsRemovedAndFreedAgain() {
+		LocalDateTime slot = tomorrow.atTime(11, 30);
+
+		availabilityService.markBooked(1L, slot);
+		assertFalse(availabilityService.isFree(1L, slot));
+		assertFalse(availabilityService.getFreeSlots(1L, tomorrow, tomorrow).contains(slot));
+		assertTrue(availabilityService.isFree(2L, slot));
+
+		availabilityService.markFree(1L, slot);
+		assertTrue(availabilityService.getFreeSlots(1L, tomorrow, tomorrow).contains(slot));
+	}
+
+	@Test
+	void timesOffTheGridAreIgnored() {
+		availabilityService.markBooked(1L, tomorrow.atTime(11, 10));
+		availabilityService.markBooked(1L, tomorrow.atTime(19, 0));
+
+		assertEquals(16, availabilityService.getFreeSlots(1L, tomorrow, tomorrow).size());
+	}
+
+	@Test
+	void timesOffTheGridAreNeverReportedFree() {
+		assertThrows(IllegalArgumentException.class, () -> availabilityService.isFree(1L, tomorrow.atTime(11, 10)));
+		assertThrows(IllegalArgumentException.class, () -> availabilityService.isFree(1L, tomorrow.atTime(19, 0)));
+		assertThrows(IllegalArgumentException.class, () -> availabilityService.isFree(1L, tomorrow.atTime(9, 30)));
+		assertThrows(IllegalArgumentException.class, () -> availabilityService.isFree(1L, tomorrow.atTime(11, 0, 5)));
+	}
+
+	@Test
+	void onlyTheNightlyJobDropsPastDays() {
+		LocalDateTime slot = tomorrow.atTime(12, 0);
+		availabilityService.markBooked(1L, slot);
+		availabilityService.markBooked(2L, slot.plusDays(1));
+
+		availabilityService.getFreeSlots(1L, tomorrow.plusDays(1), tomorrow.plusDays(2));
+		availabilityService.nextFreeSlots(1L, 100);
+		assertFalse(availabilityService.isFree(1L, slot));
+
+		assertEquals(0, availabilityService.evictPastDays());
+		assertEquals(1, availabilityService.evictBefore(tomorrow.plusDays(1)));
+		assertTrue(availabilityService.isFree(1L, slot));
+		assertFalse(availabilityService.isFree(2L, slot.plusDays(1)));
+	}
+
+	@Test
+	void rangeLongerThanLimitIsRejected() {
+		assertThrows(IllegalArgumentException.class,
+				() -> availabilityService.getFreeSlots(1L, tomorrow, tomorrow.plusDays(60)));
+	}
+}
@@ -0,0 +1,155 @@
+package com.project.jsb.service.doctor;
+
+import com.project.jsb.dto.AppointmentStateView;
+import com.project.jsb.dto.DoctorDto;
+import com.project.jsb.dto.UserDto;
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.enums.PaymentStatus;
+import com.project.jsb.model.User;
+import com.project.jsb.repository.DoctorRepository;
+import com.project.jsb.request.CreateDoctorRequest;
+import com.project.jsb.request.UpdateDoctorRequest;
+import com.project.jsb.service.User.IUserService;
+import com.project.jsb.service.earnings.IEarningsService;
+import com.project.jsb.support.TestUsers;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DoctorDirectoryCacheTest {
+
+	@Autowired
+	private IUserService userService;
+	@Autowired
+	private IDoctorService doctorService;
+	@Autowired
+	private DoctorDirectoryCache doctorDirectoryCache;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private IEarningsService earningsService;
+	@Autowired
+	private DoctorLeaderboard doctorLeaderboard;
+	@Autowired
+	private DoctorRepository doctorRepository;
+	@Autowired
+	private TestUsers testUsers;
+
+	private Statistics statistics;
+	private static int doctors;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		doctorDirectoryCache.invalidate();
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void repeatedDirectoryReadsSkipTheDatabase() {
+		userService.getAllDoctor();
+		long hits = doctorDirectoryCache.stats().hits();
+		statistics.clear();
+
+		List<DoctorDto> directory = userService.getAllDoctor();
+		assertEquals(0, statistics.getPrepareStatementCount());
+		assertEquals(hits + 1, doctorDirectoryCache.stats().hits());
+		assertSame(directory, userService.getAllDoctor());
+	}
+
+	@Test
+	void writesInvalidateTheDirectory() {
+		userService.getAllDoctor();
+		// web requests keep the session open (open-in-view), the seeded roles have to stay managed for the insert
+		UserDto created = transactionTemplate.execute(status -> doctorService.createDoctor(createRequest()));
+		DoctorDto listed = find(created.getId());
+		assertEquals("Cardiology", listed.getSpecialization());
+		assertEquals(0, new BigDecimal("150").compareTo(listed.getDoctor_fees()));
+
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(created.getEmail(), null, List.of()));
+		UpdateDoctorRequest update = new UpdateDoctorRequest();
+		update.setFirstName("Renamed");
+		update.setLastName("Doctor");
+		update.setSpecialization("Neurology");
+		update.setExperience(12);
+		update.setDoctor_fees(new BigDecimal("200"));
+		doctorService.updateDoctor(update);
+		assertEquals("Neurology", find(created.getId()).getSpecialization());
+		assertEquals(12, find(created.getId()).getExperience());
+	}
+
+	@Test
+	void deleteInvalidatesTheDirectory() {
+		User user = testUsers.doctor("Leaving", "Dermatology", "90").getUser();
+		doctorDirectoryCache.invalidate();
+		assertEquals("Dermatology", find(user.getId()).getSpecialization());
+
+		userService.deleteUser(user.getId());
+		assertTrue(userService.getAllDoctor().stream().noneMatch(listed -> listed.getId().equals(user.getId())));
+	}
+
+	// completions patch the cached listing, the directory is not read again
+	@Test
+	void completionsPatchTheListedEarnings() {
+		User user = testUsers.doctor("Earning", "Oncology", "120").getUser();
+		doctorLeaderboard.put(doctorRepository.findDoctorDto(user.getId()).orElseThrow());
+		doctorDirectoryCache.invalidate();
+		List<DoctorDto> before = userService.getAllDoctor();
+		assertEquals(0, BigDecimal.ZERO.compareTo(find(user.getId()).getTotal_points()));
+
+		transactionTemplate.executeWithoutResult(status -> earningsService.recordCompletions(List.of(new AppointmentStateView(
+				720_000_000L + user.getId(), user.getId(), null, LocalDateTime.now(), AppointmentStatus.COMPLETED,
+				PaymentStatus.CASH, 0))));
+		statistics.clear();
+		assertEquals(0, new BigDecimal("120").compareTo(find(user.getId()).getTotal_points()));
+		assertEquals(0, statistics.getPrepareStatementCount());
+		// the other doctors are the same cached objects
+		List<DoctorDto> after = userService.getAllDoctor();
+		for (int i = 0; i < before.size(); i++) {
+			if (!before.get(i).getId().equals(user.getId())) {
+				assertSame(before.get(i), after.get(i));
+			}
+		}
+	}
+
+	private DoctorDto find(Long id) {
+		return userService.getAllDoctor().stream().filter(doctor -> doctor.getId().equals(id)).findFirst().orElseThrow();
+	}
+
+	private static CreateDoctorRequest createRequest() {
+		CreateDoctorRequest request = new CreateDoctorRequest();
+		request.setFirstName("Cached");
+		request.setLastName("Doctor");
+		request.setEmail("cached" + (doctors++) + "@directory.test");
+		request.setPassword("secret");
+		request.setPhoneNumber("1234567890");
+		request.setSpecialization("Cardiology");
+		request.setExperience(5);
+		request.setDoctor_fees(new BigDecimal("150"));
+		return request;
+	}
+}
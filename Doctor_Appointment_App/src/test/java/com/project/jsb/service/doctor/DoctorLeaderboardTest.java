@@ -0,0 +1,136 @@
+package com.project.jsb.service.doctor;
+
+import com.project.jsb.dto.DoctorDto;
+import com.project.jsb.dto.LeaderboardEntry;
+import com.project.jsb.dto.StatusCount;
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.repository.AppointmentRepository;
+import com.project.jsb.repository.ArchivedAppointmentRepository;
+import com.project.jsb.repository.DoctorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DoctorLeaderboardTest {
+
+	private final DoctorRepository doctorRepository = mock(DoctorRepository.class);
+	private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+	private final ArchivedAppointmentRepository archivedAppointmentRepository = mock(ArchivedAppointmentRepository.class);
+	private final DoctorLeaderboard leaderboard = new DoctorLeaderboard(doctorRepository, appointmentRepository,
+			archivedAppointmentRepository);
+
+	@BeforeEach
+	void setUp() {
+		when(doctorRepository.findAllDoctorDtos()).thenReturn(List.of(
+				doctor(1, "Cardiology", "50"),
+				doctor(2, "Cardiology", "80"),
+				doctor(3, "Neurology", "10"),
+				doctor(4, "cardiology ", "0")));
+		when(appointmentRepository.countByDoctorAndStatus()).thenReturn(List.of(
+				new StatusCount(1L, AppointmentStatus.COMPLETED, 3),
+				new StatusCount(2L, AppointmentStatus.COMPLETED, 3),
+				new StatusCount(3L, AppointmentStatus.COMPLETED, 1),
+				new StatusCount(3L, AppointmentStatus.CANCELLED, 9)));
+		when(archivedAppointmentRepository.countByDoctorAndStatus()).thenReturn(List.of(
+				new StatusCount(3L, AppointmentStatus.COMPLETED, 4)));
+		leaderboard.rebuild();
+	}
+
+	@Test
+	void ranksByCompletedThenPointsOverallAndPerSpecialization() {
+		// archived completions count, cancelled ones do not
+		assertEquals(List.of(3L, 2L, 1L, 4L), ids(leaderboard.top(null, 10)));
+		assertEquals(List.of(3L, 2L), ids(leaderboard.top("", 2)));
+		assertEquals(List.of(2L, 1L, 4L), ids(leaderboard.top("CARDIOLOGY", 10)));
+		assertTrue(leaderboard.top("Dermatology", 10).isEmpty());
+
+		LeaderboardEntry first = leaderboard.top(null, 1).get(0);
+		assertEquals(1, first.rank());
+		assertEquals(5, first.completedAppointments());
+		assertEquals(new BigDecimal("10"), first.totalPoints());
+	}
+
+	@Test
+	void completionsAndProfileChangesMoveDoctors() {
+		leaderboard.completed(1L, 3, new BigDecimal("20"));
+		assertEquals(List.of(1L, 3L, 2L, 4L), ids(leaderboard.top(null, 10)));
+		assertEquals(6, leaderboard.top(null, 1).get(0).completedAppointments());
+		assertEquals(new BigDecimal("70"), leaderboard.top(null, 1).get(0).totalPoints());
+
+		// a new specialization moves the doctor between boards and keeps the tally
+		leaderboard.put(doctor(2, "Neurology", "0"));
+		assertEquals(List.of(1L, 4L), ids(leaderboard.top("Cardiology", 10)));
+		assertEquals(List.of(3L, 2L), ids(leaderboard.top("Neurology", 10)));
+		assertEquals(new BigDecimal("80"), leaderboard.top("Neurology", 10).get(1).totalPoints());
+
+		leaderboard.put(doctor(5, "Neurology", "0"));
+		leaderboard.remove(3L);
+		assertEquals(List.of(2L, 5L), ids(leaderboard.top("Neurology", 10)));
+		assertEquals(List.of(1L, 2L, 4L, 5L), ids(leaderboard.top(null, 10)));
+
+		// completions for a doctor that is gone are dropped
+		leaderboard.completed(3L, 1, BigDecimal.ONE);
+		assertEquals(4, leaderboard.top(null, 10).size());
+	}
+
+	@Test
+	void readersSeeEveryDoctorOnceWhileCompletionsLand() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(5);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicBoolean writing = new AtomicBoolean(true);
+		List<Future<?>> writers = new ArrayList<>();
+		for (long doctorId = 1; doctorId <= 4; doctorId++) {
+			long id = doctorId;
+			writers.add(executor.submit(() -> {
+				start.await();
+				for (int i = 0; i < 2_000; i++) {
+					leaderboard.completed(id, 1, BigDecimal.ONE);
+				}
+				return null;
+			}));
+		}
+		Future<?> reader = executor.submit(() -> {
+			start.await();
+			while (writing.get()) {
+				List<LeaderboardEntry> top = leaderboard.top(null, 10);
+				assertEquals(4, top.size());
+				assertEquals(4, top.stream().map(LeaderboardEntry::doctorId).distinct().count());
+			}
+			return null;
+		});
+		start.countDown();
+		for (Future<?> writer : writers) {
+			writer.get(30, TimeUnit.SECONDS);
+		}
+		writing.set(false);
+		reader.get(30, TimeUnit.SECONDS);
+		executor.shutdown();
+
+		List<LeaderboardEntry> top = leaderboard.top(null, 10);
+		assertEquals(List.of(3L, 2L, 1L, 4L), ids(top));
+		assertEquals(2_005, top.get(0).completedAppointments());
+		assertEquals(new BigDecimal("2080"), top.get(1).totalPoints());
+	}
+
+	private static List<Long> ids(List<LeaderboardEntry> entries) {
+		return entries.stream().map(LeaderboardEntry::doctorId).toList();
+	}
+
+	private static DoctorDto doctor(long id, String specialization, String points) {
+		return new DoctorDto(id, "Doctor", "No" + id, null, null, null, null, specialization, 5,
+				BigDecimal.TEN, new BigDecimal(points));
+	}
+}
@@ -0,0 +1,95 @@
+package com.project.jsb.service.doctor;
+
+import com.project.jsb.dto.DoctorProfileDto;
+import com.project.jsb.dto.UserDto;
+import com.project.jsb.exception.ResourceNotFoundException;
+import com.project.jsb.model.Image;
+import com.project.jsb.repository.ImageRepository;
+import com.project.jsb.repository.UserRepository;
+import com.project.jsb.request.CreateDoctorRequest;
+import com.project.jsb.service.availability.IAvailabilityService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DoctorProfileTest {
+
+	@Autowired
+	private IDoctorService doctorService;
+	@Autowired
+	private IAvailabilityService availabilityService;
+	@Autowired
+	private ImageRepository imageRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void profileImageAndSlotsComeBackInOneQuery() {
+		UserDto doctor = create("profile1@profile.test");
+		Image image = new Image();
+		image.setFilename("avatar.png");
+		image.setFiletype("image/png");
+		image.setImage(new byte[]{1, 2, 3});
+		image.setUser(userRepository.findById(doctor.getId()).orElseThrow());
+		image = imageRepository.save(image);
+		image.setDownloadUrl("/api/v1/images/image/download/" + image.getId());
+		imageRepository.save(image);
+		LocalDateTime booked = availabilityService.nextFreeSlots(doctor.getId(), 1).get(0);
+		availabilityService.markBooked(doctor.getId(), booked);
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		DoctorProfileDto profile = doctorService.getProfile(doctor.getId(), 5);
+		assertEquals(1, statistics.getPrepareStatementCount());
+
+		assertEquals("Profile", profile.doctor().getFirstName());
+		assertEquals("Oncology", profile.doctor().getSpecialization());
+		assertEquals(image.getId(), profile.image().getId());
+		assertEquals("avatar.png", profile.image().getFileName());
+		assertEquals("/api/v1/images/image/download/" + image.getId(), profile.image().getDownloadUrl());
+		assertEquals(5, profile.nextFreeSlots().size());
+		assertFalse(profile.nextFreeSlots().contains(booked));
+		assertTrue(profile.nextFreeSlots().get(0).isAfter(booked));
+	}
+
+	@Test
+	void missingImageUnknownDoctorAndBadSlotCount() {
+		UserDto doctor = create("profile2@profile.test");
+		DoctorProfileDto profile = doctorService.getProfile(doctor.getId(), null);
+		assertNull(profile.image());
+		assertEquals(20, profile.nextFreeSlots().size());
+
+		assertThrows(ResourceNotFoundException.class, () -> doctorService.getProfile(-1L, 5));
+		assertThrows(IllegalArgumentException.class, () -> doctorService.getProfile(doctor.getId(), 0));
+		assertThrows(IllegalArgumentException.class, () -> doctorService.getProfile(doctor.getId(), 201));
+	}
+
+	private UserDto create(String email) {
+		CreateDoctorRequest request = new CreateDoctorRequest();
+		request.setFirstName("Profile");
+		request.setLastName("Doctor");
+		request.setEmail(email);
+		request.setPassword("secret");
+		request.setPhoneNumber("1234567890");
+		request.setSpecialization("Oncology");
+		request.setExperience(7);
+		request.setDoctor_fees(new BigDecimal("150"));
+		return transactionTemplate.execute(status -> doctorService.createDoctor(request));
+	}
+}
@@ -0,0 +1,83 @@
+package com.project.jsb.service.doctor;
+
+import com.project.jsb.dto.DoctorDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoctorSearchIndexTest {
+
+	private final DoctorSearchIndex index = new DoctorSearchIndex(null);
+
+	@BeforeEach
+	void setUp() {
+		index.load(List.of(
+				doctor(1, "John", "Smith", "Cardiology"),
+				doctor(2, "Johanna", "Meyer", "Dermatology"),
+				doctor(3, "Zoë", "Müller", "Neurology"),
+				doctor(4, "Mark", "Jones", "General Physician")));
+	}
+
+	@Test
+	void prefixesMatchNamesAndSpecializations() {
+		// "jones" shares two of three trigrams, a near miss ranks after the prefix hits
+		assertEquals(List.of(2L, 1L, 4L), ids(index.search("Joh", 10)));
+		assertEquals(List.of(1L), ids(index.search("john sm", 10)));
+		assertEquals(List.of(3L), ids(index.search("neuro", 10)));
+		assertEquals(List.of(4L), ids(index.search("general phys", 10)));
+		assertEquals(List.of(2L), ids(index.search("Joh", 1)));
+		assertTrue(index.search("  ", 10).isEmpty());
+	}
+
+	@Test
+	void typosAndAccentsStillMatch() {
+		assertEquals(List.of(1L), ids(index.search("cardiolgy", 10)));
+		assertEquals(List.of(1L), ids(index.search("smiht", 10)));
+		assertEquals(List.of(3L), ids(index.search("zoe muller", 10)));
+	}
+
+	@Test
+	void writesReplaceAndRemoveEntries() {
+		index.put(doctor(1, "John", "Smith", "Oncology"));
+		index.put(doctor(5, "Olivia", "Stone", "Cardiology"));
+		assertEquals(List.of(5L), ids(index.search("cardio", 10)));
+		assertEquals(List.of(1L), ids(index.search("onco", 10)));
+
+		index.remove(5L);
+		assertTrue(index.search("olivia", 10).isEmpty());
+		assertEquals(4, index.size());
+	}
+
+	// removed doctors free their ordinals, later doctors take them and must still be found by every trigram
+	@Test
+	void churnReusesOrdinalsWithoutLosingMatches() {
+		for (int round = 0; round < 50; round++) {
+			index.remove(1L);
+			index.remove(4L);
+			index.put(doctor(100 + round, "Paula", "Stone" + round, "Cardiology"));
+			index.put(doctor(1, "John", "Smith", "Cardiology"));
+			index.put(doctor(4, "Mark", "Jones", "General Physician"));
+			index.remove(100L + round);
+		}
+		index.put(doctor(200, "Paula", "Stone", "Oncology"));
+
+		assertEquals(5, index.size());
+		assertEquals(List.of(1L), ids(index.search("cardio", 10)));
+		assertEquals(List.of(200L), ids(index.search("paula st", 10)));
+		assertEquals(List.of(4L), ids(index.search("general phys", 10)));
+		assertEquals(List.of(2L, 1L, 4L), ids(index.search("Joh", 10)));
+	}
+
+	private static List<Long> ids(List<DoctorDto> doctors) {
+		return doctors.stream().map(DoctorDto::getId).toList();
+	}
+
+	private static DoctorDto doctor(long id, String firstName, String lastName, String specialization) {
+		return new DoctorDto(id, firstName, lastName, null, null, null, null, specialization, 5,
+				BigDecimal.TEN, BigDecimal.ZERO);
+	}
+}
@@ -0,0 +1,88 @@
+package com.project.jsb.service.doctor;
+
+import com.project.jsb.dto.AppointmentStateView;
+import com.project.jsb.dto.DoctorDto;
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.enums.PaymentStatus;
+import com.project.jsb.model.Doctor;
+import com.project.jsb.repository.DoctorRepository;
+import com.project.jsb.request.UpdateDoctorRequest;
+import com.project.jsb.service.earnings.IEarningsService;
+import com.project.jsb.support.TestUsers;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DoctorUpdateTest {
+
+	@Autowired
+	private TestUsers testUsers;
+	@Autowired
+	private IDoctorService doctorService;
+	@Autowired
+	private IEarningsService earningsService;
+	@Autowired
+	private DoctorRepository doctorRepository;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	// the request's session holds the doctor, as open-in-view does, while a completion commits on another thread
+	@Test
+	void profileEditSurvivesACompletionCommittedMeanwhile() throws Exception {
+		Doctor doctor = testUsers.doctor("editing-doctor", "Cardiology", "150");
+		Long doctorId = doctor.getUser().getId();
+		String tag = doctorService.getDoctorVersion(doctorId).etag();
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(doctor.getUser().getEmail(), null, List.of()));
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+		try {
+			long readVersion = doctorRepository.findByUserId(doctorId).orElseThrow().getVersion();
+			CompletableFuture.runAsync(() -> earningsService.recordCompletions(List.of(new AppointmentStateView(
+					710_000_000L + doctorId, doctorId, null, LocalDateTime.now(), AppointmentStatus.COMPLETED,
+					PaymentStatus.CASH, 0)))).get();
+			// the increment leaves the version alone, the session's copy is still current for the save
+			assertEquals(readVersion, jdbcTemplate.queryForObject("select version from doctor where user_id = ?",
+					Long.class, doctorId));
+
+			UpdateDoctorRequest request = new UpdateDoctorRequest();
+			request.setFirstName("Edited");
+			request.setLastName("Doctor");
+			request.setSpecialization("Cardiology");
+			request.setExperience(11);
+			request.setDoctor_fees(new BigDecimal("175"));
+			DoctorDto updated = (DoctorDto) doctorService.updateDoctor(request);
+
+			assertEquals(11, updated.getExperience());
+			assertEquals(0, new BigDecimal("150").compareTo(updated.getTotal_points()));
+		} finally {
+			TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+			entityManager.close();
+			SecurityContextHolder.clearContext();
+		}
+		assertEquals(0, new BigDecimal("175").compareTo(jdbcTemplate.queryForObject(
+				"select doctor_fees from doctor where user_id = ?", BigDecimal.class, doctorId)));
+		assertEquals(0, new BigDecimal("150").compareTo(jdbcTemplate.queryForObject(
+				"select total_points from doctor where user_id = ?", BigDecimal.class, doctorId)));
+		assertNotEquals(tag, doctorService.getDoctorVersion(doctorId).etag());
+	}
+}
@@ -0,0 +1,111 @@
+package com.project.jsb.service.doctor;
+
+import com.project.jsb.dto.DoctorDto;
+import com.project.jsb.dto.DoctorPageDto;
+import com.project.jsb.dto.UserDto;
+import com.project.jsb.enums.DoctorSort;
+import com.project.jsb.request.CreateDoctorRequest;
+import com.project.jsb.request.UpdateDoctorRequest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SpecializationIndexTest {
+
+	@Autowired
+	private IDoctorService doctorService;
+	@Autowired
+	private SpecializationIndex specializationIndex;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private static int doctors;
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void listsOneSpecializationSortedAndPaged() {
+		UserDto junior = create("Allergology", 2, "300");
+		UserDto senior = create("Allergology", 20, "100");
+		UserDto middle = create("allergology ", 8, "200");
+		create("Oncology", 30, "400");
+		specializationIndex.rebuild();
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		DoctorPageDto byExperience = doctorService.findBySpecialization("Allergology", DoctorSort.EXPERIENCE,
+				Sort.Direction.DESC, 0, 2);
+		assertEquals(0, statistics.getPrepareStatementCount());
+		assertEquals(3, byExperience.total());
+		assertEquals(List.of(senior.getId(), middle.getId()), ids(byExperience));
+
+		DoctorPageDto byFees = doctorService.findBySpecialization("allergology", DoctorSort.FEES, Sort.Direction.ASC, 1, 2);
+		assertEquals(List.of(junior.getId()), ids(byFees));
+		assertEquals(0, doctorService.findBySpecialization("Podiatry", DoctorSort.FEES, Sort.Direction.ASC, 0, 2).total());
+		assertThrows(IllegalArgumentException.class, () ->
+				doctorService.findBySpecialization("Allergology", DoctorSort.FEES, Sort.Direction.ASC, 0, 0));
+	}
+
+	@Test
+	void createAndUpdateMoveDoctorsBetweenSpecializations() {
+		UserDto doctor = create("Rheumatology", 4, "120");
+		assertEquals(List.of(doctor.getId()), ids(doctorService.findBySpecialization("Rheumatology", DoctorSort.EXPERIENCE,
+				Sort.Direction.DESC, 0, 10)));
+
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(doctor.getEmail(), null, List.of()));
+		UpdateDoctorRequest update = new UpdateDoctorRequest();
+		update.setFirstName("Moved");
+		update.setLastName("Doctor");
+		update.setSpecialization("Endocrinology");
+		update.setExperience(5);
+		update.setDoctor_fees(new BigDecimal("130"));
+		doctorService.updateDoctor(update);
+
+		assertEquals(0, doctorService.findBySpecialization("Rheumatology", DoctorSort.EXPERIENCE,
+				Sort.Direction.DESC, 0, 10).total());
+		DoctorDto moved = doctorService.findBySpecialization("Endocrinology", DoctorSort.EXPERIENCE,
+				Sort.Direction.DESC, 0, 10).doctors().get(0);
+		assertEquals("Moved", moved.getFirstName());
+		assertEquals(5, moved.getExperience());
+	}
+
+	private static List<Long> ids(DoctorPageDto page) {
+		return page.doctors().stream().map(DoctorDto::getId).toList();
+	}
+
+	// web requests keep the session open (open-in-view), the seeded roles have to stay managed for the insert
+	private UserDto create(String specialization, int experience, String fees) {
+		CreateDoctorRequest request = new CreateDoctorRequest();
+		request.setFirstName("Indexed");
+		request.setLastName("Doctor");
+		request.setEmail("indexed" + (doctors++) + "@specialization.test");
+		request.setPassword("secret");
+		request.setPhoneNumber("1234567890");
+		request.setSpecialization(specialization);
+		request.setExperience(experience);
+		request.setDoctor_fees(new BigDecimal(fees));
+		return transactionTemplate.execute(status -> doctorService.createDoctor(request));
+	}
+}
@@ -0,0 +1,138 @@
+package com.project.jsb.service.earnings;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.jsb.dto.AppointmentStateView;
+import com.project.jsb.dto.EarningsDto;
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.enums.PaymentStatus;
+import com.project.jsb.model.Doctor;
+import com.project.jsb.repository.DoctorRepository;
+import com.project.jsb.support.TestUsers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EarningsServiceTest {
+
+	// ledger rows only reference the appointment id, these never collide with real appointments
+	private static final AtomicLong APPOINTMENTS = new AtomicLong(700_000_000L);
+
+	@Autowired
+	private TestUsers testUsers;
+	@Autowired
+	private IEarningsService earningsService;
+	@Autowired
+	private DoctorRepository doctorRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Value("${api.prefix}")
+	private String apiPrefix;
+
+	@Test
+	void completionsAppendLedgerRowsAndBumpTheTotal() {
+		Long doctorId = testUsers.doctor("ledger-doctor", "Cardiology", "150").getUser().getId();
+		List<AppointmentStateView> completed = List.of(completed(doctorId), completed(doctorId));
+
+		earningsService.recordCompletions(completed);
+
+		List<BigDecimal> amounts = jdbcTemplate.queryForList("select amount from doctor_earning where doctor_id = ?",
+				BigDecimal.class, doctorId);
+		assertEquals(2, amounts.size());
+		amounts.forEach(amount -> assertEquals(0, new BigDecimal("150").compareTo(amount)));
+		EarningsDto earnings = earningsService.getEarnings(doctorId);
+		assertEquals(2, earnings.getCompletedAppointments());
+		assertEquals(0, new BigDecimal("300").compareTo(earnings.getTotalEarnings()));
+		assertEquals(0, new BigDecimal("300").compareTo(totalPoints(doctorId)));
+	}
+
+	@Test
+	void concurrentCompletionsLoseNoIncrement() throws Exception {
+		Long doctorId = testUsers.doctor("busy-doctor", "Neurology", "40").getUser().getId();
+		int batches = 32;
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < batches; i++) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				earningsService.recordCompletions(List.of(completed(doctorId), completed(doctorId)));
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(30, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+
+		BigDecimal expected = new BigDecimal("40").multiply(BigDecimal.valueOf(batches * 2L));
+		assertEquals(0, expected.compareTo(totalPoints(doctorId)));
+		assertEquals(batches * 2L, earningsService.getEarnings(doctorId).getCompletedAppointments());
+	}
+
+	@Test
+	void entitySavesNeverWriteTheTotal() {
+		Doctor doctor = testUsers.doctor("stale-doctor", "Dermatology", "90");
+		Long doctorId = doctor.getUser().getId();
+		earningsService.recordCompletions(List.of(completed(doctorId)));
+
+		Doctor reloaded = doctorRepository.findByUserId(doctorId).orElseThrow();
+		reloaded.setTotal_points(BigDecimal.ZERO);
+		reloaded.setExperience(9);
+		doctorRepository.save(reloaded);
+
+		assertEquals(9, doctorRepository.findByUserId(doctorId).orElseThrow().getExperience());
+		assertEquals(0, new BigDecimal("90").compareTo(totalPoints(doctorId)));
+	}
+
+	@Test
+	void earningsEndpointSumsTheLedger() throws Exception {
+		Long doctorId = testUsers.doctor("paid-doctor", "Oncology", "120").getUser().getId();
+		earningsService.recordCompletions(List.of(completed(doctorId), completed(doctorId), completed(doctorId)));
+
+		MockHttpServletResponse response = mockMvc.perform(get(apiPrefix + "/users/doctor/" + doctorId + "/earnings"))
+				.andReturn().getResponse();
+		assertEquals(200, response.getStatus());
+		JsonNode earnings = objectMapper.readTree(response.getContentAsString()).get("obj");
+		assertEquals(doctorId, earnings.get("doctorId").asLong());
+		assertEquals(3, earnings.get("completedAppointments").asLong());
+		assertEquals(0, new BigDecimal("360").compareTo(earnings.get("totalEarnings").decimalValue()));
+
+		JsonNode none = objectMapper.readTree(mockMvc.perform(get(apiPrefix + "/users/doctor/" + Long.MAX_VALUE + "/earnings"))
+				.andReturn().getResponse().getContentAsString()).get("obj");
+		assertEquals(0, none.get("completedAppointments").asLong());
+	}
+
+	private BigDecimal totalPoints(Long doctorId) {
+		return jdbcTemplate.queryForObject("select total_points from doctor where user_id = ?", BigDecimal.class, doctorId);
+	}
+
+	private static AppointmentStateView completed(Long doctorId) {
+		return new AppointmentStateView(APPOINTMENTS.incrementAndGet(), doctorId, null, LocalDateTime.now(),
+				AppointmentStatus.COMPLETED, PaymentStatus.CASH, 0);
+	}
+}
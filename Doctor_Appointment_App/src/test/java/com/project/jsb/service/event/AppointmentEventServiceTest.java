@@ -0,0 +1,110 @@
+package com.project.jsb.service.event;
+
+import com.project.jsb.dto.AppointmentDto;
+import com.project.jsb.model.User;
+import com.project.jsb.security.jwt.JwtUtils;
+import com.project.jsb.security.user.CustomUserDetails;
+import com.project.jsb.service.appointment.IAppointmentService;
+import com.project.jsb.support.TestUsers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class AppointmentEventServiceTest {
+
+	@LocalServerPort
+	private int port;
+	@Value("${api.prefix}")
+	private String apiPrefix;
+	@Autowired
+	private TestUsers testUsers;
+	@Autowired
+	private IAppointmentEventService appointmentEventService;
+	@Autowired
+	private IAppointmentService appointmentService;
+	@Autowired
+	private JwtUtils jwtUtils;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+	private final List<CompletableFuture<?>> streams = new ArrayList<>();
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+		streams.forEach(stream -> stream.cancel(true));
+		// cancelling the future leaves the connection open, only the client closes it
+		client.shutdownNow();
+	}
+
+	@Test
+	void changesReachDoctorAndPatientOnly() throws InterruptedException {
+		User doctor = testUsers.save("events-doctor");
+		User patient = testUsers.save("events-patient");
+		User outsider = testUsers.save("events-outsider");
+		int before = appointmentEventService.subscriberCount();
+		Queue<String> doctorEvents = subscribe(doctor);
+		Queue<String> patientEvents = subscribe(patient);
+		Queue<String> outsiderEvents = subscribe(outsider);
+		await(() -> appointmentEventService.subscriberCount() == before + 3);
+
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(patient.getEmail(), null, List.of()));
+		AppointmentDto booked = appointmentService.bookAppointment(doctor.getId(),
+				LocalDateTime.now().plusDays(3).withHour(15).withMinute(0).withSecond(0).withNano(0));
+		appointmentService.confirmAppointment(booked.getId());
+
+		List<String> expected = List.of("event:CREATED", "event:CONFIRMED");
+		await(() -> doctorEvents.containsAll(expected) && patientEvents.containsAll(expected));
+		assertTrue(doctorEvents.stream().anyMatch(line -> line.startsWith("data:") && line.contains("\"appointmentId\":" + booked.getId())));
+		assertTrue(outsiderEvents.stream().noneMatch(line -> line.startsWith("event:")));
+	}
+
+	@Test
+	void rejectsAnonymousSubscribers() throws Exception {
+		HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+				URI.create("http://localhost:" + port + apiPrefix + "/appointments/appointment/events")).build(),
+				HttpResponse.BodyHandlers.ofString());
+		assertEquals(401, response.statusCode());
+	}
+
+	private Queue<String> subscribe(User user) {
+		String token = jwtUtils.generateTokenForUser(
+				new UsernamePasswordAuthenticationToken(CustomUserDetails.buildUserDetails(user), null));
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + apiPrefix +
+				"/appointments/appointment/events?token=" + token)).build();
+		Queue<String> lines = new ConcurrentLinkedQueue<>();
+		streams.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+				.thenAccept(response -> response.body().forEach(lines::add)));
+		return lines;
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < deadline, "timed out");
+			Thread.sleep(20);
+		}
+	}
+}
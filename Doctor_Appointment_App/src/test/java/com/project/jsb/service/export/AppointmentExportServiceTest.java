@@ -0,0 +1,102 @@
+package com.project.jsb.service.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.jsb.enums.ExportFormat;
+import com.project.jsb.model.User;
+import com.project.jsb.support.TestUsers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AppointmentExportServiceTest {
+
+	// far enough in the past that rows written by other tests never fall into the range
+	private static final LocalDate DAY = LocalDate.of(2001, 3, 14);
+
+	@Autowired
+	private TestUsers testUsers;
+	@Autowired
+	private IAppointmentExportService appointmentExportService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@BeforeEach
+	void setUp() {
+		User doctor = testUsers.saveNamed("Smith, Jr.", "export");
+		User patient = testUsers.saveNamed("Ann \"Annie\"", "export");
+		LocalDateTime morning = DAY.atTime(10, 0);
+		jdbcTemplate.update("insert into appointment_archive (id, patient_id, doctor_id, appointment_date, appointment_status, " +
+				"payment_status, archived_at) values (?, ?, ?, ?, 'COMPLETED', 'ONLINE', ?)", 900_000_001L, patient.getId(),
+				doctor.getId(), Timestamp.valueOf(morning), Timestamp.valueOf(LocalDateTime.now()));
+		for (int i = 1; i <= 2; i++) {
+			Timestamp slot = Timestamp.valueOf(morning.plusHours(i));
+			jdbcTemplate.update("insert into appointment (patient_id, doctor_id, appointment_date, appointment_status, " +
+					"payment_status, active_slot, version) values (?, ?, ?, 'BOOKED', 'CASH', ?, 0)",
+					patient.getId(), doctor.getId(), slot, slot);
+		}
+		// outside the requested day
+		Timestamp nextDay = Timestamp.valueOf(morning.plusDays(1));
+		jdbcTemplate.update("insert into appointment (patient_id, doctor_id, appointment_date, appointment_status, " +
+				"payment_status, active_slot, version) values (?, ?, ?, 'BOOKED', 'CASH', ?, 0)",
+				patient.getId(), doctor.getId(), nextDay, nextDay);
+	}
+
+	// other tests list every appointment
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("delete from appointment where appointment_date < '2002-01-01'");
+		jdbcTemplate.update("delete from appointment_archive where appointment_date < '2002-01-01'");
+	}
+
+	@Test
+	void ndjsonHasOneObjectPerLineInDateOrder() throws IOException {
+		List<String> lines = export(ExportFormat.NDJSON);
+
+		assertEquals(3, lines.size());
+		JsonNode first = objectMapper.readTree(lines.get(0));
+		assertEquals(900_000_001L, first.get("id").asLong());
+		assertEquals("COMPLETED", first.get("appointmentStatus").asText());
+		assertEquals("Ann \"Annie\"", first.get("patientFirstName").asText());
+		assertEquals(DAY.atTime(12, 0).toString(), objectMapper.readTree(lines.get(2)).get("appointmentDate").asText().substring(0, 16));
+	}
+
+	@Test
+	void csvQuotesFieldsThatNeedIt() throws IOException {
+		List<String> lines = export(ExportFormat.CSV);
+
+		assertEquals(4, lines.size());
+		assertTrue(lines.get(0).startsWith("id,appointment_date,"));
+		assertTrue(lines.get(1).startsWith("900000001,2001-03-14T10:00,COMPLETED,ONLINE,"));
+		assertTrue(lines.get(1).contains(",\"Ann \"\"Annie\"\"\",") && lines.get(1).contains(",\"Smith, Jr.\","));
+	}
+
+	@Test
+	void rejectsReversedRange() {
+		assertThrows(IllegalArgumentException.class, () -> appointmentExportService.export(ExportFormat.CSV, DAY, DAY.minusDays(1)));
+	}
+
+	private List<String> export(ExportFormat format) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		appointmentExportService.export(format, DAY, DAY).writeTo(out);
+		return out.toString(StandardCharsets.UTF_8).lines().toList();
+	}
+}
@@ -0,0 +1,73 @@
+package com.project.jsb.service.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+	@Test
+	void timersFireOnTheirTickAcrossLevels() {
+		HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(1000);
+		long[] deadlines = {1001, 1063, 1064, 1065, 1000 + 4096, 1000 + 4097, 1000 + 300_000, 1000 + 20_000_000};
+		for (long deadline : deadlines) {
+			wheel.schedule(deadline, deadline);
+		}
+
+		for (long deadline : deadlines) {
+			assertEquals(List.of(), wheel.advanceTo(deadline - 1));
+			assertEquals(List.of(deadline), wheel.advanceTo(deadline));
+		}
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void cancelledTimerNeverFires() {
+		HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(0);
+		HierarchicalTimingWheel.Timer<Long> cancelled = wheel.schedule(5000, 1L);
+		wheel.schedule(5000, 2L);
+
+		assertTrue(wheel.cancel(cancelled));
+		assertFalse(wheel.cancel(cancelled));
+		assertEquals(List.of(2L), wheel.advanceTo(6000));
+	}
+
+	@Test
+	void pastDeadlineFiresOnTheNextTick() {
+		HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(100);
+		wheel.schedule(10, 1L);
+
+		assertEquals(List.of(1L), wheel.advanceTo(101));
+	}
+
+	@Test
+	void millionTimersFireInDeadlineOrder() {
+		HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(0);
+		Random random = new Random(42);
+		List<HierarchicalTimingWheel.Timer<Long>> timers = new ArrayList<>();
+		for (int i = 0; i < 1_000_000; i++) {
+			long deadline = 1 + random.nextInt(2_000_000);
+			timers.add(wheel.schedule(deadline, deadline));
+		}
+		for (int i = 0; i < timers.size(); i += 2) {
+			wheel.cancel(timers.get(i));
+		}
+		assertEquals(500_000, wheel.size());
+
+		long fired = 0;
+		long last = 0;
+		for (long tick = 1; tick <= 2_000_000; tick++) {
+			for (long deadline : wheel.advanceTo(tick)) {
+				assertEquals(tick, deadline);
+				assertTrue(deadline >= last);
+				last = deadline;
+				fired++;
+			}
+		}
+		assertEquals(500_000, fired);
+	}
+}
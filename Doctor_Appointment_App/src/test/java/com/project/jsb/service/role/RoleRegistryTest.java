@@ -0,0 +1,78 @@
+package com.project.jsb.service.role;
+
+import com.project.jsb.dto.UserDto;
+import com.project.jsb.model.Role;
+import com.project.jsb.repository.RoleRepository;
+import com.project.jsb.repository.UserRepository;
+import com.project.jsb.request.CreateUserRequest;
+import com.project.jsb.service.User.IUserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RoleRegistryTest {
+
+	@Autowired
+	private RoleRegistry roleRegistry;
+	@Autowired
+	private RoleRepository roleRepository;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private IUserService userService;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void seededRolesAreLoadedIntoAnImmutableMap() {
+		Map<String, Role> roles = roleRegistry.roles();
+		assertTrue(roles.keySet().containsAll(
+				Set.of(RoleRegistry.PATIENT, RoleRegistry.DOCTOR, RoleRegistry.ADMIN)));
+		assertThrows(UnsupportedOperationException.class, () -> roles.put("OTHER", new Role("OTHER")));
+		assertThrows(IllegalStateException.class, () -> roleRegistry.get("MISSING"));
+	}
+
+	@Test
+	void registrationReadsNoRolesAndDeleteKeepsThem() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		roleRegistry.roles();
+		statistics.clear();
+		UserDto patient = userService.createPatient(request("registry1@registry.test"));
+		// only the email check runs as a query, the role comes from the registry
+		assertEquals(1, statistics.getQueryExecutionCount());
+		assertEquals(0, statistics.getEntityStatistics(Role.class.getName()).getLoadCount());
+
+		userService.deleteUser(patient.getId());
+		assertFalse(userRepository.existsById(patient.getId()));
+		assertFalse(roleRepository.findByName(RoleRegistry.PATIENT).isEmpty());
+	}
+
+	@Test
+	void refreshPicksUpNewRoles() {
+		roleRepository.save(new Role("AUDITOR"));
+		assertFalse(roleRegistry.roles().containsKey("AUDITOR"));
+		assertTrue(roleRegistry.refresh().containsKey("AUDITOR"));
+		assertEquals("AUDITOR", roleRegistry.get("AUDITOR").getName());
+	}
+
+	private static CreateUserRequest request(String email) {
+		CreateUserRequest request = new CreateUserRequest();
+		request.setFirstName("Role");
+		request.setLastName("Registry");
+		request.setEmail(email);
+		request.setPassword("1234");
+		request.setPhoneNumber("1234567890");
+		return request;
+	}
+}
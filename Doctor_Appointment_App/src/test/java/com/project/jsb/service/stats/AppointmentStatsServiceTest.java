@@ -0,0 +1,106 @@
+package com.project.jsb.service.stats;
+
+import com.project.jsb.dto.AppointmentDto;
+import com.project.jsb.dto.AppointmentStatsDto;
+import com.project.jsb.dto.StatsDrift;
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.model.User;
+import com.project.jsb.service.appointment.IAppointmentService;
+import com.project.jsb.support.TestUsers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AppointmentStatsServiceTest {
+
+	@Autowired
+	private TestUsers testUsers;
+	@Autowired
+	private IAppointmentStatsService statsService;
+	@Autowired
+	private IAppointmentService appointmentService;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private User doctor;
+	private final LocalDateTime slot = LocalDateTime.now().plusDays(2).withHour(11).withMinute(0).withSecond(0).withNano(0);
+
+	@BeforeEach
+	void setUp() {
+		doctor = testUsers.save("stats-doctor");
+		jdbcTemplate.update("insert into doctor (user_id, specialization, experience, doctor_fees, total_points) " +
+				"values (?, 'Cardiology', 5, 150, 0)", doctor.getId());
+		User patient = testUsers.save("stats-patient");
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(patient.getEmail(), null, List.of()));
+		// other tests write rows straight through the repositories
+		statsService.rebuild();
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void countersFollowTransitions() {
+		AppointmentDto completed = appointmentService.bookAppointment(doctor.getId(), slot);
+		AppointmentDto cancelled = appointmentService.bookAppointment(doctor.getId(), slot.plusMinutes(30));
+		AppointmentDto cancelledConfirmed = appointmentService.bookAppointment(doctor.getId(), slot.plusMinutes(90));
+		appointmentService.bookAppointment(doctor.getId(), slot.plusMinutes(60));
+		appointmentService.confirmAppointment(completed.getId());
+		appointmentService.completeAppointment(completed.getId());
+		appointmentService.cancelAppointment(cancelled.getId());
+		appointmentService.confirmAppointment(cancelledConfirmed.getId());
+		appointmentService.cancelAppointment(cancelledConfirmed.getId());
+
+		AppointmentStatsDto stats = statsService.getDoctorStats(doctor.getId());
+		assertEquals(1, stats.byStatus().get(AppointmentStatus.BOOKED));
+		assertEquals(0, stats.byStatus().get(AppointmentStatus.CONFIRMED));
+		assertEquals(1, stats.byStatus().get(AppointmentStatus.COMPLETED));
+		assertEquals(2, stats.byStatus().get(AppointmentStatus.CANCELLED));
+		assertEquals(4, stats.total());
+		assertEquals(0, new BigDecimal("150.00").compareTo(stats.revenue()));
+		assertEquals(List.of(), statsService.check(false));
+	}
+
+	@Test
+	void onlyTheNightlyJobDropsPastDays() {
+		statsService.booked(doctor.getId(), LocalDateTime.now().minusDays(1));
+
+		statsService.getStats();
+		statsService.getDoctorStats(doctor.getId());
+		// yesterday's count in the clinic and in the doctor's scope
+		assertEquals(2, statsService.dropPastDays());
+		assertEquals(0, statsService.dropPastDays());
+	}
+
+	@Test
+	void checkReportsAndRepairsDrift() {
+		appointmentService.bookAppointment(doctor.getId(), slot);
+		// a write that went around the service, e.g. a manual fix in the database
+		jdbcTemplate.update("update appointment set appointment_status = 'CONFIRMED' where doctor_id = ?", doctor.getId());
+
+		List<StatsDrift> drift = statsService.check(false);
+		assertTrue(drift.contains(new StatsDrift(AppointmentStatus.CONFIRMED.name(), doctor.getId(), 1, 0)));
+		assertTrue(drift.contains(new StatsDrift(AppointmentStatus.BOOKED.name(), doctor.getId(), 0, 1)));
+
+		assertFalse(statsService.check(true).isEmpty());
+		assertEquals(List.of(), statsService.check(false));
+		assertEquals(1, statsService.getDoctorStats(doctor.getId()).byStatus().get(AppointmentStatus.CONFIRMED));
+	}
+}
@@ -0,0 +1,57 @@
+package com.project.jsb.support;
+
+import com.project.jsb.enums.Gender;
+import com.project.jsb.model.Doctor;
+import com.project.jsb.model.User;
+import com.project.jsb.repository.DoctorRepository;
+import com.project.jsb.repository.UserRepository;
+import com.project.jsb.service.role.RoleRegistry;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+// users and doctors for the H2 backed tests, every email is unique across the whole test run
+@Component
+public class TestUsers {
+
+	private static final AtomicInteger USERS = new AtomicInteger();
+
+	private final UserRepository userRepository;
+	private final DoctorRepository doctorRepository;
+	private final RoleRegistry roleRegistry;
+
+	public TestUsers(UserRepository userRepository, DoctorRepository doctorRepository, RoleRegistry roleRegistry) {
+		this.userRepository = userRepository;
+		this.doctorRepository = doctorRepository;
+		this.roleRegistry = roleRegistry;
+	}
+
+	public User save(String name, String... roles) {
+		return saveNamed(name, name, roles);
+	}
+
+	public User saveNamed(String firstName, String lastName, String... roles) {
+		User user = new User();
+		user.setFirstName(firstName);
+		user.setLastName(lastName);
+		user.setEmail("user" + USERS.incrementAndGet() + "@users.test");
+		user.setPassword("secret");
+		user.setPhoneNumber("1234567890");
+		user.setGender(Gender.OTHER);
+		user.setRoles(Arrays.stream(roles).map(roleRegistry::get).collect(Collectors.toSet()));
+		return userRepository.save(user);
+	}
+
+	// a DOCTOR user with its doctor row
+	public Doctor doctor(String name, String specialization, String fees) {
+		Doctor doctor = new Doctor();
+		doctor.setUser(save(name, RoleRegistry.DOCTOR));
+		doctor.setSpecialization(specialization);
+		doctor.setExperience(3);
+		doctor.setDoctor_fees(new BigDecimal(fees));
+		return doctorRepository.save(doctor);
+	}
+}
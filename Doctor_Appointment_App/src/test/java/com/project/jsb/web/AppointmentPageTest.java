@@ -0,0 +1,161 @@
+package com.project.jsb.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.jsb.enums.AppointmentStatus;
+import com.project.jsb.enums.PaymentStatus;
+import com.project.jsb.model.Appointment;
+import com.project.jsb.model.User;
+import com.project.jsb.repository.AppointmentRepository;
+import com.project.jsb.security.jwt.JwtUtils;
+import com.project.jsb.security.user.CustomUserDetails;
+import com.project.jsb.support.TestUsers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AppointmentPageTest {
+
+	// years no other test writes to, so the admin listing can start there
+	private static final String FROM = "2093-01-01";
+	private static final LocalDateTime FIRST = LocalDateTime.of(2093, 3, 1, 10, 0);
+
+	@Autowired
+	private TestUsers testUsers;
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private JwtUtils jwtUtils;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Value("${api.prefix}")
+	private String apiPrefix;
+	@Value("${appointment.page.max-size}")
+	private int maxPageSize;
+
+	private User doctor;
+	private User patient;
+
+	@BeforeEach
+	void setUp() {
+		doctor = testUsers.save("page-doctor");
+		patient = testUsers.save("page-patient");
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("delete from appointment where appointment_date >= ?", FROM);
+	}
+
+	@Test
+	void pagesWalkEqualDatesByIdWithoutGapsOrDuplicates() throws Exception {
+		// three appointments share each of the first two dates, finished ones hold no slot
+		List<LocalDateTime> dates = List.of(FIRST, FIRST, FIRST, FIRST.plusHours(1), FIRST.plusHours(1),
+				FIRST.plusHours(1), FIRST.plusDays(1));
+		List<Long> saved = appointmentRepository.saveAll(dates.stream().map(date -> appointment(doctor, patient, date)).toList())
+				.stream().map(Appointment::getId).toList();
+
+		for (String path : List.of("/appointments/appointment/patient/page", "/appointments/appointment/doctor/page",
+				"/appointments/appointment/all/page")) {
+			User caller = path.contains("doctor") ? doctor : patient;
+			List<JsonNode> walked = walk(path, caller, 2);
+			List<Long> ids = walked.stream().map(node -> node.get("id").asLong()).toList();
+			assertEquals(saved.size(), ids.size(), path);
+			assertEquals(ids.size(), ids.stream().distinct().count(), path);
+			assertTrue(ids.containsAll(saved), path);
+			assertEquals(walked.stream().sorted(Comparator.comparing((JsonNode node) -> node.get("appointmentDate").asText())
+					.thenComparing(node -> node.get("id").asLong())).toList(), walked, path);
+		}
+	}
+
+	@Test
+	void pageSizeIsClamped() throws Exception {
+		appointmentRepository.saveAll(IntStream.rangeClosed(0, maxPageSize)
+				.mapToObj(i -> appointment(doctor, patient, FIRST.plusMinutes(i % 3))).toList());
+
+		JsonNode large = page("/appointments/appointment/all/page", patient, null, 10_000);
+		assertEquals(maxPageSize, large.get("appointments").size());
+		assertFalse(large.get("nextCursor").isNull());
+		JsonNode small = page("/appointments/appointment/all/page", patient, null, 0);
+		assertEquals(1, small.get("appointments").size());
+	}
+
+	@Test
+	void malformedCursorIsABadRequest() throws Exception {
+		for (String path : List.of("/appointments/appointment/patient/page", "/appointments/appointment/doctor/page",
+				"/appointments/appointment/all/page")) {
+			for (String cursor : List.of("not a cursor", "bm90LWEtZGF0ZXwx", "MjA5My0wMy0wMVQxMDowMA")) {
+				assertEquals(400, request(path, patient, cursor, 2).getStatus(), path + " " + cursor);
+			}
+		}
+	}
+
+	private List<JsonNode> walk(String path, User caller, int size) throws Exception {
+		List<JsonNode> walked = new ArrayList<>();
+		String cursor = null;
+		do {
+			JsonNode page = page(path, caller, cursor, size);
+			assertTrue(page.get("appointments").size() <= size);
+			page.get("appointments").forEach(walked::add);
+			cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+		} while (cursor != null);
+		return walked;
+	}
+
+	private JsonNode page(String path, User caller, String cursor, int size) throws Exception {
+		MockHttpServletResponse response = request(path, caller, cursor, size);
+		assertEquals(200, response.getStatus());
+		return objectMapper.readTree(response.getContentAsString()).get("obj");
+	}
+
+	// a cursor carries its own position, the date only starts the first page
+	private MockHttpServletResponse request(String path, User caller, String cursor, int size) throws Exception {
+		String token = jwtUtils.generateTokenForUser(
+				new UsernamePasswordAuthenticationToken(CustomUserDetails.buildUserDetails(caller), null));
+		MockHttpServletRequestBuilder request = get(apiPrefix + path)
+				.header("Authorization", "Bearer " + token)
+				.param("size", String.valueOf(size));
+		if (cursor == null) {
+			request.param("from", FROM);
+		} else {
+			request.param("cursor", cursor);
+		}
+		return mockMvc.perform(request).andReturn().getResponse();
+	}
+
+	private static Appointment appointment(User doctor, User patient, LocalDateTime date) {
+		Appointment appointment = new Appointment();
+		appointment.setDoctor(doctor);
+		appointment.setPatient(patient);
+		appointment.setAppointmentDate(date);
+		appointment.setAppointmentStatus(AppointmentStatus.COMPLETED);
+		appointment.setPaymentStatus(PaymentStatus.CASH);
+		return appointment;
+	}
+}
@@ -0,0 +1,159 @@
+package com.project.jsb.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.jsb.model.User;
+import com.project.jsb.support.TestUsers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AppointmentTransitionTest {
+
+	private static final int RACES = 40;
+
+	@Autowired
+	private TestUsers testUsers;
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Value("${api.prefix}")
+	private String apiPrefix;
+
+	private User doctor;
+	private User patient;
+	private LocalDateTime nextSlot;
+
+	@BeforeEach
+	void setUp() {
+		doctor = testUsers.doctor("transition-doctor", "Cardiology", "80").getUser();
+		patient = testUsers.save("transition-patient");
+		nextSlot = LocalDateTime.now().plusDays(20).with(LocalTime.of(10, 0));
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("delete from appointment where doctor_id = ?", doctor.getId());
+		jdbcTemplate.update("delete from doctor_earning where doctor_id = ?", doctor.getId());
+	}
+
+	@Test
+	void illegalTransitionsAreConflictsAndChangeNothing() throws Exception {
+		Long completed = insert("COMPLETED");
+		MockHttpServletResponse cancel = transition("cancel", completed);
+		assertEquals(409, cancel.getStatus());
+		assertEquals("appointment is COMPLETED, can not move to CANCELLED",
+				objectMapper.readTree(cancel.getContentAsString()).get("message").asText());
+		assertEquals("COMPLETED", status(completed));
+
+		Long booked = insert("BOOKED");
+		assertEquals(409, transition("complete", booked).getStatus());
+		assertEquals(409, transition("confirm", insert("CANCELLED")).getStatus());
+		assertEquals("BOOKED", status(booked));
+		assertEquals(0, earned());
+
+		assertEquals(404, transition("cancel", Long.MAX_VALUE).getStatus());
+	}
+
+	// cancel and complete both find the appointment CONFIRMED, the conditional updates let exactly one of them through
+	@Test
+	void cancelRacingCompleteHasExactlyOneWinner() throws Exception {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < RACES; i++) {
+			ids.add(insert("CONFIRMED"));
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Integer>> cancels = new ArrayList<>();
+		List<Future<Integer>> completes = new ArrayList<>();
+		for (Long id : ids) {
+			cancels.add(executor.submit(() -> {
+				start.await();
+				return transition("cancel", id).getStatus();
+			}));
+			completes.add(executor.submit(() -> {
+				start.await();
+				return transition("complete", id).getStatus();
+			}));
+		}
+		start.countDown();
+
+		int completedWins = 0;
+		for (int i = 0; i < RACES; i++) {
+			int cancel = cancels.get(i).get(30, TimeUnit.SECONDS);
+			int complete = completes.get(i).get(30, TimeUnit.SECONDS);
+			Long id = ids.get(i);
+			if (cancel == 200) {
+				assertEquals(409, complete, "both won " + id);
+				assertEquals("CANCELLED", status(id));
+			} else {
+				assertEquals(409, cancel, "cancel of " + id);
+				assertEquals(200, complete, "complete of " + id);
+				assertEquals("COMPLETED", status(id));
+				completedWins++;
+			}
+		}
+		executor.shutdown();
+		// a completion that lost wrote no earnings
+		assertEquals(completedWins, earned());
+	}
+
+	private MockHttpServletResponse transition(String action, Long id) throws Exception {
+		return mockMvc.perform(put(apiPrefix + "/appointments/appointment/" + action + "/" + id)).andReturn().getResponse();
+	}
+
+	private String status(Long id) {
+		return jdbcTemplate.queryForObject("select appointment_status from appointment where id = ?", String.class, id);
+	}
+
+	private int earned() {
+		return jdbcTemplate.queryForObject("select count(*) from doctor_earning where doctor_id = ?", Integer.class,
+				doctor.getId());
+	}
+
+	private Long insert(String status) {
+		Timestamp date = Timestamp.valueOf(nextSlot);
+		nextSlot = nextSlot.plusMinutes(30);
+		Timestamp slot = status.equals("BOOKED") || status.equals("CONFIRMED") ? date : null;
+		KeyHolder key = new GeneratedKeyHolder();
+		jdbcTemplate.update(connection -> {
+			PreparedStatement statement = connection.prepareStatement("insert into appointment (patient_id, doctor_id, " +
+					"appointment_date, appointment_status, payment_status, active_slot, version) values (?, ?, ?, ?, 'CASH', ?, 0)",
+					Statement.RETURN_GENERATED_KEYS);
+			statement.setLong(1, patient.getId());
+			statement.setLong(2, doctor.getId());
+			statement.setTimestamp(3, date);
+			statement.setString(4, status);
+			statement.setTimestamp(5, slot);
+			return statement;
+		}, key);
+		return key.getKey().longValue();
+	}
+}
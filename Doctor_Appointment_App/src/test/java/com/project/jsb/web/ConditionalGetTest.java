@@ -0,0 +1,160 @@
+package com.project.jsb.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.jsb.model.User;
+import com.project.jsb.repository.UserRepository;
+import com.project.jsb.request.UpdateUserRequest;
+import com.project.jsb.security.jwt.JwtUtils;
+import com.project.jsb.security.user.CustomUserDetails;
+import com.project.jsb.service.role.RoleRegistry;
+import com.project.jsb.support.TestUsers;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalGetTest {
+
+	@Autowired
+	private TestUsers testUsers;
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private JwtUtils jwtUtils;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Value("${api.prefix}")
+	private String apiPrefix;
+
+	private User doctor;
+	private User patient;
+	private String token;
+	private final LocalDateTime slot = LocalDateTime.now().plusDays(5).withHour(11).withMinute(0).withSecond(0).withNano(0);
+
+	@BeforeEach
+	void setUp() {
+		doctor = testUsers.save("etag-doctor", RoleRegistry.PATIENT);
+		patient = testUsers.save("etag-patient", RoleRegistry.PATIENT);
+		token = tokenFor(patient);
+	}
+
+	@Test
+	void appointmentListIsNotModifiedUntilAnAppointmentOrItsUsersChange() throws Exception {
+		MockHttpServletResponse first = get("/appointments/appointment/patient", null);
+		assertEquals(200, first.getStatus());
+		String etag = first.getHeader(HttpHeaders.ETAG);
+		assertNotNull(etag);
+
+		// a 304 only runs the version aggregates, the list itself is not read
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		MockHttpServletResponse unchanged = get("/appointments/appointment/patient", etag);
+		assertEquals(304, unchanged.getStatus());
+		assertTrue(Arrays.stream(statistics.getQueries()).filter(query -> query.contains("ppointment"))
+				.allMatch(query -> query.contains("AppointmentsVersion")), Arrays.toString(statistics.getQueries()));
+		assertEquals("", unchanged.getContentAsString());
+		assertEquals(etag, unchanged.getHeader(HttpHeaders.ETAG));
+
+		assertEquals(200, mockMvc.perform(post(apiPrefix + "/appointments/appointment/book")
+						.header("Authorization", "Bearer " + token)
+						.param("doctorId", doctor.getId().toString())
+						.param("localDateTime", slot.toString()))
+				.andReturn().getResponse().getStatus());
+		MockHttpServletResponse booked = get("/appointments/appointment/patient", etag);
+		assertEquals(200, booked.getStatus());
+		assertNotNull(booked.getHeader(HttpHeaders.LAST_MODIFIED));
+		String bookedTag = booked.getHeader(HttpHeaders.ETAG);
+		assertNotEquals(etag, bookedTag);
+		assertEquals(304, get("/appointments/appointment/patient", bookedTag).getStatus());
+
+		// another patient's booking leaves this list's tag alone
+		User other = testUsers.save("etag-other", RoleRegistry.PATIENT);
+		assertEquals(200, mockMvc.perform(post(apiPrefix + "/appointments/appointment/book")
+						.header("Authorization", "Bearer " + tokenFor(other))
+						.param("doctorId", doctor.getId().toString())
+						.param("localDateTime", slot.plusHours(1).toString()))
+				.andReturn().getResponse().getStatus());
+		assertEquals(304, get("/appointments/appointment/patient", bookedTag).getStatus());
+
+		// the tag comes from the rows, a write that went around the service still changes it
+		jdbcTemplate.update("update appointment set payment_status = 'ONLINE', version = version + 1 where patient_id = ?",
+				patient.getId());
+		MockHttpServletResponse paid = get("/appointments/appointment/patient", bookedTag);
+		assertEquals(200, paid.getStatus());
+		bookedTag = paid.getHeader(HttpHeaders.ETAG);
+
+		// the list shows the doctor's name, renaming the doctor changes it
+		UpdateUserRequest rename = new UpdateUserRequest();
+		rename.setFirstName("etag-doctor");
+		rename.setLastName("Renamed");
+		rename.setGender("OTHER");
+		assertEquals(200, mockMvc.perform(put(apiPrefix + "/users/patient/update")
+						.header("Authorization", "Bearer " + tokenFor(doctor))
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(rename)))
+				.andReturn().getResponse().getStatus());
+		MockHttpServletResponse afterRename = get("/appointments/appointment/patient", bookedTag);
+		assertEquals(200, afterRename.getStatus());
+		assertTrue(afterRename.getContentAsString().contains("Renamed"));
+	}
+
+	@Test
+	void profileIsNotModifiedUntilTheUserChanges() throws Exception {
+		MockHttpServletResponse first = get("/users/patient/get", null);
+		assertEquals(200, first.getStatus());
+		String etag = first.getHeader(HttpHeaders.ETAG);
+		assertNotNull(first.getHeader(HttpHeaders.LAST_MODIFIED));
+		assertEquals(304, get("/users/patient/get", etag).getStatus());
+
+		User changed = userRepository.findById(patient.getId()).orElseThrow();
+		changed.setFirstName("Changed");
+		userRepository.save(changed);
+		MockHttpServletResponse after = get("/users/patient/get", etag);
+		assertEquals(200, after.getStatus());
+		assertNotEquals(etag, after.getHeader(HttpHeaders.ETAG));
+	}
+
+	private String tokenFor(User user) {
+		return jwtUtils.generateTokenForUser(
+				new UsernamePasswordAuthenticationToken(CustomUserDetails.buildUserDetails(user), null));
+	}
+
+	private MockHttpServletResponse get(String path, String ifNoneMatch) throws Exception {
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(apiPrefix + path)
+				.header("Authorization", "Bearer " + token);
+		if (ifNoneMatch != null) {
+			request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+		}
+		return mockMvc.perform(request).andReturn().getResponse();
+	}
+}
@@ -0,0 +1,184 @@
+package com.project.jsb.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.jsb.dto.IdempotencyClaim;
+import com.project.jsb.dto.StoredResponse;
+import com.project.jsb.model.User;
+import com.project.jsb.repository.AppointmentRepository;
+import com.project.jsb.repository.IdempotencyRecordRepository;
+import com.project.jsb.security.jwt.JwtUtils;
+import com.project.jsb.security.user.CustomUserDetails;
+import com.project.jsb.service.idempotency.IIdempotencyService;
+import com.project.jsb.support.TestUsers;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotencyFilterTest {
+
+	@Autowired
+	private TestUsers testUsers;
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+	@Autowired
+	private IdempotencyRecordRepository idempotencyRecordRepository;
+	@Autowired
+	private IIdempotencyService idempotencyService;
+	@Autowired
+	private JwtUtils jwtUtils;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Value("${api.prefix}")
+	private String apiPrefix;
+
+	private User doctor;
+	private String token;
+	private final LocalDateTime slot = LocalDateTime.now().plusDays(4).withHour(13).withMinute(0).withSecond(0).withNano(0);
+
+	@BeforeEach
+	void setUp() {
+		doctor = testUsers.save("idem-doctor");
+		User patient = testUsers.save("idem-patient");
+		token = jwtUtils.generateTokenForUser(
+				new UsernamePasswordAuthenticationToken(CustomUserDetails.buildUserDetails(patient), null));
+	}
+
+	@Test
+	void retryReturnsTheFirstBooking() throws Exception {
+		String key = UUID.randomUUID().toString();
+		MockHttpServletResponse first = book(key, slot);
+		MockHttpServletResponse retry = book(key, slot);
+
+		assertEquals(200, first.getStatus());
+		assertEquals(200, retry.getStatus());
+		assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+		assertEquals(appointmentId(first), appointmentId(retry));
+		assertEquals(1, appointmentRepository.findDtosByDoctorId(doctor.getId()).size());
+		assertTrue(idempotencyRecordRepository.count() > 0);
+	}
+
+	@Test
+	void keyCanNotBeReusedForAnotherRequest() throws Exception {
+		String key = UUID.randomUUID().toString();
+		assertEquals(200, book(key, slot).getStatus());
+
+		assertEquals(422, book(key, slot.plusMinutes(30)).getStatus());
+		assertEquals(1, appointmentRepository.findDtosByDoctorId(doctor.getId()).size());
+	}
+
+	@Test
+	void failedBookingIsReplayedToo() throws Exception {
+		assertEquals(200, book(UUID.randomUUID().toString(), slot).getStatus());
+		String key = UUID.randomUUID().toString();
+
+		assertEquals(409, book(key, slot).getStatus());
+		MockHttpServletResponse retry = book(key, slot);
+		assertEquals(409, retry.getStatus());
+		assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+	}
+
+	// the retry lands while the first request completes, it must wait or replay, never run the booking again
+	@Test
+	void retryAtTheCompletionBoundaryIsNeverClaimedTwice() throws Exception {
+		Long userId = testUsers.save("idem-racer").getId();
+		StoredResponse first = new StoredResponse("hash", 200, null, "{}");
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			for (int i = 0; i < 500; i++) {
+				String key = UUID.randomUUID().toString();
+				assertTrue(idempotencyService.begin(userId, key).claimed());
+				CyclicBarrier barrier = new CyclicBarrier(2);
+				Future<?> completion = executor.submit(() -> {
+					barrier.await();
+					idempotencyService.complete(userId, key, first);
+					return null;
+				});
+				Future<IdempotencyClaim> retry = executor.submit(() -> {
+					barrier.await();
+					return idempotencyService.begin(userId, key);
+				});
+				completion.get(5, TimeUnit.SECONDS);
+				IdempotencyClaim claim = retry.get(5, TimeUnit.SECONDS);
+
+				assertFalse(claim.claimed(), key);
+				assertTrue(claim.stored() == null || claim.stored() == first);
+				assertSame(first, idempotencyService.begin(userId, key).stored());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	// async readers register a listener instead of blocking on the stream
+	@Test
+	void bufferedBodyServesANonBlockingReader() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/");
+		request.setContent("{\"doctorId\":1}".getBytes(StandardCharsets.UTF_8));
+		ServletInputStream in = new IdempotencyFilter.CachedBodyRequest(request).getInputStream();
+		ByteArrayOutputStream read = new ByteArrayOutputStream();
+		boolean[] allRead = {false};
+
+		in.setReadListener(new ReadListener() {
+			@Override
+			public void onDataAvailable() throws IOException {
+				byte[] buffer = new byte[4];
+				while (in.isReady() && !in.isFinished()) {
+					read.write(buffer, 0, in.read(buffer));
+				}
+			}
+
+			@Override
+			public void onAllDataRead() {
+				allRead[0] = true;
+			}
+
+			@Override
+			public void onError(Throwable error) {
+				fail(error);
+			}
+		});
+
+		assertTrue(allRead[0]);
+		assertEquals("{\"doctorId\":1}", read.toString(StandardCharsets.UTF_8));
+	}
+
+	private MockHttpServletResponse book(String key, LocalDateTime at) throws Exception {
+		return mockMvc.perform(post(apiPrefix + "/appointments/appointment/book")
+						.header("Authorization", "Bearer " + token)
+						.header(IdempotencyFilter.HEADER, key)
+						.param("doctorId", doctor.getId().toString())
+						.param("localDateTime", at.toString()))
+				.andReturn().getResponse();
+	}
+
+	private long appointmentId(MockHttpServletResponse response) throws Exception {
+		JsonNode body = objectMapper.readTree(response.getContentAsString());
+		return body.get("obj").get("id").asLong();
+	}
+}
@@ -0,0 +1,48 @@
+package com.project.jsb.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+	private final RateLimitFilter filter = new RateLimitFilter(new ObjectMapper(), new RateLimitProperties(10,
+			List.of(new RateLimitProperties.Rule("post", "/public/login", 2, 1))), "/api/v1");
+
+	@Test
+	void loginIsLimitedPerAddress() throws Exception {
+		assertEquals(200, login("10.0.0.1").getStatus());
+		assertEquals(200, login("10.0.0.1").getStatus());
+
+		MockHttpServletResponse limited = login("10.0.0.1");
+		assertEquals(429, limited.getStatus());
+		assertEquals("60", limited.getHeader("Retry-After"));
+		assertTrue(limited.getContentAsString().contains("too many requests"));
+		assertEquals(200, login("10.0.0.2").getStatus());
+	}
+
+	@Test
+	void otherEndpointsPassThrough() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/public/login");
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			MockFilterChain chain = new MockFilterChain();
+			filter.doFilter(request, response, chain);
+			assertNotNull(chain.getRequest());
+		}
+	}
+
+	private MockHttpServletResponse login(String address) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/public/login");
+		request.setRemoteAddr(address);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+}
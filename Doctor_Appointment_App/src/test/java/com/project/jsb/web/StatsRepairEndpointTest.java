@@ -0,0 +1,90 @@
+package com.project.jsb.web;
+
+import com.project.jsb.model.User;
+import com.project.jsb.security.jwt.JwtUtils;
+import com.project.jsb.security.user.CustomUserDetails;
+import com.project.jsb.service.role.RoleRegistry;
+import com.project.jsb.service.stats.IAppointmentStatsService;
+import com.project.jsb.support.TestUsers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StatsRepairEndpointTest {
+
+	@Autowired
+	private TestUsers testUsers;
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private IAppointmentStatsService statsService;
+	@Autowired
+	private JwtUtils jwtUtils;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Value("${api.prefix}")
+	private String apiPrefix;
+
+	private User doctor;
+
+	// a row written around the service, the counters do not know it
+	@BeforeEach
+	void setUp() {
+		statsService.rebuild();
+		doctor = testUsers.save("repair-doctor");
+		User patient = testUsers.save("repair-patient");
+		jdbcTemplate.update("insert into appointment (patient_id, doctor_id, appointment_date, appointment_status, " +
+						"payment_status, active_slot, version) values (?, ?, ?, 'CANCELLED', 'CASH', null, 0)",
+				patient.getId(), doctor.getId(), Timestamp.valueOf(LocalDateTime.now().plusDays(3).withNano(0)));
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("delete from appointment where doctor_id = ?", doctor.getId());
+		statsService.rebuild();
+	}
+
+	@Test
+	void checkIsReadOnlyAndOnlyAnAdminRepairs() throws Exception {
+		String admin = tokenFor(testUsers.save("repair-admin", RoleRegistry.ADMIN));
+		String patient = tokenFor(testUsers.save("repair-caller", RoleRegistry.PATIENT));
+
+		assertEquals(200, mockMvc.perform(get(apiPrefix + "/appointments/appointment/stats/check")
+				.param("repair", "true")).andReturn().getResponse().getStatus());
+		assertFalse(statsService.check(false).isEmpty());
+
+		assertEquals(403, repair(patient));
+		assertFalse(statsService.check(false).isEmpty());
+
+		assertEquals(200, repair(admin));
+		assertTrue(statsService.check(false).isEmpty());
+	}
+
+	private int repair(String token) throws Exception {
+		return mockMvc.perform(post(apiPrefix + "/appointments/appointment/stats/repair")
+				.header("Authorization", "Bearer " + token)).andReturn().getResponse().getStatus();
+	}
+
+	private String tokenFor(User user) {
+		return jwtUtils.generateTokenForUser(
+				new UsernamePasswordAuthenticationToken(CustomUserDetails.buildUserDetails(user), null));
+	}
+}
@@ -0,0 +1,50 @@
+package com.project.jsb.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketLimiterTest {
+
+	private long now = 1_000;
+
+	@Test
+	void burstUpToCapacityThenRefillRate() {
+		TokenBucketLimiter limiter = new TokenBucketLimiter(3, 6, () -> now);
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+		}
+		long wait = limiter.tryAcquire("10.0.0.1");
+		assertEquals(TimeUnit.SECONDS.toNanos(10), wait);
+
+		now += wait - 1;
+		assertTrue(limiter.tryAcquire("10.0.0.1") > 0);
+		now += 1;
+		assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+		assertTrue(limiter.tryAcquire("10.0.0.1") > 0);
+	}
+
+	@Test
+	void keysHaveTheirOwnBuckets() {
+		TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1, () -> now);
+		assertEquals(0, limiter.tryAcquire(7L));
+		assertTrue(limiter.tryAcquire(7L) > 0);
+		assertEquals(0, limiter.tryAcquire("7"));
+		assertEquals(0, limiter.tryAcquire(8L));
+	}
+
+	@Test
+	void onlyBucketsFullForTheIdleTimeAreEvicted() {
+		TokenBucketLimiter limiter = new TokenBucketLimiter(2, 60, () -> now);
+		limiter.tryAcquire("quiet");
+		now += TimeUnit.SECONDS.toNanos(30);
+		limiter.tryAcquire("busy");
+		limiter.tryAcquire("busy");
+
+		assertEquals(1, limiter.evictIdle(TimeUnit.SECONDS.toNanos(20)));
+		assertEquals(1, limiter.size());
+		assertTrue(limiter.tryAcquire("busy") > 0);
+	}
+}
@@ -1,4 +1,4 @@
-import { useContext } from "react"
+import { useContext, useEffect, useState } from "react"
 import { useNavigate } from "react-router-dom"
 import { AppContext } from "../context/AppContext"
 
@@ -7,13 +7,32 @@ function TopDoctor() {
 
   const navigate = useNavigate()
   const {doctors} = useContext(AppContext)
+  const [ranked, setRanked] = useState([])
+
+  // the leaderboard is kept ranked on the server, the bundled list only shows when it cannot be reached
+  useEffect(() => {
+    fetch("http://localhost:8080/api/v1/users/doctor/top?limit=10")
+      .then((response) => response.json())
+      .then((data) => {
+        if (Array.isArray(data.obj)) {
+          setRanked(data.obj.map((entry, index) => ({
+            _id: entry.doctorId,
+            name: `Dr. ${entry.firstName} ${entry.lastName}`,
+            speciality: entry.specialization,
+            image: doctors[index % doctors.length]?.image,
+          })))
+        }
+      })
+      .catch((error) => console.error("Error fetching top doctors:", error))
+  }, [doctors])
+
   return (
     <div className="flex flex-col items-center gap-4 my-16 text-gray-900 md:mx-10">
       <h1 className="text-3xl font-medium">Top Doctors to Book</h1>
       <p className="sm:w-1/3 text-center text-sm">Simply browse through our extensivelist of trusted doctors. </p>
 
       <div className="w-full grid grid-cols-auto gap-4 pt-5 gap-y-6 px-3 sm:px-0">
-        {doctors.slice(0, 10).map((item, index)=>(
+        {(ranked.length ? ranked : doctors.slice(0, 10)).map((item, index)=>(
           <div onClick={()=>navigate(`/appointment/${item._id}`)} className="border border-blue-200 rounded-xl overflow-hidden cursor-pointer hover:translate-y-[-10px] transition-all duration-500" key={index}>
             <img className="bg-blue-50" src={item.image} alt="" />
             <div className="p-4">
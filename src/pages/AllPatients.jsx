@@ -6,33 +6,44 @@ function Patients() {
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
   const [searchTerm, setSearchTerm] = useState('');
+  const [nextCursor, setNextCursor] = useState(null);
+  const [total, setTotal] = useState(0);
+  const [loadingMore, setLoadingMore] = useState(false);
 
-  useEffect(() => {
-    const fetchPatients = async () => {
-      try {
-        setLoading(true);
-        const response = await fetch('http://localhost:8080/api/v1/users/patient/all');
-        
-        if (!response.ok) {
-          throw new Error(`HTTP error! status: ${response.status}`);
-        }
-        
-        const data = await response.json();
-        
-        if (data.obj && Array.isArray(data.obj)) {
-          setPatients(data.obj);
-        } else {
-          throw new Error('Unexpected data format from API');
-        }
-      } catch (error) {
-        console.error('Error fetching patients:', error);
-        setError(error.message);
-      } finally {
-        setLoading(false);
+  // the server pages by name with a cursor, the list grows one page at a time
+  const fetchPatients = async (cursor) => {
+    try {
+      cursor ? setLoadingMore(true) : setLoading(true);
+      const params = new URLSearchParams({ sort: 'NAME', size: '50' });
+      if (cursor) {
+        params.set('cursor', cursor);
+      }
+      const response = await fetch(`http://localhost:8080/api/v1/users/patient/page?${params}`);
+
+      if (!response.ok) {
+        throw new Error(`HTTP error! status: ${response.status}`);
       }
-    };
 
-    fetchPatients();
+      const data = await response.json();
+
+      if (data.obj && Array.isArray(data.obj.users)) {
+        setPatients((previous) => (cursor ? [...previous, ...data.obj.users] : data.obj.users));
+        setNextCursor(data.obj.nextCursor);
+        setTotal(data.obj.total);
+      } else {
+        throw new Error('Unexpected data format from API');
+      }
+    } catch (error) {
+      console.error('Error fetching patients:', error);
+      setError(error.message);
+    } finally {
+      setLoading(false);
+      setLoadingMore(false);
+    }
+  };
+
+  useEffect(() => {
+    fetchPatients(null);
   }, []);
 
   const filteredPatients = patients.filter(patient => {
@@ -100,7 +111,7 @@ function Patients() {
             />
           </div>
           <div className="text-sm text-gray-500">
-            {filteredPatients.length} {filteredPatients.length === 1 ? 'patient' : 'patients'} found
+            {filteredPatients.length} of {total} {total === 1 ? 'patient' : 'patients'} shown
           </div>
         </div>
 
@@ -151,6 +162,17 @@ function Patients() {
                 ))}
               </tbody>
             </table>
+            {nextCursor && (
+              <div className="p-4 text-center">
+                <button
+                  onClick={() => fetchPatients(nextCursor)}
+                  disabled={loadingMore}
+                  className="px-4 py-2 bg-blue-600 text-white rounded-md hover:bg-blue-700 transition-colors disabled:opacity-50"
+                >
+                  {loadingMore ? 'Loading...' : 'Load more'}
+                </button>
+              </div>
+            )}
           </div>
         ) : (
           <div className="p-12 text-center">
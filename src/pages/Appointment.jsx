@@ -26,20 +26,15 @@ function Appointment() {
         fetchDocInfo();
     }, [docId]);
 
-    useEffect(() => {
-        if (docInfo) {
-            getAvailableSlots();
-        }
-    }, [docInfo]);
-
+    // profile, image link and the next week of free slots come back in one request
     const fetchDocInfo = async () => {
         try {
             setLoading(true);
-            const response = await fetch(`http://localhost:8080/api/v1/users/doctor/get/${docId}`);
+            const response = await fetch(`http://localhost:8080/api/v1/users/doctor/${docId}/profile?slots=112`);
             const data = await response.json();
 
             if (data.message === "doctor found") {
-                const doctorData = data.obj;
+                const { doctor: doctorData, image, nextFreeSlots } = data.obj;
                 setDocInfo({
                     _id: doctorData.id,
                     name: `${doctorData.firstName} ${doctorData.lastName}`,
@@ -49,7 +44,8 @@ function Appointment() {
                     fees: doctorData.doctor_fees,
                     image: assets.doctor_2,
                 });
-                await fetchDoctorImage(doctorData.id);
+                setDoctorImage(image ? `http://localhost:8080${image.downloadUrl}` : null);
+                setDocSlots(groupSlotsByDay(nextFreeSlots));
             } else {
                 toast.error("Doctor not found");
             }
@@ -61,46 +57,19 @@ function Appointment() {
         }
     };
 
-    const fetchDoctorImage = async (doctorId) => {
-        try {
-            const response = await fetch(`http://localhost:8080/api/v1/images/download/image/${doctorId}`);
-            if (response.ok) {
-                const blob = await response.blob();
-                setDoctorImage(URL.createObjectURL(blob));
-            }
-        } catch (error) {
-            console.error("Error fetching doctor image:", error);
-        }
-    };
-
-    const getAvailableSlots = () => {
-        const today = new Date();
-        const slots = [];
-
-        for (let i = 0; i < 7; i++) {
-            const currentDate = new Date(today);
-            currentDate.setDate(today.getDate() + i);
-            
-            const startHour = i === 0 ? Math.max(currentDate.getHours(), 10) : 10;
-            const endHour = 18;
-            
-            currentDate.setHours(startHour, 0, 0, 0);
-            const endTime = new Date(currentDate);
-            endTime.setHours(endHour, 0, 0, 0);
-            
-            const timeSlots = [];
-            while (currentDate < endTime) {
-                timeSlots.push({
-                    datetime: new Date(currentDate),
-                    time: currentDate.toTimeString().split(' ')[0].substring(0, 5)
-                });
-                currentDate.setMinutes(currentDate.getMinutes() + 30);
+    const groupSlotsByDay = (freeSlots) => {
+        const days = [];
+        freeSlots.forEach((value) => {
+            const datetime = new Date(value);
+            const slot = { datetime, time: datetime.toTimeString().split(' ')[0].substring(0, 5) };
+            const last = days[days.length - 1];
+            if (last && last[0].datetime.toDateString() === datetime.toDateString()) {
+                last.push(slot);
+            } else {
+                days.push([slot]);
             }
-            
-            slots.push(timeSlots);
-        }
-        
-        setDocSlots(slots);
+        });
+        return days;
     };
 
     const handleDaySelect = (index) => {
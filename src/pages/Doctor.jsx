@@ -13,14 +13,17 @@ function Doctor() {
   useEffect(() => {
     const fetchDoctors = async () => {
       try {
-        const response = await fetch("http://localhost:8080/api/v1/users/doctor/all");
+        // a speciality page asks the server for that speciality only instead of filtering the whole directory
+        const url = speciality
+          ? `http://localhost:8080/api/v1/users/doctor/specialization/${encodeURIComponent(speciality)}?sort=EXPERIENCE&direction=DESC&size=100`
+          : "http://localhost:8080/api/v1/users/doctor/all";
+        const response = await fetch(url);
         const data = await response.json();
 
         if (data.obj && data.obj.doctors && Array.isArray(data.obj.doctors)) {
-          const extractedDoctors = data.obj.doctors.map((doctorObj) => ({
-            ...doctorObj.doctor,
-            image: doctorObj.image,
-          }));
+          const extractedDoctors = data.obj.doctors.map((doctorObj) =>
+            doctorObj.doctor ? { ...doctorObj.doctor, image: doctorObj.image } : doctorObj
+          );
           setDoctors(extractedDoctors);
         } else {
           console.error("API returned unexpected data:", data);
@@ -33,26 +36,41 @@ function Doctor() {
     };
 
     fetchDoctors();
-  }, []);
+  }, [speciality]);
 
   useEffect(() => {
     if (!Array.isArray(doctors)) return;
 
-    let filtered = doctors;
-    
-    if (speciality) {
-      filtered = filtered.filter(doc => doc.specialization === speciality);
+    if (!searchTerm.trim()) {
+      setFilterDoc(doctors);
+      return;
     }
-    
-    if (searchTerm) {
-      filtered = filtered.filter(doc => 
-        `${doc.firstName} ${doc.lastName}`.toLowerCase().includes(searchTerm.toLowerCase()) ||
-        doc.specialization.toLowerCase().includes(searchTerm.toLowerCase())
-      );
-    }
-    
-    setFilterDoc(filtered);
-  }, [doctors, speciality, searchTerm]);
+
+    // typed names go to the server's autocomplete, which tolerates typos and partial words
+    let cancelled = false;
+    const timer = setTimeout(async () => {
+      try {
+        const response = await fetch(
+          `http://localhost:8080/api/v1/users/doctor/search?q=${encodeURIComponent(searchTerm)}&limit=20`
+        );
+        const data = await response.json();
+        if (cancelled) return;
+        const matches = Array.isArray(data.obj) ? data.obj : [];
+        setFilterDoc(
+          speciality
+            ? matches.filter((doc) => (doc.specialization || "").toLowerCase() === speciality.toLowerCase())
+            : matches
+        );
+      } catch (error) {
+        console.error("Error searching doctors:", error);
+      }
+    }, 200);
+
+    return () => {
+      cancelled = true;
+      clearTimeout(timer);
+    };
+  }, [doctors, searchTerm, speciality]);
 
   const specialties = [
     "General Physician",
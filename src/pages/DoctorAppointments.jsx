@@ -13,6 +13,32 @@ function DoctorAppointments() {
     fetchAppointments();
   }, []);
 
+  // status changes arrive over the event stream instead of re-fetching the whole list
+  useEffect(() => {
+    const token = Cookies.get("jwt");
+    if (!token) return;
+
+    const source = new EventSource(
+      `http://localhost:8080/api/v1/appointments/appointment/events?token=${encodeURIComponent(token)}`
+    );
+    const applyChange = (event) => {
+      const change = JSON.parse(event.data);
+      setAppointments((prev) =>
+        prev.map((appt) =>
+          appt.id === change.appointmentId
+            ? { ...appt, appointmentStatus: change.appointmentStatus, paymentStatus: change.paymentStatus }
+            : appt
+        )
+      );
+    };
+    ["CONFIRMED", "CANCELLED", "COMPLETED", "PAYMENT_UPDATED"].forEach((type) =>
+      source.addEventListener(type, applyChange)
+    );
+    // a new appointment needs the full row, the event only carries ids
+    source.addEventListener("CREATED", () => fetchAppointments());
+    return () => source.close();
+  }, []);
+
   const fetchAppointments = async () => {
     const token = Cookies.get("jwt");
     if (!token) {
@@ -54,7 +80,10 @@ function DoctorAppointments() {
         {},
         { headers: { Authorization: `Bearer ${token}` } }
       );
-      fetchAppointments();
+      const status = action === "confirm" ? "CONFIRMED" : "COMPLETED";
+      setAppointments((prev) =>
+        prev.map((appt) => (appt.id === appointmentId ? { ...appt, appointmentStatus: status } : appt))
+      );
     } catch (error) {
       console.error("Error updating appointment:", error);
       alert(`Failed to update appointment: ${error.response?.data?.message || error.message}`);
@@ -250,9 +279,9 @@ function DoctorAppointments() {
                       {appointment.appointmentStatus}
                     </span>
 
-                    {appointment.appointmentStatus !== "COMPLETED" && (
+                    {(appointment.appointmentStatus === "BOOKED" || appointment.appointmentStatus === "CONFIRMED") && (
                       <div className="flex space-x-2">
-                        {appointment.appointmentStatus !== "CONFIRMED" && (
+                        {appointment.appointmentStatus === "BOOKED" && (
                           <button
                             onClick={() => updateAppointmentStatus(appointment.id, "confirm")}
                             className="px-3 py-1 bg-green-600 hover:bg-green-700 text-white text-sm rounded-md transition-colors"
@@ -260,12 +289,14 @@ function DoctorAppointments() {
                             Confirm
                           </button>
                         )}
-                        <button
-                          onClick={() => updateAppointmentStatus(appointment.id, "complete")}
-                          className="px-3 py-1 bg-blue-600 hover:bg-blue-700 text-white text-sm rounded-md transition-colors"
-                        >
-                          Complete
-                        </button>
+                        {appointment.appointmentStatus === "CONFIRMED" && (
+                          <button
+                            onClick={() => updateAppointmentStatus(appointment.id, "complete")}
+                            className="px-3 py-1 bg-blue-600 hover:bg-blue-700 text-white text-sm rounded-md transition-colors"
+                          >
+                            Complete
+                          </button>
+                        )}
                       </div>
                     )}
                   </div>
@@ -17,6 +17,32 @@ function PatientAppointments() {
     fetchAppointments();
   }, []);
 
+  // status changes arrive over the event stream instead of re-fetching the whole list
+  useEffect(() => {
+    const token = Cookies.get("jwt");
+    if (!token) return;
+
+    const source = new EventSource(
+      `http://localhost:8080/api/v1/appointments/appointment/events?token=${encodeURIComponent(token)}`
+    );
+    const applyChange = (event) => {
+      const change = JSON.parse(event.data);
+      setAppointments((prev) =>
+        prev.map((appt) =>
+          appt.id === change.appointmentId
+            ? { ...appt, appointmentStatus: change.appointmentStatus, paymentStatus: change.paymentStatus }
+            : appt
+        )
+      );
+    };
+    ["CONFIRMED", "CANCELLED", "COMPLETED", "PAYMENT_UPDATED"].forEach((type) =>
+      source.addEventListener(type, applyChange)
+    );
+    // a new appointment needs the full row, the event only carries ids
+    source.addEventListener("CREATED", () => fetchAppointments());
+    return () => source.close();
+  }, []);
+
   const fetchAppointments = async () => {
     const token = Cookies.get("jwt");
     if (!token) {